@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2014 Red Hat, Inc. and others
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.vertx.ext.hawkular;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.json.JsonArray;
+
+/**
+ * Converter for {@link io.vertx.ext.hawkular.AddressMetricsOptions}.
+ *
+ * NOTE: This class has been automatically generated from the {@link io.vertx.ext.hawkular.AddressMetricsOptions} original class using Vert.x codegen.
+ */
+public class AddressMetricsOptionsConverter {
+
+  public static void fromJson(JsonObject json, AddressMetricsOptions obj) {
+    if (json.getValue("addresses") instanceof JsonArray) {
+      java.util.ArrayList<java.lang.String> list = new java.util.ArrayList<>();
+      json.getJsonArray("addresses").forEach( item -> {
+        if (item instanceof String)
+          list.add((String)item);
+      });
+      obj.setAddresses(list);
+    }
+    if (json.getValue("enabled") instanceof Boolean) {
+      obj.setEnabled((Boolean)json.getValue("enabled"));
+    }
+    if (json.getValue("maxAddresses") instanceof Number) {
+      obj.setMaxAddresses(((Number)json.getValue("maxAddresses")).intValue());
+    }
+    if (json.getValue("prefixes") instanceof JsonArray) {
+      java.util.ArrayList<java.lang.String> list = new java.util.ArrayList<>();
+      json.getJsonArray("prefixes").forEach( item -> {
+        if (item instanceof String)
+          list.add((String)item);
+      });
+      obj.setPrefixes(list);
+    }
+  }
+
+  public static void toJson(AddressMetricsOptions obj, JsonObject json) {
+    if (obj.getAddresses() != null) {
+      JsonArray array = new JsonArray();
+      obj.getAddresses().forEach(item -> array.add(item));
+      json.put("addresses", array);
+    }
+    json.put("enabled", obj.isEnabled());
+    json.put("maxAddresses", obj.getMaxAddresses());
+    if (obj.getPrefixes() != null) {
+      JsonArray array = new JsonArray();
+      obj.getPrefixes().forEach(item -> array.add(item));
+      json.put("prefixes", array);
+    }
+  }
+}
\ No newline at end of file
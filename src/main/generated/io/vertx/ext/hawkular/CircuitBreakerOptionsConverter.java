@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2014 Red Hat, Inc. and others
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.vertx.ext.hawkular;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.json.JsonArray;
+
+/**
+ * Converter for {@link io.vertx.ext.hawkular.CircuitBreakerOptions}.
+ *
+ * NOTE: This class has been automatically generated from the {@link io.vertx.ext.hawkular.CircuitBreakerOptions} original class using Vert.x codegen.
+ */
+public class CircuitBreakerOptionsConverter {
+
+  public static void fromJson(JsonObject json, CircuitBreakerOptions obj) {
+    if (json.getValue("enabled") instanceof Boolean) {
+      obj.setEnabled((Boolean)json.getValue("enabled"));
+    }
+    if (json.getValue("failureThreshold") instanceof Number) {
+      obj.setFailureThreshold(((Number)json.getValue("failureThreshold")).intValue());
+    }
+    if (json.getValue("probeInterval") instanceof Number) {
+      obj.setProbeInterval(((Number)json.getValue("probeInterval")).longValue());
+    }
+  }
+
+  public static void toJson(CircuitBreakerOptions obj, JsonObject json) {
+    json.put("enabled", obj.isEnabled());
+    json.put("failureThreshold", obj.getFailureThreshold());
+    json.put("probeInterval", obj.getProbeInterval());
+  }
+}
\ No newline at end of file
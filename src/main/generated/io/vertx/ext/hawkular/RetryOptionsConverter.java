@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2014 Red Hat, Inc. and others
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.vertx.ext.hawkular;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.json.JsonArray;
+
+/**
+ * Converter for {@link io.vertx.ext.hawkular.RetryOptions}.
+ *
+ * NOTE: This class has been automatically generated from the {@link io.vertx.ext.hawkular.RetryOptions} original class using Vert.x codegen.
+ */
+public class RetryOptionsConverter {
+
+  public static void fromJson(JsonObject json, RetryOptions obj) {
+    if (json.getValue("baseDelay") instanceof Number) {
+      obj.setBaseDelay(((Number)json.getValue("baseDelay")).longValue());
+    }
+    if (json.getValue("jitter") instanceof Number) {
+      obj.setJitter(((Number)json.getValue("jitter")).doubleValue());
+    }
+    if (json.getValue("maxAttempts") instanceof Number) {
+      obj.setMaxAttempts(((Number)json.getValue("maxAttempts")).intValue());
+    }
+    if (json.getValue("maxDelay") instanceof Number) {
+      obj.setMaxDelay(((Number)json.getValue("maxDelay")).longValue());
+    }
+  }
+
+  public static void toJson(RetryOptions obj, JsonObject json) {
+    json.put("baseDelay", obj.getBaseDelay());
+    json.put("jitter", obj.getJitter());
+    json.put("maxAttempts", obj.getMaxAttempts());
+    json.put("maxDelay", obj.getMaxDelay());
+  }
+}
\ No newline at end of file
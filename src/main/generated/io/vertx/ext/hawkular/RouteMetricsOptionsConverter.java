@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2014 Red Hat, Inc. and others
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.vertx.ext.hawkular;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.json.JsonArray;
+
+/**
+ * Converter for {@link io.vertx.ext.hawkular.RouteMetricsOptions}.
+ *
+ * NOTE: This class has been automatically generated from the {@link io.vertx.ext.hawkular.RouteMetricsOptions} original class using Vert.x codegen.
+ */
+public class RouteMetricsOptionsConverter {
+
+  public static void fromJson(JsonObject json, RouteMetricsOptions obj) {
+    if (json.getValue("enabled") instanceof Boolean) {
+      obj.setEnabled((Boolean)json.getValue("enabled"));
+    }
+    if (json.getValue("maxSeries") instanceof Number) {
+      obj.setMaxSeries(((Number)json.getValue("maxSeries")).intValue());
+    }
+    if (json.getValue("patterns") instanceof JsonObject) {
+      obj.setPatterns(((JsonObject)json.getValue("patterns")).copy());
+    }
+    if (json.getValue("routes") instanceof JsonArray) {
+      java.util.ArrayList<java.lang.String> list = new java.util.ArrayList<>();
+      json.getJsonArray("routes").forEach( item -> {
+        if (item instanceof String)
+          list.add((String)item);
+      });
+      obj.setRoutes(list);
+    }
+  }
+
+  public static void toJson(RouteMetricsOptions obj, JsonObject json) {
+    json.put("enabled", obj.isEnabled());
+    json.put("maxSeries", obj.getMaxSeries());
+    if (obj.getPatterns() != null) {
+      json.put("patterns", obj.getPatterns());
+    }
+    if (obj.getRoutes() != null) {
+      JsonArray array = new JsonArray();
+      obj.getRoutes().forEach(item -> array.add(item));
+      json.put("routes", array);
+    }
+  }
+}
\ No newline at end of file
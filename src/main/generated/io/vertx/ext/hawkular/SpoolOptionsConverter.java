@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2014 Red Hat, Inc. and others
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.vertx.ext.hawkular;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.json.JsonArray;
+
+/**
+ * Converter for {@link io.vertx.ext.hawkular.SpoolOptions}.
+ *
+ * NOTE: This class has been automatically generated from the {@link io.vertx.ext.hawkular.SpoolOptions} original class using Vert.x codegen.
+ */
+public class SpoolOptionsConverter {
+
+  public static void fromJson(JsonObject json, SpoolOptions obj) {
+    if (json.getValue("directory") instanceof String) {
+      obj.setDirectory((String)json.getValue("directory"));
+    }
+    if (json.getValue("enabled") instanceof Boolean) {
+      obj.setEnabled((Boolean)json.getValue("enabled"));
+    }
+    if (json.getValue("maxAge") instanceof Number) {
+      obj.setMaxAge(((Number)json.getValue("maxAge")).intValue());
+    }
+    if (json.getValue("maxSize") instanceof Number) {
+      obj.setMaxSize(((Number)json.getValue("maxSize")).longValue());
+    }
+    if (json.getValue("replayRate") instanceof Number) {
+      obj.setReplayRate(((Number)json.getValue("replayRate")).intValue());
+    }
+    if (json.getValue("segmentSize") instanceof Number) {
+      obj.setSegmentSize(((Number)json.getValue("segmentSize")).intValue());
+    }
+  }
+
+  public static void toJson(SpoolOptions obj, JsonObject json) {
+    if (obj.getDirectory() != null) {
+      json.put("directory", obj.getDirectory());
+    }
+    json.put("enabled", obj.isEnabled());
+    json.put("maxAge", obj.getMaxAge());
+    json.put("maxSize", obj.getMaxSize());
+    json.put("replayRate", obj.getReplayRate());
+    json.put("segmentSize", obj.getSegmentSize());
+  }
+}
\ No newline at end of file
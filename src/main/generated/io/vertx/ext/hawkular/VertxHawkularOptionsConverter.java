@@ -27,15 +27,36 @@ import io.vertx.core.json.JsonArray;
 public class VertxHawkularOptionsConverter {
 
   public static void fromJson(JsonObject json, VertxHawkularOptions obj) {
+    if (json.getValue("adaptiveBatching") instanceof Boolean) {
+      obj.setAdaptiveBatching((Boolean)json.getValue("adaptiveBatching"));
+    }
+    if (json.getValue("addressMetricsOptions") instanceof JsonObject) {
+      obj.setAddressMetricsOptions(new io.vertx.ext.hawkular.AddressMetricsOptions((JsonObject)json.getValue("addressMetricsOptions")));
+    }
     if (json.getValue("authenticationOptions") instanceof JsonObject) {
       obj.setAuthenticationOptions(new io.vertx.ext.hawkular.AuthenticationOptions((JsonObject)json.getValue("authenticationOptions")));
     }
     if (json.getValue("batchDelay") instanceof Number) {
       obj.setBatchDelay(((Number)json.getValue("batchDelay")).intValue());
     }
+    if (json.getValue("batchLatencyTarget") instanceof Number) {
+      obj.setBatchLatencyTarget(((Number)json.getValue("batchLatencyTarget")).longValue());
+    }
     if (json.getValue("batchSize") instanceof Number) {
       obj.setBatchSize(((Number)json.getValue("batchSize")).intValue());
     }
+    if (json.getValue("changeDetectionEnabled") instanceof Boolean) {
+      obj.setChangeDetectionEnabled((Boolean)json.getValue("changeDetectionEnabled"));
+    }
+    if (json.getValue("changeDetectionHeartbeat") instanceof Number) {
+      obj.setChangeDetectionHeartbeat(((Number)json.getValue("changeDetectionHeartbeat")).intValue());
+    }
+    if (json.getValue("circuitBreakerOptions") instanceof JsonObject) {
+      obj.setCircuitBreakerOptions(new io.vertx.ext.hawkular.CircuitBreakerOptions((JsonObject)json.getValue("circuitBreakerOptions")));
+    }
+    if (json.getValue("compressionEnabled") instanceof Boolean) {
+      obj.setCompressionEnabled((Boolean)json.getValue("compressionEnabled"));
+    }
     if (json.getValue("disabledMetricsTypes") instanceof JsonArray) {
       java.util.LinkedHashSet<io.vertx.ext.hawkular.MetricsType> list = new java.util.LinkedHashSet<>();
       json.getJsonArray("disabledMetricsTypes").forEach( item -> {
@@ -47,6 +68,9 @@ public class VertxHawkularOptionsConverter {
     if (json.getValue("enabled") instanceof Boolean) {
       obj.setEnabled((Boolean)json.getValue("enabled"));
     }
+    if (json.getValue("exactStatusCodes") instanceof Boolean) {
+      obj.setExactStatusCodes((Boolean)json.getValue("exactStatusCodes"));
+    }
     if (json.getValue("host") instanceof String) {
       obj.setHost((String)json.getValue("host"));
     }
@@ -56,6 +80,23 @@ public class VertxHawkularOptionsConverter {
     if (json.getValue("httpOptions") instanceof JsonObject) {
       obj.setHttpOptions(new io.vertx.core.http.HttpClientOptions((JsonObject)json.getValue("httpOptions")));
     }
+    if (json.getValue("latencyPercentiles") instanceof JsonArray) {
+      java.util.ArrayList<java.lang.Double> list = new java.util.ArrayList<>();
+      json.getJsonArray("latencyPercentiles").forEach( item -> {
+        if (item instanceof Number)
+          list.add(((Number)item).doubleValue());
+      });
+      obj.setLatencyPercentiles(list);
+    }
+    if (json.getValue("maxBatchSize") instanceof Number) {
+      obj.setMaxBatchSize(((Number)json.getValue("maxBatchSize")).intValue());
+    }
+    if (json.getValue("maxDatagramRemoteAddresses") instanceof Number) {
+      obj.setMaxDatagramRemoteAddresses(((Number)json.getValue("maxDatagramRemoteAddresses")).intValue());
+    }
+    if (json.getValue("maxInFlightBatches") instanceof Number) {
+      obj.setMaxInFlightBatches(((Number)json.getValue("maxInFlightBatches")).intValue());
+    }
     if (json.getValue("metricTagsMatches") instanceof JsonArray) {
       java.util.ArrayList<io.vertx.ext.hawkular.MetricTagsMatch> list = new java.util.ArrayList<>();
       json.getJsonArray("metricTagsMatches").forEach( item -> {
@@ -67,24 +108,45 @@ public class VertxHawkularOptionsConverter {
     if (json.getValue("metricsBridgeAddress") instanceof String) {
       obj.setMetricsBridgeAddress((String)json.getValue("metricsBridgeAddress"));
     }
+    if (json.getValue("metricsBridgeAggregation") instanceof Boolean) {
+      obj.setMetricsBridgeAggregation((Boolean)json.getValue("metricsBridgeAggregation"));
+    }
     if (json.getValue("metricsBridgeEnabled") instanceof Boolean) {
       obj.setMetricsBridgeEnabled((Boolean)json.getValue("metricsBridgeEnabled"));
     }
     if (json.getValue("metricsServiceUri") instanceof String) {
       obj.setMetricsServiceUri((String)json.getValue("metricsServiceUri"));
     }
+    if (json.getValue("minBatchSize") instanceof Number) {
+      obj.setMinBatchSize(((Number)json.getValue("minBatchSize")).intValue());
+    }
+    if (json.getValue("overflowPolicy") instanceof String) {
+      obj.setOverflowPolicy(io.vertx.ext.hawkular.OverflowPolicy.valueOf((String)json.getValue("overflowPolicy")));
+    }
     if (json.getValue("port") instanceof Number) {
       obj.setPort(((Number)json.getValue("port")).intValue());
     }
     if (json.getValue("prefix") instanceof String) {
       obj.setPrefix((String)json.getValue("prefix"));
     }
+    if (json.getValue("remoteIdleTimeout") instanceof Number) {
+      obj.setRemoteIdleTimeout(((Number)json.getValue("remoteIdleTimeout")).intValue());
+    }
+    if (json.getValue("retryOptions") instanceof JsonObject) {
+      obj.setRetryOptions(new io.vertx.ext.hawkular.RetryOptions((JsonObject)json.getValue("retryOptions")));
+    }
+    if (json.getValue("routeMetricsOptions") instanceof JsonObject) {
+      obj.setRouteMetricsOptions(new io.vertx.ext.hawkular.RouteMetricsOptions((JsonObject)json.getValue("routeMetricsOptions")));
+    }
     if (json.getValue("schedule") instanceof Number) {
       obj.setSchedule(((Number)json.getValue("schedule")).intValue());
     }
     if (json.getValue("sendTenantHeader") instanceof Boolean) {
       obj.setSendTenantHeader((Boolean)json.getValue("sendTenantHeader"));
     }
+    if (json.getValue("spoolOptions") instanceof JsonObject) {
+      obj.setSpoolOptions(new io.vertx.ext.hawkular.SpoolOptions((JsonObject)json.getValue("spoolOptions")));
+    }
     if (json.getValue("taggedMetricsCacheSize") instanceof Number) {
       obj.setTaggedMetricsCacheSize(((Number)json.getValue("taggedMetricsCacheSize")).intValue());
     }
@@ -97,14 +159,20 @@ public class VertxHawkularOptionsConverter {
   }
 
   public static void toJson(VertxHawkularOptions obj, JsonObject json) {
+    json.put("adaptiveBatching", obj.isAdaptiveBatching());
     json.put("batchDelay", obj.getBatchDelay());
+    json.put("batchLatencyTarget", obj.getBatchLatencyTarget());
     json.put("batchSize", obj.getBatchSize());
+    json.put("changeDetectionEnabled", obj.isChangeDetectionEnabled());
+    json.put("changeDetectionHeartbeat", obj.getChangeDetectionHeartbeat());
+    json.put("compressionEnabled", obj.isCompressionEnabled());
     if (obj.getDisabledMetricsTypes() != null) {
       JsonArray array = new JsonArray();
       obj.getDisabledMetricsTypes().forEach(item -> array.add(item.name()));
       json.put("disabledMetricsTypes", array);
     }
     json.put("enabled", obj.isEnabled());
+    json.put("exactStatusCodes", obj.isExactStatusCodes());
     if (obj.getHost() != null) {
       json.put("host", obj.getHost());
     }
@@ -114,17 +182,31 @@ public class VertxHawkularOptionsConverter {
     if (obj.getHttpOptions() != null) {
       json.put("httpOptions", obj.getHttpOptions().toJson());
     }
+    if (obj.getLatencyPercentiles() != null) {
+      JsonArray array = new JsonArray();
+      obj.getLatencyPercentiles().forEach(item -> array.add(item));
+      json.put("latencyPercentiles", array);
+    }
+    json.put("maxBatchSize", obj.getMaxBatchSize());
+    json.put("maxDatagramRemoteAddresses", obj.getMaxDatagramRemoteAddresses());
+    json.put("maxInFlightBatches", obj.getMaxInFlightBatches());
     if (obj.getMetricsBridgeAddress() != null) {
       json.put("metricsBridgeAddress", obj.getMetricsBridgeAddress());
     }
+    json.put("metricsBridgeAggregation", obj.isMetricsBridgeAggregation());
     json.put("metricsBridgeEnabled", obj.isMetricsBridgeEnabled());
     if (obj.getMetricsServiceUri() != null) {
       json.put("metricsServiceUri", obj.getMetricsServiceUri());
     }
+    json.put("minBatchSize", obj.getMinBatchSize());
+    if (obj.getOverflowPolicy() != null) {
+      json.put("overflowPolicy", obj.getOverflowPolicy().name());
+    }
     json.put("port", obj.getPort());
     if (obj.getPrefix() != null) {
       json.put("prefix", obj.getPrefix());
     }
+    json.put("remoteIdleTimeout", obj.getRemoteIdleTimeout());
     json.put("schedule", obj.getSchedule());
     json.put("sendTenantHeader", obj.isSendTenantHeader());
     json.put("taggedMetricsCacheSize", obj.getTaggedMetricsCacheSize());
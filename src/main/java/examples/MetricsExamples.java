@@ -20,12 +20,18 @@ import io.vertx.core.VertxOptions;
 import io.vertx.core.http.HttpClientOptions;
 import io.vertx.core.json.JsonObject;
 import io.vertx.docgen.Source;
+import io.vertx.ext.hawkular.AddressMetricsOptions;
 import io.vertx.ext.hawkular.AuthenticationOptions;
+import io.vertx.ext.hawkular.CircuitBreakerOptions;
 import io.vertx.ext.hawkular.MetricTagsMatch;
 import io.vertx.ext.hawkular.MetricTagsMatch.MatchType;
+import io.vertx.ext.hawkular.RetryOptions;
+import io.vertx.ext.hawkular.RouteMetricsOptions;
+import io.vertx.ext.hawkular.SpoolOptions;
 import io.vertx.ext.hawkular.VertxHawkularOptions;
 
 import java.util.Arrays;
+import java.util.Collections;
 
 /**
  * @author Thomas Segismont
@@ -94,6 +100,80 @@ public class MetricsExamples {
     ));
   }
 
+  public void setupCompression() {
+    Vertx vertx = Vertx.vertx(new VertxOptions().setMetricsOptions(
+      new VertxHawkularOptions()
+        .setEnabled(true)
+        .setCompressionEnabled(true)
+    ));
+  }
+
+  public void setupAdaptiveBatching() {
+    Vertx vertx = Vertx.vertx(new VertxOptions().setMetricsOptions(
+      new VertxHawkularOptions()
+        .setEnabled(true)
+        .setAdaptiveBatching(true)
+        .setMinBatchSize(50)
+        .setMaxBatchSize(5000)
+        .setBatchLatencyTarget(250)
+    ));
+  }
+
+  public void setupRetries() {
+    Vertx vertx = Vertx.vertx(new VertxOptions().setMetricsOptions(
+      new VertxHawkularOptions()
+        .setEnabled(true)
+        .setRetryOptions(new RetryOptions()
+          .setMaxAttempts(5)
+          .setBaseDelay(200)
+          .setMaxDelay(5000))
+    ));
+  }
+
+  public void setupCircuitBreaker() {
+    Vertx vertx = Vertx.vertx(new VertxOptions().setMetricsOptions(
+      new VertxHawkularOptions()
+        .setEnabled(true)
+        .setCircuitBreakerOptions(new CircuitBreakerOptions()
+          .setEnabled(true)
+          .setFailureThreshold(3)
+          .setProbeInterval(30000))
+    ));
+  }
+
+  public void setupSpool() {
+    Vertx vertx = Vertx.vertx(new VertxOptions().setMetricsOptions(
+      new VertxHawkularOptions()
+        .setEnabled(true)
+        .setSpoolOptions(new SpoolOptions()
+          .setEnabled(true)
+          .setDirectory("/var/spool/myapp/metrics")
+          .setMaxSize(256L * 1024 * 1024))
+    ));
+  }
+
+  public void setupRouteMetrics() {
+    Vertx vertx = Vertx.vertx(new VertxOptions().setMetricsOptions(
+      new VertxHawkularOptions()
+        .setEnabled(true)
+        .setRouteMetricsOptions(new RouteMetricsOptions()
+          .setEnabled(true)
+          .setRoutes(Arrays.asList("/users/:id", "/users/:id/orders/{orderId}", "/static/*"))
+          .setPatterns(new JsonObject().put("health", "/(health|ready)")))
+    ));
+  }
+
+  public void setupAddressMetrics() {
+    Vertx vertx = Vertx.vertx(new VertxOptions().setMetricsOptions(
+      new VertxHawkularOptions()
+        .setEnabled(true)
+        .setAddressMetricsOptions(new AddressMetricsOptions()
+          .setEnabled(true)
+          .setAddresses(Arrays.asList("orders", "payments"))
+          .setPrefixes(Collections.singletonList("inventory.")))
+    ));
+  }
+
   public void enableMetricsBridge() {
     Vertx vertx = Vertx.vertx(new VertxOptions().setMetricsOptions(
       new VertxHawkularOptions()
@@ -111,6 +191,15 @@ public class MetricsExamples {
     ));
   }
 
+  public void aggregateMetricsBridge() {
+    Vertx vertx = Vertx.vertx(new VertxOptions().setMetricsOptions(
+      new VertxHawkularOptions()
+        .setEnabled(true)
+        .setMetricsBridgeEnabled(true)
+        .setMetricsBridgeAggregation(true)
+    ));
+  }
+
   public void userDefinedMetric() {
     JsonObject message = new JsonObject()
       .put("id", "myapp.files.opened")
@@ -133,6 +222,15 @@ public class MetricsExamples {
     vertx.eventBus().publish("hawkular.metrics", availabilityMetric);
   }
 
+  public void setupChangeDetection() {
+    Vertx vertx = Vertx.vertx(new VertxOptions().setMetricsOptions(
+      new VertxHawkularOptions()
+        .setEnabled(true)
+        .setChangeDetectionEnabled(true)
+        .setChangeDetectionHeartbeat(30)
+    ));
+  }
+
   public void setupMetricTags() {
     Vertx vertx = Vertx.vertx(new VertxOptions().setMetricsOptions(
       new VertxHawkularOptions()
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular;
+
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.core.json.JsonObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration of the per-address event bus metrics.
+ *
+ * @author Thomas Segismont
+ */
+@DataObject(generateConverter = true)
+public class AddressMetricsOptions {
+  /**
+   * Default value for enabled = false.
+   */
+  public static final boolean DEFAULT_ENABLED = false;
+
+  /**
+   * Default maximum number of reported addresses = 100.
+   */
+  public static final int DEFAULT_MAX_ADDRESSES = 100;
+
+  private boolean enabled;
+  private int maxAddresses;
+  private List<String> addresses;
+  private List<String> prefixes;
+
+  public AddressMetricsOptions() {
+    enabled = DEFAULT_ENABLED;
+    maxAddresses = DEFAULT_MAX_ADDRESSES;
+    addresses = new ArrayList<>();
+    prefixes = new ArrayList<>();
+  }
+
+  public AddressMetricsOptions(AddressMetricsOptions other) {
+    enabled = other.enabled;
+    maxAddresses = other.maxAddresses;
+    addresses = other.addresses != null ? new ArrayList<>(other.addresses) : new ArrayList<>();
+    prefixes = other.prefixes != null ? new ArrayList<>(other.prefixes) : new ArrayList<>();
+  }
+
+  public AddressMetricsOptions(JsonObject json) {
+    this();
+    AddressMetricsOptionsConverter.fromJson(json, this);
+  }
+
+  /**
+   * @return true if per-address metrics are enabled
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Set whether event bus metrics should also be reported per address. Defaults to {@code false}.
+   */
+  public AddressMetricsOptions setEnabled(boolean enabled) {
+    this.enabled = enabled;
+    return this;
+  }
+
+  /**
+   * @return the maximum number of reported addresses
+   */
+  public int getMaxAddresses() {
+    return maxAddresses;
+  }
+
+  /**
+   * Set the maximum number of addresses reported individually. Beyond that, messages are reported in the
+   * {@code other} bucket. Defaults to {@code 100}.
+   */
+  public AddressMetricsOptions setMaxAddresses(int maxAddresses) {
+    this.maxAddresses = maxAddresses;
+    return this;
+  }
+
+  /**
+   * @return the addresses reported individually
+   */
+  public List<String> getAddresses() {
+    return addresses;
+  }
+
+  /**
+   * Set the addresses reported individually.
+   */
+  public AddressMetricsOptions setAddresses(List<String> addresses) {
+    this.addresses = addresses;
+    return this;
+  }
+
+  /**
+   * @return the prefixes of the addresses reported individually
+   */
+  public List<String> getPrefixes() {
+    return prefixes;
+  }
+
+  /**
+   * Set the prefixes of the addresses reported individually.
+   */
+  public AddressMetricsOptions setPrefixes(List<String> prefixes) {
+    this.prefixes = prefixes;
+    return this;
+  }
+}
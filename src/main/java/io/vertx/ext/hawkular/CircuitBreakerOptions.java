@@ -0,0 +1,110 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular;
+
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Options for the circuit breaker which stops sending requests to the Hawkular server while it is unavailable.
+ *
+ * @author Thomas Segismont
+ */
+@DataObject(generateConverter = true)
+public class CircuitBreakerOptions {
+  /**
+   * The default value to enable / disable the circuit breaker. Disabled by default.
+   */
+  public static final boolean DEFAULT_ENABLED = false;
+
+  /**
+   * The default number of consecutive failed requests which opens the circuit = 5.
+   */
+  public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+
+  /**
+   * The default delay before a probe request is sent when the circuit is open = 10000 ms.
+   */
+  public static final long DEFAULT_PROBE_INTERVAL = 10000;
+
+  private boolean enabled;
+  private int failureThreshold;
+  private long probeInterval;
+
+  public CircuitBreakerOptions() {
+    enabled = DEFAULT_ENABLED;
+    failureThreshold = DEFAULT_FAILURE_THRESHOLD;
+    probeInterval = DEFAULT_PROBE_INTERVAL;
+  }
+
+  public CircuitBreakerOptions(CircuitBreakerOptions other) {
+    enabled = other.enabled;
+    failureThreshold = other.failureThreshold;
+    probeInterval = other.probeInterval;
+  }
+
+  public CircuitBreakerOptions(JsonObject json) {
+    this();
+    CircuitBreakerOptionsConverter.fromJson(json, this);
+  }
+
+  /**
+   * @return true if the circuit breaker is enabled
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Set whether the circuit breaker is enabled. Defaults to {@code false}.
+   */
+  public CircuitBreakerOptions setEnabled(boolean enabled) {
+    this.enabled = enabled;
+    return this;
+  }
+
+  /**
+   * @return the number of consecutive failed requests which opens the circuit
+   */
+  public int getFailureThreshold() {
+    return failureThreshold;
+  }
+
+  /**
+   * Set the number of consecutive failed requests which opens the circuit. Defaults to {@code 5}.
+   */
+  public CircuitBreakerOptions setFailureThreshold(int failureThreshold) {
+    this.failureThreshold = failureThreshold;
+    return this;
+  }
+
+  /**
+   * @return the delay before a probe request is sent when the circuit is open, in ms
+   */
+  public long getProbeInterval() {
+    return probeInterval;
+  }
+
+  /**
+   * Set the delay before a probe request is sent when the circuit is open (in ms). If the probe succeeds, the circuit
+   * is closed, otherwise it stays open for another interval. Defaults to {@code 10000}.
+   */
+  public CircuitBreakerOptions setProbeInterval(long probeInterval) {
+    this.probeInterval = probeInterval;
+    return this;
+  }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.hawkular;
+
+import io.vertx.codegen.annotations.VertxGen;
+
+
+/**
+ *  What to do with data points when the sender queue is full.
+ */
+@VertxGen
+public enum OverflowPolicy {
+
+  /**
+   * Keep only the latest queued point of each metric, then drop the oldest points if the queue is still full.
+   */
+  COALESCE,
+  /**
+   * Drop the oldest queued points.
+   */
+  DROP_OLDEST,
+  /**
+   * Drop the newest points.
+   */
+  DROP_NEWEST
+}
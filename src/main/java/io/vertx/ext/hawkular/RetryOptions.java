@@ -0,0 +1,135 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular;
+
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Options for retrying batch requests which failed because of a connection error or a server error.
+ *
+ * @author Thomas Segismont
+ */
+@DataObject(generateConverter = true)
+public class RetryOptions {
+  /**
+   * The default maximum number of attempts to send a batch = 3.
+   */
+  public static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+  /**
+   * The default delay before the first retry = 500 ms.
+   */
+  public static final long DEFAULT_BASE_DELAY = 500;
+
+  /**
+   * The default maximum delay between two attempts = 10000 ms.
+   */
+  public static final long DEFAULT_MAX_DELAY = 10000;
+
+  /**
+   * The default jitter = 0.2.
+   */
+  public static final double DEFAULT_JITTER = 0.2;
+
+  private int maxAttempts;
+  private long baseDelay;
+  private long maxDelay;
+  private double jitter;
+
+  public RetryOptions() {
+    maxAttempts = DEFAULT_MAX_ATTEMPTS;
+    baseDelay = DEFAULT_BASE_DELAY;
+    maxDelay = DEFAULT_MAX_DELAY;
+    jitter = DEFAULT_JITTER;
+  }
+
+  public RetryOptions(RetryOptions other) {
+    maxAttempts = other.maxAttempts;
+    baseDelay = other.baseDelay;
+    maxDelay = other.maxDelay;
+    jitter = other.jitter;
+  }
+
+  public RetryOptions(JsonObject json) {
+    this();
+    RetryOptionsConverter.fromJson(json, this);
+  }
+
+  /**
+   * @return the maximum number of attempts to send a batch
+   */
+  public int getMaxAttempts() {
+    return maxAttempts;
+  }
+
+  /**
+   * Set the maximum number of attempts to send a batch, including the first one. Set to {@code 1} to disable retries.
+   * Defaults to {@code 3}.
+   */
+  public RetryOptions setMaxAttempts(int maxAttempts) {
+    this.maxAttempts = maxAttempts;
+    return this;
+  }
+
+  /**
+   * @return the delay before the first retry, in ms
+   */
+  public long getBaseDelay() {
+    return baseDelay;
+  }
+
+  /**
+   * Set the delay before the first retry (in ms). The delay doubles after each failed attempt. Defaults to
+   * {@code 500}.
+   */
+  public RetryOptions setBaseDelay(long baseDelay) {
+    this.baseDelay = baseDelay;
+    return this;
+  }
+
+  /**
+   * @return the maximum delay between two attempts, in ms
+   */
+  public long getMaxDelay() {
+    return maxDelay;
+  }
+
+  /**
+   * Set the maximum delay between two attempts (in ms). Defaults to {@code 10000}.
+   */
+  public RetryOptions setMaxDelay(long maxDelay) {
+    this.maxDelay = maxDelay;
+    return this;
+  }
+
+  /**
+   * @return the jitter ratio applied to retry delays
+   */
+  public double getJitter() {
+    return jitter;
+  }
+
+  /**
+   * Set the jitter ratio applied to retry delays, between {@code 0} and {@code 1}. Each delay is reduced by a random
+   * fraction of itself, up to this ratio, so that instances do not retry all at once. Defaults to {@code 0.2}.
+   */
+  public RetryOptions setJitter(double jitter) {
+    this.jitter = jitter;
+    return this;
+  }
+}
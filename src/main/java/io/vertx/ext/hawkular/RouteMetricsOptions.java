@@ -0,0 +1,128 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular;
+
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.core.json.JsonObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration of the per-route HTTP server metrics.
+ *
+ * @author Thomas Segismont
+ */
+@DataObject(generateConverter = true)
+public class RouteMetricsOptions {
+  /**
+   * Default value for enabled = false.
+   */
+  public static final boolean DEFAULT_ENABLED = false;
+
+  /**
+   * Default maximum number of route series per server = 100.
+   */
+  public static final int DEFAULT_MAX_SERIES = 100;
+
+  private boolean enabled;
+  private int maxSeries;
+  private List<String> routes;
+  private JsonObject patterns;
+
+  public RouteMetricsOptions() {
+    enabled = DEFAULT_ENABLED;
+    maxSeries = DEFAULT_MAX_SERIES;
+    routes = new ArrayList<>();
+    patterns = new JsonObject();
+  }
+
+  public RouteMetricsOptions(RouteMetricsOptions other) {
+    enabled = other.enabled;
+    maxSeries = other.maxSeries;
+    routes = other.routes != null ? new ArrayList<>(other.routes) : new ArrayList<>();
+    patterns = other.patterns != null ? other.patterns.copy() : new JsonObject();
+  }
+
+  public RouteMetricsOptions(JsonObject json) {
+    this();
+    RouteMetricsOptionsConverter.fromJson(json, this);
+  }
+
+  /**
+   * @return true if per-route metrics are enabled
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Set whether HTTP server metrics should also be reported per method and route. Defaults to {@code false}.
+   */
+  public RouteMetricsOptions setEnabled(boolean enabled) {
+    this.enabled = enabled;
+    return this;
+  }
+
+  /**
+   * @return the maximum number of route series per server
+   */
+  public int getMaxSeries() {
+    return maxSeries;
+  }
+
+  /**
+   * Set the maximum number of method and route combinations reported per server. Beyond that, requests are reported
+   * in the {@code other} bucket. Defaults to {@code 100}.
+   */
+  public RouteMetricsOptions setMaxSeries(int maxSeries) {
+    this.maxSeries = maxSeries;
+    return this;
+  }
+
+  /**
+   * @return the URI templates of the routes
+   */
+  public List<String> getRoutes() {
+    return routes;
+  }
+
+  /**
+   * Set the URI templates of the routes, for example {@code /users/:id}. Path parameters are written {@code :name} or
+   * {@code {name}}, and a trailing {@code *} matches any remainder of the path.
+   */
+  public RouteMetricsOptions setRoutes(List<String> routes) {
+    this.routes = routes;
+    return this;
+  }
+
+  /**
+   * @return the regular expressions of the routes, keyed by route name
+   */
+  public JsonObject getPatterns() {
+    return patterns;
+  }
+
+  /**
+   * Set routes defined by a regular expression, keyed by route name, for example {@code {"users": "/users/[0-9]+"}}.
+   * Patterns are tried after URI templates.
+   */
+  public RouteMetricsOptions setPatterns(JsonObject patterns) {
+    this.patterns = patterns;
+    return this;
+  }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular;
+
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Disk spool options. When enabled, batches which could not be sent to the Hawkular server, or which overflowed the
+ * sender queue, are written to disk and replayed once the server is reachable again.
+ *
+ * @author Thomas Segismont
+ */
+@DataObject(generateConverter = true)
+public class SpoolOptions {
+  /**
+   * The default value to enable / disable the disk spool. Disabled by default.
+   */
+  public static final boolean DEFAULT_ENABLED = false;
+
+  /**
+   * The default spool directory = vertx-hawkular-spool.
+   */
+  public static final String DEFAULT_DIRECTORY = "vertx-hawkular-spool";
+
+  /**
+   * The default maximum size of the spool = 64 MiB.
+   */
+  public static final long DEFAULT_MAX_SIZE = 64L * 1024 * 1024;
+
+  /**
+   * The default size of a spool segment = 4 MiB.
+   */
+  public static final int DEFAULT_SEGMENT_SIZE = 4 * 1024 * 1024;
+
+  /**
+   * The minimum size of a spool segment = 1 KiB.
+   */
+  public static final int MIN_SEGMENT_SIZE = 1024;
+
+  /**
+   * The default maximum age of spooled batches = 86400 seconds (one day).
+   */
+  public static final int DEFAULT_MAX_AGE = 86400;
+
+  /**
+   * The default maximum number of spooled batches replayed per second = 10.
+   */
+  public static final int DEFAULT_REPLAY_RATE = 10;
+
+  private boolean enabled;
+  private String directory;
+  private long maxSize;
+  private int segmentSize;
+  private int maxAge;
+  private int replayRate;
+
+  public SpoolOptions() {
+    enabled = DEFAULT_ENABLED;
+    directory = DEFAULT_DIRECTORY;
+    maxSize = DEFAULT_MAX_SIZE;
+    segmentSize = DEFAULT_SEGMENT_SIZE;
+    maxAge = DEFAULT_MAX_AGE;
+    replayRate = DEFAULT_REPLAY_RATE;
+  }
+
+  public SpoolOptions(SpoolOptions other) {
+    enabled = other.enabled;
+    directory = other.directory;
+    maxSize = other.maxSize;
+    segmentSize = other.segmentSize;
+    maxAge = other.maxAge;
+    replayRate = other.replayRate;
+  }
+
+  public SpoolOptions(JsonObject json) {
+    this();
+    SpoolOptionsConverter.fromJson(json, this);
+  }
+
+  /**
+   * @return true if the disk spool is enabled
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Set whether the disk spool is enabled. Defaults to {@code false}.
+   */
+  public SpoolOptions setEnabled(boolean enabled) {
+    this.enabled = enabled;
+    return this;
+  }
+
+  /**
+   * @return the spool directory
+   */
+  public String getDirectory() {
+    return directory;
+  }
+
+  /**
+   * Set the directory where spool segments are stored. It must not be shared with another Vert.x instance. Defaults
+   * to {@code vertx-hawkular-spool}.
+   */
+  public SpoolOptions setDirectory(String directory) {
+    this.directory = directory;
+    return this;
+  }
+
+  /**
+   * @return the maximum size of the spool, in bytes
+   */
+  public long getMaxSize() {
+    return maxSize;
+  }
+
+  /**
+   * Set the maximum size of the spool, in bytes. When the limit is reached, the oldest segment is deleted. Defaults
+   * to 64 MiB.
+   */
+  public SpoolOptions setMaxSize(long maxSize) {
+    this.maxSize = maxSize;
+    return this;
+  }
+
+  /**
+   * @return the size of a spool segment, in bytes
+   */
+  public int getSegmentSize() {
+    return segmentSize;
+  }
+
+  /**
+   * Set the size of a spool segment file, in bytes. Batches larger than a segment are not spooled, so it should be
+   * well above the size of an encoded batch. Must be at least 1 KiB. Defaults to 4 MiB.
+   *
+   * @throws IllegalArgumentException if {@code segmentSize} is smaller than {@link #MIN_SEGMENT_SIZE}
+   */
+  public SpoolOptions setSegmentSize(int segmentSize) {
+    if (segmentSize < MIN_SEGMENT_SIZE) {
+      throw new IllegalArgumentException("segmentSize must be at least " + MIN_SEGMENT_SIZE + ": " + segmentSize);
+    }
+    this.segmentSize = segmentSize;
+    return this;
+  }
+
+  /**
+   * @return the maximum age of spooled batches, in seconds
+   */
+  public int getMaxAge() {
+    return maxAge;
+  }
+
+  /**
+   * Set the maximum age of spooled batches (in seconds). Older batches are discarded instead of being replayed.
+   * Defaults to {@code 86400} (one day).
+   */
+  public SpoolOptions setMaxAge(int maxAge) {
+    this.maxAge = maxAge;
+    return this;
+  }
+
+  /**
+   * @return the maximum number of spooled batches replayed per second
+   */
+  public int getReplayRate() {
+    return replayRate;
+  }
+
+  /**
+   * Set the maximum number of spooled batches replayed per second. Defaults to {@code 10}.
+   */
+  public SpoolOptions setReplayRate(int replayRate) {
+    this.replayRate = replayRate;
+    return this;
+  }
+}
@@ -22,6 +22,7 @@ import io.vertx.core.json.JsonObject;
 import io.vertx.core.metrics.MetricsOptions;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
@@ -95,6 +96,77 @@ public class VertxHawkularOptions extends MetricsOptions {
    */
   public static final int DEFAULT_TAGGED_METRICS_CACHE_SIZE = 4096;
 
+  /**
+   * The default value to enable / disable request body compression. Disabled by default.
+   */
+  public static final boolean DEFAULT_COMPRESSION_ENABLED = false;
+
+  /**
+   * The default maximum number of batch requests waiting for a response from the Hawkular server = 16.
+   */
+  public static final int DEFAULT_MAX_IN_FLIGHT_BATCHES = 16;
+
+  /**
+   * The default policy applied when the sender queue is full = {@link OverflowPolicy#COALESCE}.
+   */
+  public static final OverflowPolicy DEFAULT_OVERFLOW_POLICY = OverflowPolicy.COALESCE;
+
+  /**
+   * The default value to enable / disable adaptive batch sizing. Disabled by default.
+   */
+  public static final boolean DEFAULT_ADAPTIVE_BATCHING = false;
+
+  /**
+   * The default minimum batch size, when adaptive batching is enabled = 10.
+   */
+  public static final int DEFAULT_MIN_BATCH_SIZE = 10;
+
+  /**
+   * The default maximum batch size, when adaptive batching is enabled = 2000.
+   */
+  public static final int DEFAULT_MAX_BATCH_SIZE = 2000;
+
+  /**
+   * The default target for batch request latency, when adaptive batching is enabled = 500 ms.
+   */
+  public static final long DEFAULT_BATCH_LATENCY_TARGET = 500;
+
+  /**
+   * Default latency percentiles = [50, 95, 99, 99.9]
+   */
+  public static final List<Double> DEFAULT_LATENCY_PERCENTILES = Collections.unmodifiableList(Arrays.asList(50D, 95D, 99D, 99.9D));
+
+  /**
+   * Default value for exact status codes = false.
+   */
+  public static final boolean DEFAULT_EXACT_STATUS_CODES = false;
+
+  /**
+   * Default maximum number of remote addresses reported by datagram socket metrics = 100.
+   */
+  public static final int DEFAULT_MAX_DATAGRAM_REMOTE_ADDRESSES = 100;
+
+  /**
+   * Default time after which the metrics of an idle client remote address are removed = 300 seconds.
+   */
+  public static final int DEFAULT_REMOTE_IDLE_TIMEOUT = 300;
+
+  /**
+   * The default value to enable / disable change detection. Disabled by default.
+   */
+  public static final boolean DEFAULT_CHANGE_DETECTION_ENABLED = false;
+
+  /**
+   * Default number of collections after which an unchanged value is sent again, when change detection is enabled =
+   * 60.
+   */
+  public static final int DEFAULT_CHANGE_DETECTION_HEARTBEAT = 60;
+
+  /**
+   * The default value to enable / disable metrics bridge aggregation. Disabled by default.
+   */
+  public static final boolean DEFAULT_METRICS_BRIDGE_AGGREGATION = false;
+
   private String host;
   private int port;
   private HttpClientOptions httpOptions;
@@ -113,6 +185,25 @@ public class VertxHawkularOptions extends MetricsOptions {
   private JsonObject tags;
   private int taggedMetricsCacheSize;
   private List<MetricTagsMatch> metricTagsMatches;
+  private boolean compressionEnabled;
+  private int maxInFlightBatches;
+  private OverflowPolicy overflowPolicy;
+  private SpoolOptions spoolOptions;
+  private RetryOptions retryOptions;
+  private CircuitBreakerOptions circuitBreakerOptions;
+  private boolean adaptiveBatching;
+  private int minBatchSize;
+  private int maxBatchSize;
+  private long batchLatencyTarget;
+  private List<Double> latencyPercentiles;
+  private RouteMetricsOptions routeMetricsOptions;
+  private boolean exactStatusCodes;
+  private AddressMetricsOptions addressMetricsOptions;
+  private int maxDatagramRemoteAddresses;
+  private int remoteIdleTimeout;
+  private boolean changeDetectionEnabled;
+  private int changeDetectionHeartbeat;
+  private boolean metricsBridgeAggregation;
 
   public VertxHawkularOptions() {
     host = DEFAULT_HOST;
@@ -133,6 +224,25 @@ public class VertxHawkularOptions extends MetricsOptions {
     tags = new JsonObject();
     taggedMetricsCacheSize = DEFAULT_TAGGED_METRICS_CACHE_SIZE;
     metricTagsMatches = new ArrayList<>();
+    compressionEnabled = DEFAULT_COMPRESSION_ENABLED;
+    maxInFlightBatches = DEFAULT_MAX_IN_FLIGHT_BATCHES;
+    overflowPolicy = DEFAULT_OVERFLOW_POLICY;
+    spoolOptions = new SpoolOptions();
+    retryOptions = new RetryOptions();
+    circuitBreakerOptions = new CircuitBreakerOptions();
+    adaptiveBatching = DEFAULT_ADAPTIVE_BATCHING;
+    minBatchSize = DEFAULT_MIN_BATCH_SIZE;
+    maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+    batchLatencyTarget = DEFAULT_BATCH_LATENCY_TARGET;
+    latencyPercentiles = new ArrayList<>(DEFAULT_LATENCY_PERCENTILES);
+    routeMetricsOptions = new RouteMetricsOptions();
+    exactStatusCodes = DEFAULT_EXACT_STATUS_CODES;
+    addressMetricsOptions = new AddressMetricsOptions();
+    maxDatagramRemoteAddresses = DEFAULT_MAX_DATAGRAM_REMOTE_ADDRESSES;
+    remoteIdleTimeout = DEFAULT_REMOTE_IDLE_TIMEOUT;
+    changeDetectionEnabled = DEFAULT_CHANGE_DETECTION_ENABLED;
+    changeDetectionHeartbeat = DEFAULT_CHANGE_DETECTION_HEARTBEAT;
+    metricsBridgeAggregation = DEFAULT_METRICS_BRIDGE_AGGREGATION;
   }
 
   public VertxHawkularOptions(VertxHawkularOptions other) {
@@ -155,6 +265,25 @@ public class VertxHawkularOptions extends MetricsOptions {
     tags = other.tags != null ? other.tags.copy() : new JsonObject();
     taggedMetricsCacheSize = other.taggedMetricsCacheSize;
     metricTagsMatches = new ArrayList<>(other.metricTagsMatches != null ? other.metricTagsMatches : Collections.emptyList());
+    compressionEnabled = other.compressionEnabled;
+    maxInFlightBatches = other.maxInFlightBatches;
+    overflowPolicy = other.overflowPolicy;
+    spoolOptions = other.spoolOptions != null ? new SpoolOptions(other.spoolOptions) : new SpoolOptions();
+    retryOptions = other.retryOptions != null ? new RetryOptions(other.retryOptions) : new RetryOptions();
+    circuitBreakerOptions = other.circuitBreakerOptions != null ? new CircuitBreakerOptions(other.circuitBreakerOptions) : new CircuitBreakerOptions();
+    adaptiveBatching = other.adaptiveBatching;
+    minBatchSize = other.minBatchSize;
+    maxBatchSize = other.maxBatchSize;
+    batchLatencyTarget = other.batchLatencyTarget;
+    latencyPercentiles = other.latencyPercentiles != null ? new ArrayList<>(other.latencyPercentiles) : null;
+    routeMetricsOptions = other.routeMetricsOptions != null ? new RouteMetricsOptions(other.routeMetricsOptions) : new RouteMetricsOptions();
+    exactStatusCodes = other.exactStatusCodes;
+    addressMetricsOptions = other.addressMetricsOptions != null ? new AddressMetricsOptions(other.addressMetricsOptions) : new AddressMetricsOptions();
+    maxDatagramRemoteAddresses = other.maxDatagramRemoteAddresses;
+    remoteIdleTimeout = other.remoteIdleTimeout;
+    changeDetectionEnabled = other.changeDetectionEnabled;
+    changeDetectionHeartbeat = other.changeDetectionHeartbeat;
+    metricsBridgeAggregation = other.metricsBridgeAggregation;
   }
 
   public VertxHawkularOptions(JsonObject json) {
@@ -497,4 +626,305 @@ public class VertxHawkularOptions extends MetricsOptions {
     metricTagsMatches.add(metricTagsMatch);
     return this;
   }
+
+  /**
+   * @return true if request bodies are compressed
+   */
+  public boolean isCompressionEnabled() {
+    return compressionEnabled;
+  }
+
+  /**
+   * Set whether request bodies sent to the Hawkular server should be compressed with gzip. This reduces upload
+   * bandwidth at the expense of some CPU time, which is spent on a worker thread. Defaults to {@code false}.
+   */
+  public VertxHawkularOptions setCompressionEnabled(boolean compressionEnabled) {
+    this.compressionEnabled = compressionEnabled;
+    return this;
+  }
+
+  /**
+   * @return the maximum number of batch requests waiting for a response from the Hawkular server
+   */
+  public int getMaxInFlightBatches() {
+    return maxInFlightBatches;
+  }
+
+  /**
+   * Set the maximum number of batch requests waiting for a response from the Hawkular server. When the limit is
+   * reached, data points are queued, up to {@code maxInFlightBatches * batchSize} points. Beyond that, the
+   * {@code overflowPolicy} applies. Defaults to {@code 16}.
+   */
+  public VertxHawkularOptions setMaxInFlightBatches(int maxInFlightBatches) {
+    this.maxInFlightBatches = maxInFlightBatches;
+    return this;
+  }
+
+  /**
+   * @return the policy applied when the sender queue is full
+   */
+  public OverflowPolicy getOverflowPolicy() {
+    return overflowPolicy;
+  }
+
+  /**
+   * Set the policy applied when the sender queue is full. Defaults to {@code COALESCE}.
+   */
+  public VertxHawkularOptions setOverflowPolicy(OverflowPolicy overflowPolicy) {
+    this.overflowPolicy = overflowPolicy;
+    return this;
+  }
+
+  /**
+   * @return the disk spool options
+   */
+  public SpoolOptions getSpoolOptions() {
+    return spoolOptions;
+  }
+
+  /**
+   * Set the options for the disk spool.
+   */
+  public VertxHawkularOptions setSpoolOptions(SpoolOptions spoolOptions) {
+    this.spoolOptions = spoolOptions;
+    return this;
+  }
+
+  /**
+   * @return the retry options
+   */
+  public RetryOptions getRetryOptions() {
+    return retryOptions;
+  }
+
+  /**
+   * Set the options for retrying failed batch requests.
+   */
+  public VertxHawkularOptions setRetryOptions(RetryOptions retryOptions) {
+    this.retryOptions = retryOptions;
+    return this;
+  }
+
+  /**
+   * @return the circuit breaker options
+   */
+  public CircuitBreakerOptions getCircuitBreakerOptions() {
+    return circuitBreakerOptions;
+  }
+
+  /**
+   * Set the options for the circuit breaker.
+   */
+  public VertxHawkularOptions setCircuitBreakerOptions(CircuitBreakerOptions circuitBreakerOptions) {
+    this.circuitBreakerOptions = circuitBreakerOptions;
+    return this;
+  }
+
+  /**
+   * @return true if the batch size adapts to the observed server latency
+   */
+  public boolean isAdaptiveBatching() {
+    return adaptiveBatching;
+  }
+
+  /**
+   * Set whether the batch size should adapt to the observed server latency. When enabled, the batch size grows as
+   * long as requests complete within {@code batchLatencyTarget}, and is halved when they do not, or when they fail.
+   * It always stays between {@code minBatchSize} and {@code maxBatchSize}, and starts at {@code batchSize}. Defaults
+   * to {@code false}.
+   */
+  public VertxHawkularOptions setAdaptiveBatching(boolean adaptiveBatching) {
+    this.adaptiveBatching = adaptiveBatching;
+    return this;
+  }
+
+  /**
+   * @return the minimum batch size, when adaptive batching is enabled
+   */
+  public int getMinBatchSize() {
+    return minBatchSize;
+  }
+
+  /**
+   * Set the minimum number of metrics in a batch, when adaptive batching is enabled. Defaults to {@code 10}.
+   */
+  public VertxHawkularOptions setMinBatchSize(int minBatchSize) {
+    this.minBatchSize = minBatchSize;
+    return this;
+  }
+
+  /**
+   * @return the maximum batch size, when adaptive batching is enabled
+   */
+  public int getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
+  /**
+   * Set the maximum number of metrics in a batch, when adaptive batching is enabled. Defaults to {@code 2000}.
+   */
+  public VertxHawkularOptions setMaxBatchSize(int maxBatchSize) {
+    this.maxBatchSize = maxBatchSize;
+    return this;
+  }
+
+  /**
+   * @return the target for batch request latency, in ms
+   */
+  public long getBatchLatencyTarget() {
+    return batchLatencyTarget;
+  }
+
+  /**
+   * Set the target for batch request latency (in ms), when adaptive batching is enabled. Defaults to {@code 500}.
+   */
+  public VertxHawkularOptions setBatchLatencyTarget(long batchLatencyTarget) {
+    this.batchLatencyTarget = batchLatencyTarget;
+    return this;
+  }
+
+  /**
+   * @return the latency percentiles reported for each collection interval
+   */
+  public List<Double> getLatencyPercentiles() {
+    return latencyPercentiles;
+  }
+
+  /**
+   * Set the latency percentiles reported for each collection interval, for example {@code 99.9} for the 99.9th
+   * percentile. Defaults to {@code [50, 95, 99, 99.9]}.
+   */
+  public VertxHawkularOptions setLatencyPercentiles(List<Double> latencyPercentiles) {
+    this.latencyPercentiles = latencyPercentiles;
+    return this;
+  }
+
+  /**
+   * @return the per-route HTTP server metrics options
+   */
+  public RouteMetricsOptions getRouteMetricsOptions() {
+    return routeMetricsOptions;
+  }
+
+  /**
+   * Set the options for the per-route HTTP server metrics.
+   */
+  public VertxHawkularOptions setRouteMetricsOptions(RouteMetricsOptions routeMetricsOptions) {
+    this.routeMetricsOptions = routeMetricsOptions;
+    return this;
+  }
+
+  /**
+   * @return true if HTTP responses are also counted per exact status code
+   */
+  public boolean isExactStatusCodes() {
+    return exactStatusCodes;
+  }
+
+  /**
+   * Set whether HTTP server and client responses should also be counted per exact status code, in addition to status
+   * code classes. Defaults to {@code false}.
+   */
+  public VertxHawkularOptions setExactStatusCodes(boolean exactStatusCodes) {
+    this.exactStatusCodes = exactStatusCodes;
+    return this;
+  }
+
+  /**
+   * @return the per-address event bus metrics options
+   */
+  public AddressMetricsOptions getAddressMetricsOptions() {
+    return addressMetricsOptions;
+  }
+
+  /**
+   * Set the options for the per-address event bus metrics.
+   */
+  public VertxHawkularOptions setAddressMetricsOptions(AddressMetricsOptions addressMetricsOptions) {
+    this.addressMetricsOptions = addressMetricsOptions;
+    return this;
+  }
+
+  /**
+   * @return the maximum number of remote addresses for which datagram socket sent bytes are reported
+   */
+  public int getMaxDatagramRemoteAddresses() {
+    return maxDatagramRemoteAddresses;
+  }
+
+  /**
+   * Set the maximum number of remote addresses for which datagram socket sent bytes are reported individually.
+   * Datagrams sent to other addresses are only counted in the totals. Set to {@code 0} to disable per remote address
+   * metrics. Defaults to {@code 100}.
+   */
+  public VertxHawkularOptions setMaxDatagramRemoteAddresses(int maxDatagramRemoteAddresses) {
+    this.maxDatagramRemoteAddresses = maxDatagramRemoteAddresses;
+    return this;
+  }
+
+  /**
+   * @return the time after which the metrics of an idle client remote address are removed, in seconds
+   */
+  public int getRemoteIdleTimeout() {
+    return remoteIdleTimeout;
+  }
+
+  /**
+   * Set the time (in seconds) after which the metrics of a client remote address without connections are removed. A
+   * final value is reported before removal. Counters are summed over all clients, and keep increasing when a client
+   * closes or connects again. Set to {@code 0} to keep them forever. Defaults to {@code 300}.
+   */
+  public VertxHawkularOptions setRemoteIdleTimeout(int remoteIdleTimeout) {
+    this.remoteIdleTimeout = remoteIdleTimeout;
+    return this;
+  }
+
+  /**
+   * @return true if unchanged values are not sent at every collection
+   */
+  public boolean isChangeDetectionEnabled() {
+    return changeDetectionEnabled;
+  }
+
+  /**
+   * Set whether values which have not changed since they were last sent should be skipped, except every
+   * {@code changeDetectionHeartbeat} collections. Defaults to {@code false}.
+   */
+  public VertxHawkularOptions setChangeDetectionEnabled(boolean changeDetectionEnabled) {
+    this.changeDetectionEnabled = changeDetectionEnabled;
+    return this;
+  }
+
+  /**
+   * @return the number of collections after which an unchanged value is sent again
+   */
+  public int getChangeDetectionHeartbeat() {
+    return changeDetectionHeartbeat;
+  }
+
+  /**
+   * Set the number of collections after which an unchanged value is sent again, when change detection is enabled.
+   * Defaults to {@code 60}.
+   */
+  public VertxHawkularOptions setChangeDetectionHeartbeat(int changeDetectionHeartbeat) {
+    this.changeDetectionHeartbeat = changeDetectionHeartbeat;
+    return this;
+  }
+
+  /**
+   * @return true if gauges received by the metrics bridge are aggregated before being sent
+   */
+  public boolean isMetricsBridgeAggregation() {
+    return metricsBridgeAggregation;
+  }
+
+  /**
+   * Set whether gauges received by the metrics bridge should be aggregated, instead of being sent as they come.
+   * Samples of the same metric are folded into min, max, avg, count and last values, sent once per collection.
+   * Defaults to {@code false}.
+   */
+  public VertxHawkularOptions setMetricsBridgeAggregation(boolean metricsBridgeAggregation) {
+    this.metricsBridgeAggregation = metricsBridgeAggregation;
+    return this;
+  }
 }
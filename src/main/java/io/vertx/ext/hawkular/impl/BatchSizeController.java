@@ -0,0 +1,113 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl;
+
+import io.vertx.ext.hawkular.VertxHawkularOptions;
+
+import static java.util.concurrent.TimeUnit.*;
+
+/**
+ * Determines the effective batch size. If adaptive batching is enabled, the size follows an additive increase,
+ * multiplicative decrease scheme, like TCP congestion control:
+ * <ul>
+ * <li>after a successful request, the size grows by {@code minBatchSize} points, provided the latency of a batch that
+ * large, extrapolated from the observed latency per point, still meets the target</li>
+ * <li>after a request slower than the target, or a failed request, the size is halved</li>
+ * </ul>
+ * <p>
+ * Instances are not thread-safe, they must be confined to the sender context.
+ *
+ * @author Thomas Segismont
+ */
+class BatchSizeController {
+  private final boolean adaptive;
+  private final int minBatchSize;
+  private final int maxBatchSize;
+  private final long latencyTarget;
+  private final ReporterMetricsSupplier reporterMetrics;
+
+  private int batchSize;
+
+  BatchSizeController(VertxHawkularOptions options, ReporterMetricsSupplier reporterMetrics) {
+    adaptive = options.isAdaptiveBatching();
+    if (adaptive) {
+      minBatchSize = Math.max(1, options.getMinBatchSize());
+      maxBatchSize = Math.max(minBatchSize, options.getMaxBatchSize());
+      batchSize = Math.min(maxBatchSize, Math.max(minBatchSize, options.getBatchSize()));
+    } else {
+      minBatchSize = maxBatchSize = batchSize = options.getBatchSize();
+    }
+    latencyTarget = NANOSECONDS.convert(options.getBatchLatencyTarget(), MILLISECONDS);
+    this.reporterMetrics = reporterMetrics;
+    reporterMetrics.batchSize(batchSize);
+  }
+
+  /**
+   * @return the current number of points in a full batch
+   */
+  int batchSize() {
+    return batchSize;
+  }
+
+  /**
+   * @return the largest batch size this controller may choose
+   */
+  int maxBatchSize() {
+    return maxBatchSize;
+  }
+
+  /**
+   * Signal a batch request has succeeded.
+   *
+   * @param points  the number of points in the batch
+   * @param latency the request round-trip time, in nanoseconds
+   */
+  void succeeded(int points, long latency) {
+    if (!adaptive || points == 0) {
+      return;
+    }
+    if (latency > latencyTarget) {
+      decrease();
+    } else if (points >= batchSize && batchSize < maxBatchSize) {
+      // Only full batches tell how the server copes with the current size
+      int next = Math.min(maxBatchSize, batchSize + minBatchSize);
+      if (latency / points * next <= latencyTarget) {
+        update(next);
+      }
+    }
+  }
+
+  /**
+   * Signal a batch request has failed.
+   */
+  void failed() {
+    if (adaptive) {
+      decrease();
+    }
+  }
+
+  private void decrease() {
+    update(Math.max(minBatchSize, batchSize / 2));
+  }
+
+  private void update(int batchSize) {
+    if (this.batchSize != batchSize) {
+      this.batchSize = batchSize;
+      reporterMetrics.batchSize(batchSize);
+    }
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Skips the counter and gauge values which have not changed since they were last sent, unless they were last sent
+ * {@code heartbeat} collections ago. Availabilities are always sent.
+ * <p>
+ * The last sent values are kept in an open addressing map, keyed by metric name, with values stored as raw
+ * {@code long} bits: no boxing, nor entry object. Metrics not seen for {@code heartbeat} collections are purged when
+ * the map grows.
+ * <p>
+ * Instances are not thread-safe, they must be confined to the collection context.
+ *
+ * @author Thomas Segismont
+ */
+class ChangeDetector {
+  private static final int INITIAL_CAPACITY = 256;
+
+  private final int heartbeat;
+  private final ReporterMetricsSupplier reporterMetrics;
+
+  private String[] names = new String[INITIAL_CAPACITY];
+  private long[] values = new long[INITIAL_CAPACITY];
+  private int[] sentAt = new int[INITIAL_CAPACITY];
+  private int[] seenAt = new int[INITIAL_CAPACITY];
+  private int size;
+  private int tick;
+
+  ChangeDetector(int heartbeat, ReporterMetricsSupplier reporterMetrics) {
+    this.heartbeat = Math.max(1, heartbeat);
+    this.reporterMetrics = reporterMetrics;
+  }
+
+  /**
+   * Signal a new collection starts.
+   */
+  void tick() {
+    tick++;
+  }
+
+  /**
+   * @return the data points to send; {@code dataPoints} itself if none was skipped
+   */
+  List<DataPoint> filter(List<DataPoint> dataPoints) {
+    List<DataPoint> res = null;
+    for (int i = 0; i < dataPoints.size(); i++) {
+      DataPoint dataPoint = dataPoints.get(i);
+      boolean changed = changed(dataPoint);
+      if (res == null && !changed) {
+        res = new ArrayList<>(dataPoints.subList(0, i));
+      } else if (res != null && changed) {
+        res.add(dataPoint);
+      }
+    }
+    if (res == null) {
+      return dataPoints;
+    }
+    reporterMetrics.suppressed(dataPoints.size() - res.size());
+    return res;
+  }
+
+  private boolean changed(DataPoint dataPoint) {
+    long bits;
+    if (dataPoint instanceof CounterPoint) {
+      bits = ((CounterPoint) dataPoint).getValue();
+    } else if (dataPoint instanceof GaugePoint) {
+      bits = Double.doubleToLongBits(((GaugePoint) dataPoint).getValue());
+    } else {
+      return true;
+    }
+    String name = dataPoint.getName();
+    int mask = names.length - 1;
+    int idx = mix(name.hashCode()) & mask;
+    for (String current; (current = names[idx]) != null; idx = (idx + 1) & mask) {
+      if (current.equals(name)) {
+        seenAt[idx] = tick;
+        if (values[idx] == bits && tick - sentAt[idx] < heartbeat) {
+          return false;
+        }
+        values[idx] = bits;
+        sentAt[idx] = tick;
+        return true;
+      }
+    }
+    names[idx] = name;
+    values[idx] = bits;
+    sentAt[idx] = tick;
+    seenAt[idx] = tick;
+    if (++size > names.length / 2) {
+      rehash();
+    }
+    return true;
+  }
+
+  private void rehash() {
+    String[] oldNames = names;
+    long[] oldValues = values;
+    int[] oldSentAt = sentAt;
+    int[] oldSeenAt = seenAt;
+    int live = 0;
+    for (int i = 0; i < oldNames.length; i++) {
+      if (oldNames[i] != null && tick - oldSeenAt[i] < heartbeat) {
+        live++;
+      }
+    }
+    // Grow only if purging stale metrics would not leave enough room
+    int capacity = live > oldNames.length / 4 ? oldNames.length * 2 : oldNames.length;
+    names = new String[capacity];
+    values = new long[capacity];
+    sentAt = new int[capacity];
+    seenAt = new int[capacity];
+    size = 0;
+    int mask = capacity - 1;
+    for (int i = 0; i < oldNames.length; i++) {
+      String name = oldNames[i];
+      if (name == null || tick - oldSeenAt[i] >= heartbeat) {
+        continue;
+      }
+      int idx = mix(name.hashCode()) & mask;
+      while (names[idx] != null) {
+        idx = (idx + 1) & mask;
+      }
+      names[idx] = name;
+      values[idx] = oldValues[i];
+      sentAt[idx] = oldSentAt[i];
+      seenAt[idx] = oldSeenAt[i];
+      size++;
+    }
+  }
+
+  /**
+   * @return the number of metrics tracked
+   */
+  int size() {
+    return size;
+  }
+
+  private static int mix(int hash) {
+    // Spread the high bits, metric names often share long prefixes
+    int h = hash * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+}
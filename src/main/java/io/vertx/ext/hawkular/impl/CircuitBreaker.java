@@ -0,0 +1,110 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl;
+
+import io.vertx.ext.hawkular.CircuitBreakerOptions;
+
+import static java.util.concurrent.TimeUnit.*;
+
+/**
+ * Stops requests to the Hawkular server after a number of consecutive failures. Once the probe interval has elapsed,
+ * a single request is let through: the circuit is closed again if it succeeds.
+ * <p>
+ * Instances are not thread-safe, they must be confined to the sender context.
+ *
+ * @author Thomas Segismont
+ */
+class CircuitBreaker {
+
+  enum State {
+    CLOSED, OPEN, HALF_OPEN
+  }
+
+  private final int failureThreshold;
+  private final long probeInterval;
+  private final ReporterMetricsSupplier reporterMetrics;
+
+  private State state = State.CLOSED;
+  private int consecutiveFailures;
+  private long openedAt;
+  private boolean probing;
+
+  CircuitBreaker(CircuitBreakerOptions options, ReporterMetricsSupplier reporterMetrics) {
+    failureThreshold = Math.max(1, options.getFailureThreshold());
+    probeInterval = NANOSECONDS.convert(options.getProbeInterval(), MILLISECONDS);
+    this.reporterMetrics = reporterMetrics;
+    reporterMetrics.circuitBreakerState(state);
+  }
+
+  /**
+   * @return true if a request may be sent, in which case its outcome must be reported
+   */
+  boolean allowRequest() {
+    switch (state) {
+      case CLOSED:
+        return true;
+      case OPEN:
+        if (System.nanoTime() - openedAt < probeInterval) {
+          return false;
+        }
+        transition(State.HALF_OPEN);
+        probing = true;
+        return true;
+      default:
+        if (probing) {
+          return false;
+        }
+        probing = true;
+        return true;
+    }
+  }
+
+  /**
+   * @return the time left before a probe request may be sent, in ms
+   */
+  long remainingOpenTime() {
+    if (state != State.OPEN) {
+      return 0;
+    }
+    return Math.max(0, MILLISECONDS.convert(probeInterval - (System.nanoTime() - openedAt), NANOSECONDS));
+  }
+
+  void onSuccess() {
+    consecutiveFailures = 0;
+    probing = false;
+    if (state != State.CLOSED) {
+      transition(State.CLOSED);
+    }
+  }
+
+  void onFailure() {
+    probing = false;
+    if (state == State.HALF_OPEN || (state == State.CLOSED && ++consecutiveFailures >= failureThreshold)) {
+      openedAt = System.nanoTime();
+      transition(State.OPEN);
+    }
+  }
+
+  State state() {
+    return state;
+  }
+
+  private void transition(State state) {
+    this.state = state;
+    reporterMetrics.circuitBreakerState(state);
+  }
+}
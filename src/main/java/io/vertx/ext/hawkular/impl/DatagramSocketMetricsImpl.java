@@ -19,26 +19,21 @@ import io.vertx.core.net.SocketAddress;
 import io.vertx.core.net.impl.SocketAddressImpl;
 import io.vertx.core.spi.metrics.DatagramSocketMetrics;
 
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.LongAdder;
 
-import static java.util.stream.Collectors.*;
-
 /**
  * Implementation of {@link DatagramSocketMetrics} which relays data to {@link DatagramSocketMetricsSupplier}.
+ * <p>
+ * The measurements of the local address are resolved once, when the socket starts listening, so that no lookup is
+ * needed when a packet is received.
  *
  * @author Thomas Segismont
  */
 public class DatagramSocketMetricsImpl implements DatagramSocketMetrics {
-  private final ConcurrentMap<SocketAddress, LongAdder> bytesReceived = new ConcurrentHashMap<>();
-  private final ConcurrentMap<SocketAddress, LongAdder> bytesSent = new ConcurrentHashMap<>();
   private final LongAdder errors = new LongAdder();
   private final DatagramSocketMetricsSupplier datagramSocketMetricsSupplier;
 
-  private volatile SocketAddress localAddress;
+  private volatile DatagramSocketMetricsSupplier.Measurements received;
 
   public DatagramSocketMetricsImpl(DatagramSocketMetricsSupplier datagramSocketMetricsSupplier) {
     this.datagramSocketMetricsSupplier = datagramSocketMetricsSupplier;
@@ -47,25 +42,20 @@ public class DatagramSocketMetricsImpl implements DatagramSocketMetrics {
 
   @Override
   public void listening(String localName, SocketAddress localAddress) {
-    this.localAddress = new SocketAddressImpl(localAddress.port(), localName);
+    received = datagramSocketMetricsSupplier.received(new SocketAddressImpl(localAddress.port(), localName));
   }
 
   @Override
   public void bytesRead(Void socketMetric, SocketAddress remoteAddress, long numberOfBytes) {
-    LongAdder counter = bytesReceived.get(localAddress);
-    if (counter == null) {
-      counter = bytesReceived.computeIfAbsent(localAddress, address -> new LongAdder());
+    DatagramSocketMetricsSupplier.Measurements measurements = received;
+    if (measurements != null) {
+      measurements.packet(numberOfBytes);
     }
-    counter.add(numberOfBytes);
   }
 
   @Override
   public void bytesWritten(Void socketMetric, SocketAddress remoteAddress, long numberOfBytes) {
-    LongAdder counter = bytesSent.get(remoteAddress);
-    if (counter == null) {
-      counter = bytesSent.computeIfAbsent(remoteAddress, address -> new LongAdder());
-    }
-    counter.add(numberOfBytes);
+    datagramSocketMetricsSupplier.sent(remoteAddress, numberOfBytes);
   }
 
   @Override
@@ -73,20 +63,6 @@ public class DatagramSocketMetricsImpl implements DatagramSocketMetrics {
     errors.increment();
   }
 
-  /**
-   * @return bytes received per remote {@link SocketAddress}
-   */
-  public Map<SocketAddress, Long> getBytesReceived() {
-    return bytesReceived.entrySet().stream().collect(toMap(Entry::getKey, e -> e.getValue().sum()));
-  }
-
-  /**
-   * @return bytes sent per remote {@link SocketAddress}
-   */
-  public Map<SocketAddress, Long> getBytesSent() {
-    return bytesSent.entrySet().stream().collect(toMap(Entry::getKey, e -> e.getValue().sum()));
-  }
-
   public long getErrorCount() {
     return errors.sum();
   }
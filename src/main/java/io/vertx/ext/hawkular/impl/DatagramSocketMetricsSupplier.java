@@ -16,51 +16,104 @@
 package io.vertx.ext.hawkular.impl;
 
 import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.hawkular.VertxHawkularOptions;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Aggregates values from {@link DatagramSocketMetricsImpl} instances and exposes metrics for collection.
+ * <p>
+ * Received packets are measured per local address. Sent packets are measured globally, and sent bytes per remote
+ * address, up to a maximum number of remote addresses, so that a socket talking to many peers cannot grow the number
+ * of series without bound.
  *
  * @author Thomas Segismont
  */
 public class DatagramSocketMetricsSupplier implements MetricSupplier {
   private final String baseName;
   private final Set<DatagramSocketMetricsImpl> metricsSet = new CopyOnWriteArraySet<>();
+  private final ConcurrentMap<SocketAddress, Measurements> received = new ConcurrentHashMap<>();
+  private final Measurements sent = new Measurements();
+  private final ConcurrentMap<SocketAddress, LongAdder> remoteBytesSent = new ConcurrentHashMap<>();
+  private final AtomicInteger remoteAddresses = new AtomicInteger();
+  private final int maxRemoteAddresses;
+  private final double[] percentiles;
+  private final String[] percentileIds;
 
-  public DatagramSocketMetricsSupplier(String prefix) {
+  public DatagramSocketMetricsSupplier(String prefix, VertxHawkularOptions options) {
     baseName = prefix + (prefix.isEmpty() ? "" : ".") + "vertx.datagram.";
+    maxRemoteAddresses = options.getMaxDatagramRemoteAddresses();
+    percentiles = IntervalHistogram.percentiles(options.getLatencyPercentiles());
+    percentileIds = IntervalHistogram.percentileIds(percentiles);
   }
 
   @Override
   public List<DataPoint> collect() {
     long timestamp = System.currentTimeMillis();
-    Map<SocketAddress, Long> received = new HashMap<>();
-    Map<SocketAddress, Long> sent = new HashMap<>();
     long errorCount = 0;
     for (DatagramSocketMetricsImpl datagramSocketMetrics : metricsSet) {
-      datagramSocketMetrics.getBytesReceived().forEach((address, bytes) -> received.merge(address, bytes, Long::sum));
-      datagramSocketMetrics.getBytesSent().forEach((address, bytes) -> sent.merge(address, bytes, Long::sum));
       errorCount += datagramSocketMetrics.getErrorCount();
     }
-    List<DataPoint> res = new ArrayList<>(received.size() + sent.size() + 1);
-    received.forEach((address, count) -> {
-      String addressId = address.host() + ":" + address.port();
-      res.add(new CounterPoint(baseName + addressId + ".bytesReceived", timestamp, count));
+    List<DataPoint> res = new ArrayList<>();
+    received.forEach((address, measurements) -> {
+      String addressId = baseName + address.host() + ":" + address.port();
+      res.add(new CounterPoint(addressId + ".bytesReceived", timestamp, measurements.bytes.sum()));
+      res.add(new CounterPoint(addressId + ".packetsReceived", timestamp, measurements.packets.sum()));
+      res.addAll(measurements.sizes.collect(addressId + ".receivedPacketSize", timestamp, percentiles, percentileIds));
     });
-    sent.forEach((address, count) -> {
+    remoteBytesSent.forEach((address, bytes) -> {
       String addressId = address.host() + ":" + address.port();
-      res.add(new CounterPoint(baseName + addressId + ".bytesSent", timestamp, count));
+      res.add(new CounterPoint(baseName + addressId + ".bytesSent", timestamp, bytes.sum()));
     });
+    res.add(new CounterPoint(baseName + "bytesSent", timestamp, sent.bytes.sum()));
+    res.add(new CounterPoint(baseName + "packetsSent", timestamp, sent.packets.sum()));
+    res.addAll(sent.sizes.collect(baseName + "sentPacketSize", timestamp, percentiles, percentileIds));
     res.add(new CounterPoint(baseName + "errorCount", timestamp, errorCount));
     return res;
   }
 
+  /**
+   * @return the measurements of packets received on the local address
+   */
+  Measurements received(SocketAddress localAddress) {
+    return received.computeIfAbsent(localAddress, address -> new Measurements());
+  }
+
+  /**
+   * Signal a packet has been sent.
+   */
+  void sent(SocketAddress remoteAddress, long numberOfBytes) {
+    sent.packet(numberOfBytes);
+    if (maxRemoteAddresses <= 0) {
+      return;
+    }
+    LongAdder bytes = remoteBytesSent.get(remoteAddress);
+    if (bytes == null) {
+      if (remoteAddresses.get() >= maxRemoteAddresses) {
+        return;
+      }
+      if (remoteAddresses.incrementAndGet() > maxRemoteAddresses) {
+        remoteAddresses.decrementAndGet();
+        return;
+      }
+      LongAdder created = new LongAdder();
+      bytes = remoteBytesSent.putIfAbsent(remoteAddress, created);
+      if (bytes == null) {
+        bytes = created;
+      } else {
+        remoteAddresses.decrementAndGet();
+      }
+    }
+    bytes.add(numberOfBytes);
+  }
+
   public void register(DatagramSocketMetricsImpl datagramSocketMetrics) {
     metricsSet.add(datagramSocketMetrics);
   }
@@ -68,4 +121,19 @@ public class DatagramSocketMetricsSupplier implements MetricSupplier {
   public void unregister(DatagramSocketMetricsImpl datagramSocketMetrics) {
     metricsSet.remove(datagramSocketMetrics);
   }
+
+  /**
+   * Packet and byte counts, and packet size distribution.
+   */
+  static class Measurements {
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder packets = new LongAdder();
+    private final SizeHistogram sizes = new SizeHistogram();
+
+    void packet(long numberOfBytes) {
+      bytes.add(numberOfBytes);
+      packets.increment();
+      sizes.record(numberOfBytes);
+    }
+  }
 }
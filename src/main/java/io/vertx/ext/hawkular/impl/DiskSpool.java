@@ -0,0 +1,332 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.ext.hawkular.SpoolOptions;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static java.nio.file.StandardOpenOption.*;
+import static java.util.concurrent.TimeUnit.*;
+
+/**
+ * Append-only log of batch payloads, stored in fixed size memory-mapped segment files.
+ * <p>
+ * Each record is made of a header (payload length as an {@code int}, spool timestamp as a {@code long}) followed by
+ * the payload. Segments are zero-filled when created, so a zero length marks the end of the written data. Consumed
+ * records get their length negated, which makes the read position survive restarts without a separate index file.
+ * Segments are deleted as soon as all their records are consumed, or when the spool exceeds its maximum size.
+ * <p>
+ * Instances are not thread-safe and perform blocking I/O: they must only be used from an ordered
+ * {@link io.vertx.core.Context#executeBlocking(io.vertx.core.Handler, boolean, io.vertx.core.Handler)}.
+ *
+ * @author Thomas Segismont
+ */
+class DiskSpool {
+  private static final Logger LOG = LoggerFactory.getLogger(DiskSpool.class);
+
+  private static final String SEGMENT_SUFFIX = ".spool";
+  private static final int HEADER_SIZE = Integer.BYTES + Long.BYTES;
+
+  private final Path directory;
+  private final int segmentSize;
+  private final long maxSegments;
+  private final long maxAge;
+  private final ReporterMetricsSupplier reporterMetrics;
+  private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+
+  private boolean closed;
+  private boolean oversizedWarned;
+
+  /**
+   * Opens the spool, creating the directory if needed, and recovers the segments left by a previous run.
+   */
+  DiskSpool(SpoolOptions options, ReporterMetricsSupplier reporterMetrics) throws IOException {
+    directory = Paths.get(options.getDirectory());
+    segmentSize = options.getSegmentSize();
+    maxSegments = Math.max(1, options.getMaxSize() / segmentSize);
+    maxAge = MILLISECONDS.convert(options.getMaxAge(), SECONDS);
+    this.reporterMetrics = reporterMetrics;
+    Files.createDirectories(directory);
+    List<Path> paths = new ArrayList<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+      stream.forEach(paths::add);
+    }
+    Collections.sort(paths);
+    for (Path path : paths) {
+      String fileName = path.getFileName().toString();
+      long sequence;
+      try {
+        sequence = Long.parseLong(fileName.substring(0, fileName.length() - SEGMENT_SUFFIX.length()));
+      } catch (NumberFormatException e) {
+        LOG.warn("Ignoring unexpected file in spool directory: " + path);
+        continue;
+      }
+      Segment segment = new Segment(path, sequence);
+      segment.recover();
+      segments.addLast(segment);
+    }
+    // Only the last segment may be appended to, so older fully consumed segments can go
+    while (segments.size() > 1 && !segments.peekFirst().hasRecord()) {
+      delete(segments.pollFirst());
+    }
+  }
+
+  /**
+   * Appends a payload to the spool. Payloads larger than a segment are discarded.
+   */
+  void append(Buffer payload) throws IOException {
+    checkOpen();
+    int length = payload.length();
+    if (length == 0) {
+      return;
+    }
+    if (HEADER_SIZE + length > segmentSize) {
+      if (!oversizedWarned) {
+        oversizedWarned = true;
+        LOG.warn("Discarding batch of " + length + " bytes, larger than the spool segment size " + segmentSize);
+      }
+      reporterMetrics.spoolDiscarded(1);
+      return;
+    }
+    Segment tail = segments.peekLast();
+    if (tail == null || !tail.hasRoom(length)) {
+      long sequence = tail == null ? 0 : tail.sequence + 1;
+      tail = new Segment(directory.resolve(segmentName(sequence)), sequence);
+      tail.create();
+      segments.addLast(tail);
+      while (segments.size() > maxSegments) {
+        Segment evicted = segments.pollFirst();
+        reporterMetrics.spoolDiscarded(evicted.discardAll());
+        delete(evicted);
+      }
+    }
+    tail.write(payload, System.currentTimeMillis());
+    reporterMetrics.spooled(HEADER_SIZE + length);
+  }
+
+  /**
+   * @return the oldest unconsumed entry, or {@code null} if the spool is empty
+   */
+  Entry peek() {
+    checkOpen();
+    long now = System.currentTimeMillis();
+    for (; ; ) {
+      Segment head = segments.peekFirst();
+      if (head == null) {
+        return null;
+      }
+      if (!head.hasRecord()) {
+        if (head == segments.peekLast()) {
+          return null;
+        }
+        delete(segments.pollFirst());
+        continue;
+      }
+      if (now - head.timestamp() > maxAge) {
+        head.consume();
+        reporterMetrics.spoolDiscarded(1);
+        continue;
+      }
+      return new Entry(head, head.readPosition, head.payload());
+    }
+  }
+
+  /**
+   * Marks an entry as consumed. Does nothing if the entry has already been discarded in the meantime.
+   */
+  void remove(Entry entry) {
+    checkOpen();
+    Segment head = segments.peekFirst();
+    if (head != entry.segment || head.readPosition != entry.position) {
+      return;
+    }
+    head.consume();
+    if (!head.hasRecord() && head != segments.peekLast()) {
+      delete(segments.pollFirst());
+    }
+  }
+
+  /**
+   * Flushes pending writes to the storage device. Any later call to this spool is rejected, otherwise an append would
+   * start over from the first segment and overwrite its file.
+   */
+  void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    for (Segment segment : segments) {
+      if (segment.buffer != null) {
+        segment.buffer.force();
+        segment.buffer = null;
+      }
+    }
+    segments.clear();
+  }
+
+  private void checkOpen() {
+    if (closed) {
+      throw new IllegalStateException("Spool is closed");
+    }
+  }
+
+  private void delete(Segment segment) {
+    // The mapping is released when the buffer is garbage collected
+    segment.buffer = null;
+    try {
+      Files.deleteIfExists(segment.path);
+    } catch (IOException e) {
+      LOG.warn("Could not delete spool segment " + segment.path, e);
+    }
+  }
+
+  private static String segmentName(long sequence) {
+    return String.format("%020d", sequence) + SEGMENT_SUFFIX;
+  }
+
+  /**
+   * A spooled payload, along with its position in the spool.
+   */
+  static class Entry {
+    private final Segment segment;
+    private final int position;
+    private final Buffer payload;
+
+    private Entry(Segment segment, int position, Buffer payload) {
+      this.segment = segment;
+      this.position = position;
+      this.payload = payload;
+    }
+
+    Buffer payload() {
+      return payload;
+    }
+  }
+
+  private class Segment {
+    final Path path;
+    final long sequence;
+    MappedByteBuffer buffer;
+    int capacity;
+    int readPosition;
+    int writePosition;
+
+    Segment(Path path, long sequence) {
+      this.path = path;
+      this.sequence = sequence;
+    }
+
+    void create() throws IOException {
+      capacity = segmentSize;
+      map();
+    }
+
+    void recover() throws IOException {
+      capacity = (int) Math.min(Integer.MAX_VALUE, Files.size(path));
+      map();
+      int position = 0;
+      while (position + HEADER_SIZE <= capacity) {
+        int length = buffer.getInt(position);
+        if (length == 0) {
+          break;
+        }
+        int next = position + HEADER_SIZE + Math.abs(length);
+        if (next > capacity) {
+          // Truncated record, ignore the rest of the segment
+          break;
+        }
+        if (length < 0) {
+          readPosition = next;
+        } else {
+          reporterMetrics.spoolRecovered(HEADER_SIZE + length);
+        }
+        position = next;
+      }
+      writePosition = position;
+    }
+
+    private void map() throws IOException {
+      try (FileChannel channel = FileChannel.open(path, CREATE, READ, WRITE)) {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+      }
+    }
+
+    boolean hasRoom(int length) {
+      return writePosition + HEADER_SIZE + length <= capacity;
+    }
+
+    void write(Buffer payload, long timestamp) {
+      ByteBuffer target = buffer.duplicate();
+      target.position(writePosition + HEADER_SIZE);
+      target.put(payload.getByteBuf().nioBuffer());
+      buffer.putLong(writePosition + Integer.BYTES, timestamp);
+      // Written last, so that a partially written record is never read
+      buffer.putInt(writePosition, payload.length());
+      writePosition += HEADER_SIZE + payload.length();
+    }
+
+    boolean hasRecord() {
+      return readPosition < writePosition;
+    }
+
+    long timestamp() {
+      return buffer.getLong(readPosition + Integer.BYTES);
+    }
+
+    Buffer payload() {
+      byte[] bytes = new byte[buffer.getInt(readPosition)];
+      ByteBuffer source = buffer.duplicate();
+      source.position(readPosition + HEADER_SIZE);
+      source.get(bytes);
+      return Buffer.buffer(bytes);
+    }
+
+    void consume() {
+      int length = buffer.getInt(readPosition);
+      buffer.putInt(readPosition, -length);
+      readPosition += HEADER_SIZE + length;
+      reporterMetrics.spoolConsumed(HEADER_SIZE + length);
+    }
+
+    /**
+     * @return the number of records which have not been consumed
+     */
+    int discardAll() {
+      int count = 0;
+      while (hasRecord()) {
+        consume();
+        count++;
+      }
+      return count;
+    }
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.util.concurrent.TimeUnit.*;
+
+/**
+ * Determines the Hawkular Metrics data endpoint from the server version.
+ * <p>
+ * A single {@code /status} request is in flight at any time, and all the callers waiting for the endpoint share its
+ * outcome. After a failure, callers fail fast until the next probe, which is scheduled with an exponential backoff.
+ * Once resolved, the endpoint is re-validated periodically in the background.
+ * <p>
+ * Instances are not thread-safe, they must be confined to the sender context.
+ *
+ * @author Thomas Segismont
+ */
+class EndpointDiscovery {
+  private static final Logger LOG = LoggerFactory.getLogger(EndpointDiscovery.class);
+
+  private static final CharSequence MEDIA_TYPE_APPLICATION_JSON = HttpHeaders.createOptimized("application/json");
+  private static final Pattern HAWKULAR_VERSION = Pattern.compile("([0-9]+)\\.([0-9]+)\\.(.+)");
+
+  private static final long MIN_RETRY_DELAY = NANOSECONDS.convert(1, SECONDS);
+  private static final long MAX_RETRY_DELAY = NANOSECONDS.convert(1, MINUTES);
+  private static final long REVALIDATION_INTERVAL = NANOSECONDS.convert(5, MINUTES);
+  private static final long DEFAULT_PROBE_TIMEOUT = MILLISECONDS.convert(10, SECONDS);
+
+  private final HttpClient httpClient;
+  private final String metricsServiceUri;
+  private final long probeTimeout;
+
+  private String metricsDataUri;
+  private long validatedAt;
+  private boolean probing;
+  private List<Handler<AsyncResult<String>>> waiters = new ArrayList<>();
+  private Throwable lastFailure;
+  private long nextProbe = System.nanoTime();
+  private long retryDelay = MIN_RETRY_DELAY;
+
+  EndpointDiscovery(HttpClient httpClient, String metricsServiceUri) {
+    this(httpClient, metricsServiceUri, DEFAULT_PROBE_TIMEOUT);
+  }
+
+  /**
+   * @param probeTimeout the time after which a {@code /status} request without response fails, in ms
+   */
+  EndpointDiscovery(HttpClient httpClient, String metricsServiceUri, long probeTimeout) {
+    this.httpClient = httpClient;
+    this.metricsServiceUri = metricsServiceUri;
+    this.probeTimeout = probeTimeout;
+  }
+
+  /**
+   * Provides the metrics data endpoint, probing the server if needed.
+   */
+  void getMetricsDataUri(Handler<AsyncResult<String>> handler) {
+    long now = System.nanoTime();
+    if (metricsDataUri != null) {
+      if (!probing && now - validatedAt > REVALIDATION_INTERVAL) {
+        probe();
+      }
+      handler.handle(Future.succeededFuture(metricsDataUri));
+    } else if (probing) {
+      waiters.add(handler);
+    } else if (now - nextProbe < 0) {
+      handler.handle(Future.failedFuture(lastFailure));
+    } else {
+      waiters.add(handler);
+      probe();
+    }
+  }
+
+  /**
+   * Forgets the resolved endpoint, for example after the server rejected a request with a {@code 404} status code.
+   */
+  void invalidate() {
+    if (metricsDataUri != null) {
+      metricsDataUri = null;
+      nextProbe = System.nanoTime();
+    }
+  }
+
+  private void probe() {
+    probing = true;
+    Future<String> future = Future.future();
+    future.setHandler(this::probed);
+    httpClient.get(metricsServiceUri + "/status", statusResponse -> {
+      if (statusResponse.statusCode() != 200) {
+        future.tryFail("Unexpected status response code: " + statusResponse.statusCode());
+        return;
+      }
+      statusResponse.bodyHandler(buffer -> {
+        String hawkularVersion;
+        try {
+          hawkularVersion = new JsonObject(buffer).getString("Implementation-Version");
+        } catch (Exception e) {
+          future.tryFail(e);
+          return;
+        }
+        if (hawkularVersion == null) {
+          future.tryFail("No version info in status data");
+          return;
+        }
+        Matcher matcher = HAWKULAR_VERSION.matcher(hawkularVersion);
+        if (!matcher.matches()) {
+          future.tryFail("Cannot parse version " + hawkularVersion);
+          return;
+        }
+        String major = matcher.group(1);
+        String minor = matcher.group(2);
+        if ("0".equals(major) && minor.length() <= 2 && Integer.parseInt(minor) < 15) {
+          future.tryComplete(metricsServiceUri + "/metrics/data");
+        } else {
+          future.tryComplete(metricsServiceUri + "/metrics/raw");
+        }
+      }).exceptionHandler(future::tryFail);
+    }).exceptionHandler(future::tryFail)
+      // Otherwise, a server which never answers would stall the waiters forever
+      .setTimeout(probeTimeout)
+      .putHeader(HttpHeaders.CONTENT_TYPE, MEDIA_TYPE_APPLICATION_JSON).end();
+  }
+
+  private void probed(AsyncResult<String> ar) {
+    probing = false;
+    long now = System.nanoTime();
+    if (ar.succeeded()) {
+      metricsDataUri = ar.result();
+      validatedAt = now;
+      retryDelay = MIN_RETRY_DELAY;
+    } else if (metricsDataUri != null) {
+      // Re-validation failed, keep the current endpoint until the next one
+      LOG.trace("Could not re-validate Hawkular server version", ar.cause());
+      validatedAt = now;
+    } else {
+      LOG.trace("Could not determine Hawkular server version", ar.cause());
+      lastFailure = ar.cause();
+      nextProbe = now + retryDelay;
+      retryDelay = Math.min(2 * retryDelay, MAX_RETRY_DELAY);
+    }
+    List<Handler<AsyncResult<String>>> handlers = waiters;
+    waiters = new ArrayList<>();
+    AsyncResult<String> result = metricsDataUri != null ? Future.succeededFuture(metricsDataUri) : Future.failedFuture(ar.cause());
+    handlers.forEach(handler -> handler.handle(result));
+  }
+}
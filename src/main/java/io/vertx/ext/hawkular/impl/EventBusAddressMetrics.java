@@ -0,0 +1,156 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl;
+
+import io.vertx.ext.hawkular.AddressMetricsOptions;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per address event bus metrics.
+ * <p>
+ * Only the addresses of the allow-list, or starting with one of the allowed prefixes, are reported individually, up to
+ * a maximum, under {@code addresses.<address>}. Other addresses, such as reply addresses, are reported in the
+ * {@code otherAddresses} bucket, outside of the address namespace so that it cannot collide with a real address. They
+ * are not cached, so that they cannot grow the number of series.
+ *
+ * @author Thomas Segismont
+ */
+class EventBusAddressMetrics {
+  private final Set<String> addresses;
+  private final String[] prefixes;
+  private final int maxAddresses;
+  private final ConcurrentMap<String, Series> series = new ConcurrentHashMap<>();
+  private final AtomicInteger seriesCount = new AtomicInteger();
+  private final Series other = new Series("otherAddresses");
+
+  EventBusAddressMetrics(AddressMetricsOptions options) {
+    addresses = options.getAddresses() != null ? new HashSet<>(options.getAddresses()) : new HashSet<>();
+    prefixes = options.getPrefixes() != null ? options.getPrefixes().toArray(new String[0]) : new String[0];
+    maxAddresses = options.getMaxAddresses();
+  }
+
+  /**
+   * @return the series of the address
+   */
+  Series series(String address) {
+    Series existing = series.get(address);
+    if (existing != null) {
+      return existing;
+    }
+    if (!allowed(address) || seriesCount.get() >= maxAddresses) {
+      return other;
+    }
+    if (seriesCount.incrementAndGet() > maxAddresses) {
+      seriesCount.decrementAndGet();
+      return other;
+    }
+    Series created = new Series("addresses." + address);
+    existing = series.putIfAbsent(address, created);
+    if (existing != null) {
+      seriesCount.decrementAndGet();
+      return existing;
+    }
+    return created;
+  }
+
+  private boolean allowed(String address) {
+    if (addresses.contains(address)) {
+      return true;
+    }
+    for (String prefix : prefixes) {
+      if (address.startsWith(prefix)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  List<DataPoint> collect(String baseName, long timestamp, double[] percentiles, String[] percentileIds) {
+    List<DataPoint> res = new ArrayList<>();
+    series.values().forEach(s -> s.collect(baseName, timestamp, percentiles, percentileIds, res));
+    other.collect(baseName, timestamp, percentiles, percentileIds, res);
+    return res;
+  }
+
+  static class Series {
+    private final String name;
+    private final LongAdder sentMessages = new LongAdder();
+    private final LongAdder publishedMessages = new LongAdder();
+    private final LongAdder receivedMessages = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LatencyHistogram queueTime = new LatencyHistogram();
+    private final LatencyHistogram processingLatency = new LatencyHistogram();
+
+    Series(String name) {
+      this.name = name;
+    }
+
+    void messageSent(boolean publish) {
+      if (publish) {
+        publishedMessages.increment();
+      } else {
+        sentMessages.increment();
+      }
+    }
+
+    void messageReceived() {
+      receivedMessages.increment();
+    }
+
+    void messageWritten(int numberOfBytes) {
+      bytesWritten.add(numberOfBytes);
+    }
+
+    void messageRead(int numberOfBytes) {
+      bytesRead.add(numberOfBytes);
+    }
+
+    /**
+     * @param waited the time the message waited between being scheduled and delivered to the handler, in nanoseconds
+     */
+    void messageBegun(long waited) {
+      queueTime.record(waited);
+    }
+
+    /**
+     * @param time the handler processing time, in nanoseconds
+     */
+    void messageHandled(long time) {
+      processingLatency.record(time);
+    }
+
+    void collect(String baseName, long timestamp, double[] percentiles, String[] percentileIds, List<DataPoint> res) {
+      String prefix = baseName + name + ".";
+      res.add(new CounterPoint(prefix + "sentMessages", timestamp, sentMessages.sum()));
+      res.add(new CounterPoint(prefix + "publishedMessages", timestamp, publishedMessages.sum()));
+      res.add(new CounterPoint(prefix + "receivedMessages", timestamp, receivedMessages.sum()));
+      res.add(new CounterPoint(prefix + "bytesWritten", timestamp, bytesWritten.sum()));
+      res.add(new CounterPoint(prefix + "bytesRead", timestamp, bytesRead.sum()));
+      res.addAll(queueTime.collect(prefix + "queueTime", timestamp, percentiles, percentileIds));
+      res.addAll(processingLatency.collect(prefix + "processingLatency", timestamp, percentiles, percentileIds));
+    }
+  }
+}
@@ -15,20 +15,46 @@
  */
 package io.vertx.ext.hawkular.impl;
 
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
 /**
  * Event bus handler monitoring class. An instance is created whenever
  * {@link EventBusMetricsImpl#handlerRegistered(String, boolean)} is called. The instance is then associated with the
  * handler, until it is eventually unregistered.
+ * <p>
+ * The same handler may process several messages concurrently, on a multi-threaded worker context, or reentrantly. So
+ * processing start times are not stored in the instance: they are pushed on a per-thread stack by
+ * {@link #resetTimer()} and popped by {@link #elapsed()}. Both are called on the same thread for a given message, and
+ * calls on a thread are well nested.
  *
  * @author Thomas Segismont
  */
 public class EventBusHandlerMetrics {
+  // Must be a power of two
+  private static final int SCHEDULED_CAPACITY = 16;
+  private static final int SCHEDULED_MASK = SCHEDULED_CAPACITY - 1;
+
+  private static final ThreadLocal<TimerStack> TIMERS = ThreadLocal.withInitial(TimerStack::new);
+
   private final String address;
+  private final HandlersMeasurements handlersMeasurements;
+  private final EventBusAddressMetrics.Series addressSeries;
 
-  private long start;
+  // Schedule timestamps of the messages waiting for this handler, in delivery order
+  private final AtomicLongArray scheduled = new AtomicLongArray(SCHEDULED_CAPACITY);
+  private final AtomicLong scheduledCount = new AtomicLong();
+  private final AtomicLong begunCount = new AtomicLong();
 
   public EventBusHandlerMetrics(String address) {
+    this(address, null, null);
+  }
+
+  EventBusHandlerMetrics(String address, HandlersMeasurements handlersMeasurements, EventBusAddressMetrics.Series addressSeries) {
     this.address = address;
+    this.handlersMeasurements = handlersMeasurements;
+    this.addressSeries = addressSeries;
   }
 
   /**
@@ -39,16 +65,95 @@ public class EventBusHandlerMetrics {
   }
 
   /**
-   * Sets the timer state to <em>now</em>.
+   * @return the measurements shared by all handlers of the address, {@code null} if not registered
+   */
+  HandlersMeasurements getHandlersMeasurements() {
+    return handlersMeasurements;
+  }
+
+  /**
+   * @return the per-address metrics of the monitored handler, {@code null} if disabled
+   */
+  EventBusAddressMetrics.Series getAddressSeries() {
+    return addressSeries;
+  }
+
+  /**
+   * Records the time a message is scheduled on the handler context. Messages are matched with
+   * {@link #messageBegun()} in scheduling order, and at most {@code 16} waiting messages are timed.
+   * <p>
+   * A scheduled message may never be handled, e.g. if the handler is unregistered or if the consumer discards it. When
+   * more than {@code 16} messages appear to be waiting, the oldest ones are forgotten, so that such messages cannot
+   * stop queue times from being recorded.
+   */
+  void messageScheduled() {
+    long count = scheduledCount.getAndIncrement();
+    for (; ; ) {
+      long begun = begunCount.get();
+      if (count - begun < SCHEDULED_CAPACITY || begunCount.compareAndSet(begun, count - SCHEDULED_CAPACITY + 1)) {
+        break;
+      }
+    }
+    scheduled.set((int) count & SCHEDULED_MASK, System.nanoTime());
+  }
+
+  /**
+   * Signals the handler starts processing the oldest scheduled message, and starts the processing timer, like
+   * {@link #resetTimer()}.
+   *
+   * @return the number of nanoseconds the message waited since it was scheduled, or {@code -1} if it was not timed
+   */
+  long messageBegun() {
+    long start = System.nanoTime();
+    TIMERS.get().push(start);
+    for (; ; ) {
+      long count = begunCount.get();
+      if (count >= scheduledCount.get()) {
+        // Never let the begun index overtake the scheduled one, the following messages would not be matched
+        return -1;
+      }
+      if (begunCount.compareAndSet(count, count + 1)) {
+        long scheduledAt = scheduled.getAndSet((int) count & SCHEDULED_MASK, 0);
+        return scheduledAt != 0 ? start - scheduledAt : -1;
+      }
+    }
+  }
+
+  /**
+   * Starts the processing timer of a message, on the current thread.
    */
   public void resetTimer() {
-    start = System.nanoTime();
+    TIMERS.get().push(System.nanoTime());
   }
 
   /**
-   * @return the number of nanoseconds elapsed since {@link #resetTimer()} was called
+   * Stops the processing timer most recently started on the current thread.
+   *
+   * @return the number of nanoseconds elapsed since {@link #resetTimer()} was called, {@code 0} if no timer was started
    */
   public long elapsed() {
-    return System.nanoTime() - start;
+    long now = System.nanoTime();
+    TimerStack timers = TIMERS.get();
+    return timers.isEmpty() ? 0 : now - timers.pop();
+  }
+
+  private static class TimerStack {
+    long[] starts = new long[4];
+    int size;
+
+    void push(long start) {
+      if (size == starts.length) {
+        starts = Arrays.copyOf(starts, 2 * size);
+      }
+      starts[size++] = start;
+    }
+
+    boolean isEmpty() {
+      return size == 0;
+    }
+
+    long pop() {
+      return starts[--size];
+    }
   }
 }
@@ -17,6 +17,8 @@ package io.vertx.ext.hawkular.impl;
 
 import io.vertx.core.eventbus.ReplyFailure;
 import io.vertx.core.spi.metrics.EventBusMetrics;
+import io.vertx.ext.hawkular.AddressMetricsOptions;
+import io.vertx.ext.hawkular.VertxHawkularOptions;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -50,29 +52,61 @@ public class EventBusMetricsImpl implements EventBusMetrics<EventBusHandlerMetri
   private final LongAdder deliveredLocalMessages = new LongAdder();
   private final LongAdder deliveredRemoteMessages = new LongAdder();
   private final LongAdder replyFailures = new LongAdder();
+  private final LatencyHistogram queueTime = new LatencyHistogram();
+  // Null if per-address metrics are disabled
+  private final EventBusAddressMetrics addressMetrics;
+  private final double[] latencyPercentiles;
+  private final String[] latencyPercentileIds;
 
-  public EventBusMetricsImpl(String prefix) {
+  public EventBusMetricsImpl(String prefix, VertxHawkularOptions options) {
     baseName = prefix + (prefix.isEmpty() ? "" : ".") + "vertx.eventbus.";
+    AddressMetricsOptions addressMetricsOptions = options.getAddressMetricsOptions();
+    if (addressMetricsOptions != null && addressMetricsOptions.isEnabled()) {
+      addressMetrics = new EventBusAddressMetrics(addressMetricsOptions);
+    } else {
+      addressMetrics = null;
+    }
+    latencyPercentiles = IntervalHistogram.percentiles(options.getLatencyPercentiles());
+    latencyPercentileIds = IntervalHistogram.percentileIds(latencyPercentiles);
   }
 
   @Override
   public EventBusHandlerMetrics handlerRegistered(String address, String repliedAddress) {
     handlers.increment();
-    EventBusHandlerMetrics handlerMetrics = new EventBusHandlerMetrics(address);
-    handlersMeasurements.compute(address, (key, value) -> value == null ? new HandlersMeasurements() : value.incrementHandlersCount());
-    return handlerMetrics;
+    EventBusAddressMetrics.Series series = addressMetrics != null ? addressMetrics.series(address) : null;
+    return new EventBusHandlerMetrics(address, retainHandlersMeasurements(address), series);
   }
 
+  private HandlersMeasurements retainHandlersMeasurements(String address) {
+    for (; ; ) {
+      HandlersMeasurements measurements = handlersMeasurements.get(address);
+      if (measurements == null) {
+        HandlersMeasurements created = new HandlersMeasurements();
+        measurements = handlersMeasurements.putIfAbsent(address, created);
+        if (measurements == null) {
+          return created;
+        }
+      }
+      if (measurements.retain()) {
+        return measurements;
+      }
+      // The last handler has just been unregistered, help removing the dead instance and retry
+      handlersMeasurements.remove(address, measurements);
+    }
+  }
 
   @Override
   public void handlerUnregistered(EventBusHandlerMetrics handlerMetrics) {
     handlers.decrement();
-    String address = handlerMetrics.getAddress();
-    handlersMeasurements.compute(address, (key, value) -> value.handlersCount() == 1 ? null : value.decrementHandlersCount());
+    HandlersMeasurements measurements = handlerMetrics.getHandlersMeasurements();
+    if (measurements != null && measurements.release()) {
+      handlersMeasurements.remove(handlerMetrics.getAddress(), measurements);
+    }
   }
 
   @Override
-  public void scheduleMessage(EventBusHandlerMetrics eventBusHandlerMetrics, boolean b) {
+  public void scheduleMessage(EventBusHandlerMetrics handlerMetrics, boolean local) {
+    handlerMetrics.messageScheduled();
   }
 
   @Override
@@ -83,16 +117,27 @@ public class EventBusMetricsImpl implements EventBusMetrics<EventBusHandlerMetri
     } else {
       pendingRemote.decrement();
     }
-    handlerMetrics.resetTimer();
+    long waited = handlerMetrics.messageBegun();
+    if (waited >= 0) {
+      queueTime.record(waited);
+      EventBusAddressMetrics.Series series = handlerMetrics.getAddressSeries();
+      if (series != null) {
+        series.messageBegun(waited);
+      }
+    }
   }
 
   @Override
   public void endHandleMessage(EventBusHandlerMetrics handlerMetrics, Throwable failure) {
     long elapsed = handlerMetrics.elapsed();
-    HandlersMeasurements handlersMeasurements = this.handlersMeasurements.get(handlerMetrics.getAddress());
+    HandlersMeasurements handlersMeasurements = handlerMetrics.getHandlersMeasurements();
     if (handlersMeasurements != null) {
       handlersMeasurements.addProcessingTime(elapsed);
     }
+    EventBusAddressMetrics.Series series = handlerMetrics.getAddressSeries();
+    if (series != null) {
+      series.messageHandled(elapsed);
+    }
     if (failure != null) {
       errorCount.increment();
     }
@@ -100,6 +145,9 @@ public class EventBusMetricsImpl implements EventBusMetrics<EventBusHandlerMetri
 
   @Override
   public void messageSent(String address, boolean publish, boolean local, boolean remote) {
+    if (addressMetrics != null) {
+      addressMetrics.series(address).messageSent(publish);
+    }
     if (publish) {
       publishedMessages.increment();
       if (local) {
@@ -121,6 +169,9 @@ public class EventBusMetricsImpl implements EventBusMetrics<EventBusHandlerMetri
   public void messageReceived(String address, boolean publish, boolean local, int handlers) {
     pending.add(handlers);
     receivedMessages.increment();
+    if (addressMetrics != null) {
+      addressMetrics.series(address).messageReceived();
+    }
     if (local) {
       receivedLocalMessages.increment();
       pendingLocal.add(handlers);
@@ -141,11 +192,17 @@ public class EventBusMetricsImpl implements EventBusMetrics<EventBusHandlerMetri
   @Override
   public void messageWritten(String address, int numberOfBytes) {
     bytesWritten.add(numberOfBytes);
+    if (addressMetrics != null) {
+      addressMetrics.series(address).messageWritten(numberOfBytes);
+    }
   }
 
   @Override
   public void messageRead(String address, int numberOfBytes) {
     bytesRead.add(numberOfBytes);
+    if (addressMetrics != null) {
+      addressMetrics.series(address).messageRead(numberOfBytes);
+    }
   }
 
   @Override
@@ -183,6 +240,10 @@ public class EventBusMetricsImpl implements EventBusMetrics<EventBusHandlerMetri
     dataPoints.add(new CounterPoint(baseName + "deliveredLocalMessages", timestamp, deliveredLocalMessages.sum()));
     dataPoints.add(new CounterPoint(baseName + "deliveredRemoteMessages", timestamp, deliveredRemoteMessages.sum()));
     dataPoints.add(new CounterPoint(baseName + "replyFailures", timestamp, replyFailures.sum()));
+    dataPoints.addAll(queueTime.collect(baseName + "queueTime", timestamp, latencyPercentiles, latencyPercentileIds));
+    if (addressMetrics != null) {
+      dataPoints.addAll(addressMetrics.collect(baseName, timestamp, latencyPercentiles, latencyPercentileIds));
+    }
     return dataPoints;
   }
 
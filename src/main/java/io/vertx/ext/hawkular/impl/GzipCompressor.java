@@ -0,0 +1,92 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl;
+
+import io.vertx.core.buffer.Buffer;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses request bodies in the gzip format. The {@link Deflater} and its work buffer are reused between calls, so
+ * instances are not thread-safe: calls must be serialized, e.g. with an ordered
+ * {@link io.vertx.core.Context#executeBlocking(io.vertx.core.Handler, boolean, io.vertx.core.Handler)}.
+ *
+ * @author Thomas Segismont
+ */
+class GzipCompressor {
+  private static final byte[] GZIP_HEADER = {
+    0x1f, (byte) 0x8b, // magic number
+    Deflater.DEFLATED, // compression method
+    0, // flags
+    0, 0, 0, 0, // modification time
+    0, // extra flags
+    0 // operating system
+  };
+
+  private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+  private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+  private final CRC32 crc = new CRC32();
+  private final byte[] chunk = new byte[8192];
+  private final ReporterMetricsSupplier reporterMetrics;
+
+  GzipCompressor(ReporterMetricsSupplier reporterMetrics) {
+    this.reporterMetrics = reporterMetrics;
+  }
+
+  /**
+   * @param input the data to compress
+   * @return a new buffer holding the gzip compressed data
+   */
+  Buffer compress(Buffer input) {
+    long start = cpuTime();
+    byte[] bytes = input.getBytes();
+
+    Buffer output = Buffer.buffer(Math.max(64, bytes.length / 4));
+    output.appendBytes(GZIP_HEADER);
+    deflater.reset();
+    deflater.setInput(bytes);
+    deflater.finish();
+    while (!deflater.finished()) {
+      int count = deflater.deflate(chunk);
+      output.appendBytes(chunk, 0, count);
+    }
+    crc.reset();
+    crc.update(bytes, 0, bytes.length);
+    appendIntLE(output, (int) crc.getValue());
+    appendIntLE(output, bytes.length);
+
+    reporterMetrics.compressed(bytes.length, output.length(), cpuTime() - start);
+    return output;
+  }
+
+  private long cpuTime() {
+    if (threadMXBean.isCurrentThreadCpuTimeSupported() && threadMXBean.isThreadCpuTimeEnabled()) {
+      return threadMXBean.getCurrentThreadCpuTime();
+    }
+    return System.nanoTime();
+  }
+
+  private static void appendIntLE(Buffer buffer, int value) {
+    buffer.appendByte((byte) value)
+      .appendByte((byte) (value >> 8))
+      .appendByte((byte) (value >> 16))
+      .appendByte((byte) (value >> 24));
+  }
+}
@@ -15,32 +15,23 @@
  */
 package io.vertx.ext.hawkular.impl;
 
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.LongAdder;
 
 import static java.util.concurrent.TimeUnit.*;
 
 /**
  * Holds measurements for all handlers of an event bus address. An instance is created when the first handler is
- * registered, then handlers are counted with {@link #incrementHandlersCount()} and {@link #decrementHandlersCount()}.
+ * registered, then handlers are counted with {@link #retain()} and {@link #release()}.
+ * <p>
+ * Once the count has dropped to zero, the instance is dead: it cannot be retained anymore and must be replaced in the
+ * registry.
  *
  * @author Thomas Segismont
  */
 public class HandlersMeasurements {
-  private final LongAdder processingTime;
-  private final int handlersCount;
-
-  /**
-   * Creates a new instance with a handlers reference of 1.
-   */
-  public HandlersMeasurements() {
-    processingTime = new LongAdder();
-    handlersCount = 1;
-  }
-
-  private HandlersMeasurements(LongAdder processingTime, int handlersCount) {
-    this.processingTime = processingTime;
-    this.handlersCount = handlersCount;
-  }
+  private final LongAdder processingTime = new LongAdder();
+  private final AtomicInteger handlersCount = new AtomicInteger(1);
 
   /**
    * Increments total processing time.
@@ -62,33 +53,32 @@ public class HandlersMeasurements {
    * @return number of handlers of a same address
    */
   public int handlersCount() {
-    return handlersCount;
+    return handlersCount.get();
   }
 
   /**
-   * @return a new instance of this class, with same processing time and a handler count incremented by 1
+   * Increments the handlers count, unless this instance is dead.
+   *
+   * @return true if the count was incremented
    */
-  public HandlersMeasurements incrementHandlersCount() {
-    return new HandlersMeasurements(processingTime, handlersCount + 1);
+  public boolean retain() {
+    for (; ; ) {
+      int count = handlersCount.get();
+      if (count == 0) {
+        return false;
+      }
+      if (handlersCount.compareAndSet(count, count + 1)) {
+        return true;
+      }
+    }
   }
 
   /**
-   * @return a new instance of this class, with same processing time and a handler count decremented by 1
+   * Decrements the handlers count.
+   *
+   * @return true if this was the last handler, in which case this instance is now dead
    */
-  public HandlersMeasurements decrementHandlersCount() {
-    return new HandlersMeasurements(processingTime, handlersCount - 1);
-  }
-
-  @Override
-  public boolean equals(Object o) {
-    if (this == o) return true;
-    if (o == null || getClass() != o.getClass()) return false;
-    HandlersMeasurements that = (HandlersMeasurements) o;
-    return handlersCount == that.handlersCount;
-  }
-
-  @Override
-  public int hashCode() {
-    return handlersCount;
+  public boolean release() {
+    return handlersCount.decrementAndGet() == 0;
   }
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measurements of the responses received from a remote address, shared by all {@link HttpClientMetricsImpl}
+ * instances.
+ * <p>
+ * Instances are reference counted by the {@link HttpClientConnectionsMeasurements} using them. Once released by all
+ * of them, an instance cannot be retained anymore, and it is removed after its final values are collected.
+ *
+ * @author Thomas Segismont
+ */
+class HttpClientAddressMetrics {
+  private final StatusCodeCounters statusCodes;
+  private final LatencyHistogram requestWriteTime = new LatencyHistogram();
+  private final LatencyHistogram timeToFirstByte = new LatencyHistogram();
+  private final LatencyHistogram downloadTime = new LatencyHistogram();
+  private final AtomicInteger references = new AtomicInteger(1);
+
+  /**
+   * @param exactStatusCodes whether responses should also be counted per exact status code
+   */
+  HttpClientAddressMetrics(boolean exactStatusCodes) {
+    statusCodes = new StatusCodeCounters(exactStatusCodes);
+  }
+
+  /**
+   * Increments the reference count, unless this instance has been released.
+   *
+   * @return true if the count was incremented
+   */
+  boolean retain() {
+    for (; ; ) {
+      int count = references.get();
+      if (count == 0) {
+        return false;
+      }
+      if (references.compareAndSet(count, count + 1)) {
+        return true;
+      }
+    }
+  }
+
+  void release() {
+    references.decrementAndGet();
+  }
+
+  /**
+   * @return true if no {@link HttpClientConnectionsMeasurements} uses this instance anymore
+   */
+  boolean isReleased() {
+    return references.get() == 0;
+  }
+
+  /**
+   * Record the status code and the duration of each phase of the request.
+   *
+   * @param requestMetric the request metric, with the phase timestamps
+   * @param statusCode    the response status code
+   * @param end           the time the response ended, as given by {@link System#nanoTime()}
+   */
+  void responseEnd(HttpClientRequestMetrics requestMetric, int statusCode, long end) {
+    statusCodes.record(statusCode);
+    long start = requestMetric.start();
+    // The server may respond before the request is fully written
+    long requestEnd = requestMetric.isRequestEnded() ? requestMetric.requestEnd() : start;
+    long responseBegin = requestMetric.isResponseBegun() ? requestMetric.responseBegin() : end;
+    if (requestMetric.isRequestEnded()) {
+      requestWriteTime.record(requestEnd - start);
+    }
+    timeToFirstByte.record(responseBegin - requestEnd);
+    downloadTime.record(end - responseBegin);
+  }
+
+  void collect(String baseName, long timestamp, double[] percentiles, String[] percentileIds, List<DataPoint> res) {
+    statusCodes.collect(baseName, timestamp, res);
+    res.addAll(requestWriteTime.collect(baseName + "requestWriteTime", timestamp, percentiles, percentileIds));
+    res.addAll(timeToFirstByte.collect(baseName + "timeToFirstByte", timestamp, percentiles, percentileIds));
+    res.addAll(downloadTime.collect(baseName + "downloadTime", timestamp, percentiles, percentileIds));
+  }
+}
@@ -16,6 +16,7 @@
 
 package io.vertx.ext.hawkular.impl;
 
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.LongAdder;
 
 import static java.util.concurrent.TimeUnit.*;
@@ -32,12 +33,46 @@ public class HttpClientConnectionsMeasurements {
   private final LongAdder requestCount = new LongAdder();
   private final LongAdder responseTime = new LongAdder();
   private final LongAdder wsConnections = new LongAdder();
+  private final HttpClientAddressMetrics addressMetrics;
+  private final AtomicBoolean addressMetricsReleased = new AtomicBoolean();
 
   /**
-   * Increment the number of opened connections.
+   * @param addressMetrics the measurements of the remote address, shared by all clients
    */
-  public void incrementConnections() {
-    tcpMeasurements.incrementConnections();
+  HttpClientConnectionsMeasurements(HttpClientAddressMetrics addressMetrics) {
+    this.addressMetrics = addressMetrics;
+  }
+
+  /**
+   * @return the measurements of the remote address, shared by all clients
+   */
+  HttpClientAddressMetrics getAddressMetrics() {
+    return addressMetrics;
+  }
+
+  /**
+   * Releases the measurements of the remote address, once this instance is evicted or its client closed.
+   */
+  void releaseAddressMetrics() {
+    if (addressMetricsReleased.compareAndSet(false, true)) {
+      addressMetrics.release();
+    }
+  }
+
+  /**
+   * Increment the number of opened connections, unless this instance has been evicted.
+   *
+   * @return true if the connection was counted
+   */
+  public boolean incrementConnections() {
+    return tcpMeasurements.incrementConnections();
+  }
+
+  /**
+   * @see NetClientConnectionsMeasurements#evictIfIdle(long, long)
+   */
+  boolean evictIfIdle(long now, long timeout) {
+    return tcpMeasurements.evictIfIdle(now, timeout);
   }
 
   /**
@@ -86,11 +121,14 @@ public class HttpClientConnectionsMeasurements {
   /**
    * Signal a response has been received.
    *
-   * @param responseTime time elapsed until the response has been received, in nanoseconds
+   * @param requestMetric the request metric
+   * @param statusCode    the response status code
    */
-  public void responseEnd(long responseTime) {
+  public void responseEnd(HttpClientRequestMetrics requestMetric, int statusCode) {
+    long end = System.nanoTime();
     requests.decrement();
-    this.responseTime.add(responseTime);
+    responseTime.add(end - requestMetric.start());
+    addressMetrics.responseEnd(requestMetric, statusCode, end);
   }
 
   /**
@@ -190,11 +228,18 @@ public class HttpClientConnectionsMeasurements {
       return wsConnections;
     }
 
+    /**
+     * @return a copy of this snapshot, with the gauges set to zero
+     */
+    Snapshot countersOnly() {
+      return new Snapshot(tcpMeasurementsSnapshot.countersOnly(), 0, requestCount, responseTime, 0);
+    }
+
     public static Snapshot merge(Snapshot s1, Snapshot s2) {
       NetClientConnectionsMeasurements.Snapshot tcpMeasurementsSnapshot =
         NetClientConnectionsMeasurements.Snapshot.merge(s1.tcpMeasurementsSnapshot, s2.tcpMeasurementsSnapshot);
       return new Snapshot(tcpMeasurementsSnapshot, s1.requests + s2.requests, s1.requestCount + s2.requestCount,
-        s1.responseTime + s2.responseTime, s1.wsConnections + s1.wsConnections);
+        s1.responseTime + s2.responseTime, s1.wsConnections + s2.wsConnections);
     }
   }
 }
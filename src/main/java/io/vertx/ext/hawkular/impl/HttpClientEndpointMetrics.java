@@ -0,0 +1,155 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HTTP client connection pool monitoring class. An instance is created whenever
+ * {@link HttpClientMetricsImpl#createEndpoint(String, int, int)} is called, and is associated with the pool until
+ * it is closed.
+ * <p>
+ * Queued request task metrics are recycled, so that queueing a request does not allocate once the pool has warmed up.
+ * Requests may be queued and dequeued on different event loops, so instances are kept in a lock-free {@link Recycler}.
+ *
+ * @author Thomas Segismont
+ */
+public class HttpClientEndpointMetrics {
+  private static final int MAX_POOLED = 16;
+
+  private final int maxPoolSize;
+  private final Measurements measurements;
+  private final Recycler<QueuedRequest> pool = new Recycler<>(MAX_POOLED);
+  private boolean closed;
+
+  /**
+   * @param maxPoolSize  the maximum size of the pool
+   * @param measurements the measurements of the endpoint, shared by all clients, retained by the caller
+   */
+  HttpClientEndpointMetrics(int maxPoolSize, Measurements measurements) {
+    this.maxPoolSize = maxPoolSize;
+    this.measurements = measurements;
+    measurements.maxPoolSize.add(maxPoolSize);
+  }
+
+  /**
+   * @return the task metric of the request, holding the time it was enqueued
+   */
+  QueuedRequest enqueue() {
+    QueuedRequest queuedRequest = pool.poll();
+    if (queuedRequest == null) {
+      queuedRequest = new QueuedRequest();
+    }
+    queuedRequest.enqueued = System.nanoTime();
+    measurements.queueSize.increment();
+    return queuedRequest;
+  }
+
+  /**
+   * @param queuedRequest the task metric returned by {@link #enqueue()}
+   */
+  void dequeue(QueuedRequest queuedRequest) {
+    measurements.queueSize.decrement();
+    if (queuedRequest != null) {
+      measurements.queueWaitTime.record(System.nanoTime() - queuedRequest.enqueued);
+      pool.recycle(queuedRequest);
+    }
+  }
+
+  void connected() {
+    measurements.connections.increment();
+  }
+
+  void disconnected() {
+    measurements.connections.decrement();
+  }
+
+  /**
+   * Signal the pool is closed. Subsequent calls have no effect.
+   */
+  synchronized void close() {
+    if (!closed) {
+      closed = true;
+      measurements.maxPoolSize.add(-maxPoolSize);
+      measurements.release();
+    }
+  }
+
+  /**
+   * The task metric of a request waiting for a connection.
+   */
+  public static final class QueuedRequest {
+    private long enqueued;
+
+    private QueuedRequest() {
+    }
+  }
+
+  /**
+   * Connection pool measurements of an endpoint, identified by its {@code host:port}, aggregated over all clients.
+   * <p>
+   * Instances are reference counted by the pools of the endpoint. Once released by all of them, an instance cannot be
+   * retained anymore, and it is removed after its final values are collected.
+   */
+  static class Measurements {
+    private final AtomicInteger references = new AtomicInteger(1);
+    private final LongAdder maxPoolSize = new LongAdder();
+    private final LongAdder connections = new LongAdder();
+    private final LongAdder queueSize = new LongAdder();
+    private final LatencyHistogram queueWaitTime = new LatencyHistogram();
+
+    /**
+     * Increments the reference count, unless this instance has been released.
+     *
+     * @return true if the count was incremented
+     */
+    boolean retain() {
+      for (; ; ) {
+        int count = references.get();
+        if (count == 0) {
+          return false;
+        }
+        if (references.compareAndSet(count, count + 1)) {
+          return true;
+        }
+      }
+    }
+
+    void release() {
+      references.decrementAndGet();
+    }
+
+    /**
+     * @return true if no pool uses this instance anymore
+     */
+    boolean isReleased() {
+      return references.get() == 0;
+    }
+
+    void collect(String baseName, long timestamp, double[] percentiles, String[] percentileIds, List<DataPoint> res) {
+      long max = maxPoolSize.sum();
+      res.add(new GaugePoint(baseName + "maxPoolSize", timestamp, max));
+      res.add(new GaugePoint(baseName + "queueSize", timestamp, queueSize.sum()));
+      if (max > 0) {
+        res.add(new GaugePoint(baseName + "poolUsage", timestamp, ((double) connections.sum()) / max));
+      }
+      res.addAll(queueWaitTime.collect(baseName + "queueWaitTime", timestamp, percentiles, percentileIds));
+    }
+  }
+}
@@ -20,169 +20,176 @@ import io.vertx.core.http.HttpClientRequest;
 import io.vertx.core.http.HttpClientResponse;
 import io.vertx.core.http.WebSocket;
 import io.vertx.core.net.SocketAddress;
-import io.vertx.core.net.impl.SocketAddressImpl;
 import io.vertx.core.spi.metrics.HttpClientMetrics;
 import io.vertx.ext.hawkular.impl.HttpClientConnectionsMeasurements.Snapshot;
+import io.vertx.ext.hawkular.impl.HttpClientEndpointMetrics.QueuedRequest;
 
+import java.util.HashMap;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-
-import static java.util.stream.Collectors.*;
 
 /**
+ * The socket and websocket metrics are the {@link HttpClientConnectionsMeasurements} of the remote address, so that
+ * I/O events and requests are recorded without any lookup.
+ *
  * @author Thomas Segismont
  */
 public class HttpClientMetricsImpl
-  implements HttpClientMetrics<HttpClientRequestMetrics, SocketAddress, SocketAddress, Void, Void> {
+  implements HttpClientMetrics<HttpClientRequestMetrics, HttpClientConnectionsMeasurements, HttpClientConnectionsMeasurements, HttpClientEndpointMetrics, QueuedRequest> {
 
-  private final ConcurrentMap<SocketAddress, HttpClientConnectionsMeasurements> connectionsMeasurements = new ConcurrentHashMap<>();
+  private final RemoteAddressRegistry<HttpClientConnectionsMeasurements> connectionsMeasurements;
   private final HttpClientMetricsSupplier httpClientMetricsSupplier;
 
   public HttpClientMetricsImpl(HttpClientMetricsSupplier httpClientMetricsSupplier) {
     this.httpClientMetricsSupplier = httpClientMetricsSupplier;
+    connectionsMeasurements = new RemoteAddressRegistry<>(
+      address -> new HttpClientConnectionsMeasurements(httpClientMetricsSupplier.addressMetrics(address)));
     httpClientMetricsSupplier.register(this);
   }
 
   @Override
-  public Void createEndpoint(String host, int port, int maxPoolSize) {
-    return null;
+  public HttpClientEndpointMetrics createEndpoint(String host, int port, int maxPoolSize) {
+    return new HttpClientEndpointMetrics(maxPoolSize, httpClientMetricsSupplier.endpointMeasurements(host, port));
   }
 
   @Override
-  public void closeEndpoint(String host, int port, Void endpointMetric) {
-
+  public void closeEndpoint(String host, int port, HttpClientEndpointMetrics endpointMetric) {
+    if (endpointMetric != null) {
+      endpointMetric.close();
+    }
   }
 
   @Override
-  public Void enqueueRequest(Void endpointMetric) {
-    return null;
+  public QueuedRequest enqueueRequest(HttpClientEndpointMetrics endpointMetric) {
+    return endpointMetric != null ? endpointMetric.enqueue() : null;
   }
 
   @Override
-  public void dequeueRequest(Void endpointMetric, Void taskMetric) {
-
+  public void dequeueRequest(HttpClientEndpointMetrics endpointMetric, QueuedRequest taskMetric) {
+    if (endpointMetric != null) {
+      endpointMetric.dequeue(taskMetric);
+    }
   }
 
   @Override
-  public void endpointConnected(Void endpointMetric, SocketAddress socketMetric) {
-
+  public void endpointConnected(HttpClientEndpointMetrics endpointMetric, HttpClientConnectionsMeasurements socketMetric) {
+    if (endpointMetric != null) {
+      endpointMetric.connected();
+    }
   }
 
   @Override
-  public void endpointDisconnected(Void endpointMetric, SocketAddress socketMetric) {
-
+  public void endpointDisconnected(HttpClientEndpointMetrics endpointMetric, HttpClientConnectionsMeasurements socketMetric) {
+    if (endpointMetric != null) {
+      endpointMetric.disconnected();
+    }
   }
 
   @Override
   public void requestEnd(HttpClientRequestMetrics requestMetric) {
-
+    requestMetric.requestEnd();
   }
 
   @Override
   public void responseBegin(HttpClientRequestMetrics requestMetric, HttpClientResponse response) {
-
+    requestMetric.responseBegin();
   }
 
   @Override
-  public HttpClientRequestMetrics requestBegin(Void endpointMetric, SocketAddress key, SocketAddress localAddress, SocketAddress remoteAddress, HttpClientRequest request) {
-    HttpClientConnectionsMeasurements measurements = connectionsMeasurements.get(key);
-    if (measurements != null) {
-      measurements.requestBegin();
-    }
-    HttpClientRequestMetrics httpClientRequestMetrics = new HttpClientRequestMetrics(key);
+  public HttpClientRequestMetrics requestBegin(HttpClientEndpointMetrics endpointMetric, HttpClientConnectionsMeasurements measurements, SocketAddress localAddress, SocketAddress remoteAddress, HttpClientRequest request) {
+    measurements.requestBegin();
+    HttpClientRequestMetrics httpClientRequestMetrics = new HttpClientRequestMetrics(measurements);
     httpClientRequestMetrics.resetTimer();
     return httpClientRequestMetrics;
   }
 
   @Override
-  public HttpClientRequestMetrics responsePushed(Void endpointMetric, SocketAddress key, SocketAddress localAddress, SocketAddress remoteAddress, HttpClientRequest request) {
-    return requestBegin(null, key, localAddress, remoteAddress, request);
+  public HttpClientRequestMetrics responsePushed(HttpClientEndpointMetrics endpointMetric, HttpClientConnectionsMeasurements measurements, SocketAddress localAddress, SocketAddress remoteAddress, HttpClientRequest request) {
+    return requestBegin(null, measurements, localAddress, remoteAddress, request);
   }
 
   @Override
   public void requestReset(HttpClientRequestMetrics requestMetric) {
-    HttpClientConnectionsMeasurements measurements = connectionsMeasurements.get(requestMetric.getAddress());
-    if (measurements != null) {
-      measurements.requestReset();
-    }
+    requestMetric.getMeasurements().requestReset();
   }
 
   @Override
   public void responseEnd(HttpClientRequestMetrics requestMetric, HttpClientResponse response) {
-    long responseTime = requestMetric.elapsed();
-    HttpClientConnectionsMeasurements measurements = connectionsMeasurements.get(requestMetric.getAddress());
-    if (measurements != null) {
-      measurements.responseEnd(responseTime);
-    }
+    requestMetric.getMeasurements().responseEnd(requestMetric, response.statusCode());
   }
 
   @Override
-  public SocketAddress connected(Void endpointMetric, SocketAddress key, WebSocket webSocket) {
-    HttpClientConnectionsMeasurements measurements = connectionsMeasurements.get(key);
-    if (measurements != null) {
-      measurements.incrementWsConnectionCount();
-    }
-    return key;
+  public HttpClientConnectionsMeasurements connected(HttpClientEndpointMetrics endpointMetric, HttpClientConnectionsMeasurements measurements, WebSocket webSocket) {
+    measurements.incrementWsConnectionCount();
+    return measurements;
   }
 
   @Override
-  public void disconnected(SocketAddress key) {
-    HttpClientConnectionsMeasurements measurements = connectionsMeasurements.get(key);
-    if (measurements != null) {
-      measurements.decrementWsConnectionCount();
-    }
+  public void disconnected(HttpClientConnectionsMeasurements measurements) {
+    measurements.decrementWsConnectionCount();
   }
 
   @Override
-  public SocketAddress connected(SocketAddress remoteAddress, String remoteName) {
-    SocketAddress key = new SocketAddressImpl(remoteAddress.port(), remoteName);
-    HttpClientConnectionsMeasurements measurements = connectionsMeasurements.get(key);
-    if (measurements == null) {
-      measurements = connectionsMeasurements.computeIfAbsent(key, address -> new HttpClientConnectionsMeasurements());
+  public HttpClientConnectionsMeasurements connected(SocketAddress remoteAddress, String remoteName) {
+    for (; ; ) {
+      HttpClientConnectionsMeasurements measurements = connectionsMeasurements.get(remoteName, remoteAddress.port());
+      if (measurements.incrementConnections()) {
+        return measurements;
+      }
+      // Evicted concurrently: remove it now, instead of spinning until the collector does
+      connectionsMeasurements.remove(remoteName, remoteAddress.port(), measurements);
     }
-    measurements.incrementConnections();
-    return key;
   }
 
   @Override
-  public void disconnected(SocketAddress key, SocketAddress remoteAddress) {
-    HttpClientConnectionsMeasurements measurements = connectionsMeasurements.get(key);
-    if (measurements != null) {
-      measurements.decrementConnections();
-    }
+  public void disconnected(HttpClientConnectionsMeasurements measurements, SocketAddress remoteAddress) {
+    measurements.decrementConnections();
   }
 
   @Override
-  public void bytesRead(SocketAddress key, SocketAddress remoteAddress, long numberOfBytes) {
-    HttpClientConnectionsMeasurements measurements = connectionsMeasurements.get(key);
-    if (measurements != null) {
-      measurements.addBytesReceived(numberOfBytes);
-    }
+  public void bytesRead(HttpClientConnectionsMeasurements measurements, SocketAddress remoteAddress, long numberOfBytes) {
+    measurements.addBytesReceived(numberOfBytes);
   }
 
   @Override
-  public void bytesWritten(SocketAddress key, SocketAddress remoteAddress, long numberOfBytes) {
-    HttpClientConnectionsMeasurements measurements = connectionsMeasurements.get(key);
-    if (measurements != null) {
-      measurements.addBytesSent(numberOfBytes);
-    }
+  public void bytesWritten(HttpClientConnectionsMeasurements measurements, SocketAddress remoteAddress, long numberOfBytes) {
+    measurements.addBytesSent(numberOfBytes);
   }
 
   @Override
-  public void exceptionOccurred(SocketAddress key, SocketAddress remoteAddress, Throwable t) {
-    HttpClientConnectionsMeasurements measurements = connectionsMeasurements.get(key);
-    if (measurements != null) {
-      measurements.incrementErrorCount();
-    }
+  public void exceptionOccurred(HttpClientConnectionsMeasurements measurements, SocketAddress remoteAddress, Throwable t) {
+    measurements.incrementErrorCount();
   }
 
   /**
-   * @return a snapshot of measurements for each remote address
+   * Measurements of remote addresses idle for longer than the timeout are evicted, and handed over to the supplier
+   * with their final values. Must only be called by the collector.
+   *
+   * @return a snapshot of measurements for each remote address which is not evicted
    */
   public Map<SocketAddress, Snapshot> getMeasurementsSnapshot() {
-    return connectionsMeasurements.entrySet().stream().collect(toMap(Entry::getKey, e -> e.getValue().getSnapshot()));
+    long now = System.nanoTime();
+    long idleTimeout = httpClientMetricsSupplier.getRemoteIdleTimeout();
+    Map<SocketAddress, Snapshot> res = new HashMap<>();
+    connectionsMeasurements.forEach((address, measurements) -> {
+      if (idleTimeout > 0 && measurements.evictIfIdle(now, idleTimeout)) {
+        connectionsMeasurements.remove(address, measurements);
+        httpClientMetricsSupplier.evicted(address, measurements);
+      } else {
+        res.put(address, measurements.getSnapshot());
+      }
+    });
+    return res;
+  }
+
+  /**
+   * Must only be called by the collector, once this instance is closed.
+   *
+   * @return the final snapshot of measurements for each remote address
+   */
+  Map<SocketAddress, Snapshot> getFinalSnapshot() {
+    Map<SocketAddress, Snapshot> res = new HashMap<>();
+    connectionsMeasurements.forEach((address, measurements) -> res.put(address, measurements.getSnapshot()));
+    return res;
   }
 
   @Override
@@ -193,5 +200,6 @@ public class HttpClientMetricsImpl
   @Override
   public void close() {
     httpClientMetricsSupplier.unregister(this);
+    connectionsMeasurements.forEach((address, measurements) -> measurements.releaseAddressMetrics());
   }
 }
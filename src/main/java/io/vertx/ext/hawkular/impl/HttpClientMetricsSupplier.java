@@ -17,14 +17,22 @@
 package io.vertx.ext.hawkular.impl;
 
 import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.hawkular.VertxHawkularOptions;
 import io.vertx.ext.hawkular.impl.HttpClientConnectionsMeasurements.Snapshot;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.concurrent.TimeUnit.*;
 
 /**
  * Aggregates values from {@link HttpClientMetricsImpl} instances and exposes metrics for collection.
@@ -34,15 +42,34 @@ import java.util.concurrent.CopyOnWriteArraySet;
 public class HttpClientMetricsSupplier implements MetricSupplier {
   private final String baseName;
   private final Set<HttpClientMetricsImpl> metricsSet = new CopyOnWriteArraySet<>();
+  private final Queue<HttpClientMetricsImpl> closedMetrics = new ConcurrentLinkedQueue<>();
+  private final ConcurrentMap<SocketAddress, HttpClientAddressMetrics> addressMetrics = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, HttpClientEndpointMetrics.Measurements> endpointMeasurements = new ConcurrentHashMap<>();
+  private final LongAdder evictions = new LongAdder();
+  private final boolean exactStatusCodes;
+  private final long remoteIdleTimeout;
+  private final RemoteAddressTotals<Snapshot> totals;
+  private final double[] latencyPercentiles;
+  private final String[] latencyPercentileIds;
 
-  public HttpClientMetricsSupplier(String prefix) {
+  public HttpClientMetricsSupplier(String prefix, VertxHawkularOptions options) {
     baseName = prefix + (prefix.isEmpty() ? "" : ".") + "vertx.http.client.";
+    exactStatusCodes = options.isExactStatusCodes();
+    remoteIdleTimeout = NANOSECONDS.convert(options.getRemoteIdleTimeout(), SECONDS);
+    totals = new RemoteAddressTotals<>(Snapshot::merge, Snapshot::countersOnly, remoteIdleTimeout);
+    latencyPercentiles = IntervalHistogram.percentiles(options.getLatencyPercentiles());
+    latencyPercentileIds = IntervalHistogram.percentileIds(latencyPercentiles);
   }
 
   @Override
   public List<DataPoint> collect() {
     long timestamp = System.currentTimeMillis();
 
+    // Before the live values, so that a client closed during the collection is not counted twice
+    for (HttpClientMetricsImpl closed; (closed = closedMetrics.poll()) != null; ) {
+      closed.getFinalSnapshot().forEach(totals::add);
+    }
+
     Map<SocketAddress, Snapshot> values = new HashMap<>();
 
     for (HttpClientMetricsImpl httpClientMetrics : metricsSet) {
@@ -50,6 +77,7 @@ public class HttpClientMetricsSupplier implements MetricSupplier {
         values.merge(address, snapshot, Snapshot::merge);
       });
     }
+    totals.addTo(values, System.nanoTime());
 
     List<DataPoint> res = new ArrayList<>();
 
@@ -66,14 +94,91 @@ public class HttpClientMetricsSupplier implements MetricSupplier {
       res.add(new CounterPoint(baseName + addressId + ".responseTime", timestamp, snapshot.getResponseTime()));
       res.add(new GaugePoint(baseName + addressId + ".wsConnections", timestamp, snapshot.getWsConnections()));
     });
+    addressMetrics.forEach((address, metrics) -> {
+      String name = baseName + address.host() + ":" + address.port() + ".";
+      metrics.collect(name, timestamp, latencyPercentiles, latencyPercentileIds, res);
+      if (metrics.isReleased()) {
+        addressMetrics.remove(address, metrics);
+      }
+    });
+    endpointMeasurements.forEach((endpoint, measurements) -> {
+      measurements.collect(baseName + endpoint + ".", timestamp, latencyPercentiles, latencyPercentileIds, res);
+      // All the pools of the endpoint are closed, the final values have been collected
+      if (measurements.isReleased() && endpointMeasurements.remove(endpoint, measurements)) {
+        evictions.increment();
+      }
+    });
+    res.add(new CounterPoint(baseName + "evictions", timestamp, evictions.sum()));
     return res;
   }
 
+  /**
+   * @return the measurements shared by the clients connected to {@code remoteAddress}, retained by the caller
+   */
+  HttpClientAddressMetrics addressMetrics(SocketAddress remoteAddress) {
+    for (; ; ) {
+      HttpClientAddressMetrics metrics = addressMetrics.get(remoteAddress);
+      if (metrics == null) {
+        HttpClientAddressMetrics created = new HttpClientAddressMetrics(exactStatusCodes);
+        metrics = addressMetrics.putIfAbsent(remoteAddress, created);
+        if (metrics == null) {
+          return created;
+        }
+      }
+      if (metrics.retain()) {
+        return metrics;
+      }
+      addressMetrics.remove(remoteAddress, metrics);
+    }
+  }
+
+  /**
+   * @return the time after which the measurements of an idle remote address are evicted, in nanoseconds; {@code 0} if
+   * they should be kept forever
+   */
+  long getRemoteIdleTimeout() {
+    return remoteIdleTimeout;
+  }
+
+  /**
+   * Signal the measurements of an idle remote address have been evicted. Their final values are kept in the totals of
+   * the address.
+   */
+  void evicted(SocketAddress address, HttpClientConnectionsMeasurements measurements) {
+    evictions.increment();
+    totals.add(address, measurements.getSnapshot());
+    measurements.releaseAddressMetrics();
+  }
+
+  /**
+   * @return the connection pool measurements shared by the clients of the {@code host:port} endpoint, retained by the
+   * caller
+   */
+  HttpClientEndpointMetrics.Measurements endpointMeasurements(String host, int port) {
+    String endpoint = host + ":" + port;
+    for (; ; ) {
+      HttpClientEndpointMetrics.Measurements measurements = endpointMeasurements.get(endpoint);
+      if (measurements == null) {
+        HttpClientEndpointMetrics.Measurements created = new HttpClientEndpointMetrics.Measurements();
+        measurements = endpointMeasurements.putIfAbsent(endpoint, created);
+        if (measurements == null) {
+          return created;
+        }
+      }
+      if (measurements.retain()) {
+        return measurements;
+      }
+      endpointMeasurements.remove(endpoint, measurements);
+    }
+  }
+
   public void register(HttpClientMetricsImpl httpClientMetrics) {
     metricsSet.add(httpClientMetrics);
   }
 
   public void unregister(HttpClientMetricsImpl httpClientMetrics) {
-    metricsSet.remove(httpClientMetrics);
+    if (metricsSet.remove(httpClientMetrics)) {
+      closedMetrics.add(httpClientMetrics);
+    }
   }
 }
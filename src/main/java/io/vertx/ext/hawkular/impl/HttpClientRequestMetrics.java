@@ -16,30 +16,30 @@
 
 package io.vertx.ext.hawkular.impl;
 
-import io.vertx.core.http.HttpClientRequest;
-import io.vertx.core.net.SocketAddress;
-
 /**
- * HTTP request monitoring class. An instance is created whenever
- * {@link HttpClientMetricsImpl#requestBegin(Void, SocketAddress, SocketAddress, HttpClientRequest)} is called.
+ * HTTP request monitoring class. An instance is created whenever {@link HttpClientMetricsImpl#requestBegin} is called.
  * The instance is then associated with the request, until the response is received.
  *
  * @author Thomas Segismont
  */
 public class HttpClientRequestMetrics {
-  private final SocketAddress address;
+  private final HttpClientConnectionsMeasurements measurements;
 
   private long start;
+  private long requestEnd;
+  private long responseBegin;
+  private boolean requestEnded;
+  private boolean responseBegun;
 
-  public HttpClientRequestMetrics(SocketAddress address) {
-    this.address = address;
+  public HttpClientRequestMetrics(HttpClientConnectionsMeasurements measurements) {
+    this.measurements = measurements;
   }
 
   /**
-   * @return remote address of the HTTP request
+   * @return measurements of the remote address of the HTTP request
    */
-  public SocketAddress getAddress() {
-    return address;
+  public HttpClientConnectionsMeasurements getMeasurements() {
+    return measurements;
   }
 
   /**
@@ -47,6 +47,8 @@ public class HttpClientRequestMetrics {
    */
   public void resetTimer() {
     start = System.nanoTime();
+    requestEnded = false;
+    responseBegun = false;
   }
 
   /**
@@ -55,4 +57,40 @@ public class HttpClientRequestMetrics {
   public long elapsed() {
     return System.nanoTime() - start;
   }
+
+  /**
+   * Signal the request has been fully written.
+   */
+  public void requestEnd() {
+    requestEnd = System.nanoTime();
+    requestEnded = true;
+  }
+
+  /**
+   * Signal the response headers have been received.
+   */
+  public void responseBegin() {
+    responseBegin = System.nanoTime();
+    responseBegun = true;
+  }
+
+  long start() {
+    return start;
+  }
+
+  boolean isRequestEnded() {
+    return requestEnded;
+  }
+
+  long requestEnd() {
+    return requestEnd;
+  }
+
+  boolean isResponseBegun() {
+    return responseBegun;
+  }
+
+  long responseBegin() {
+    return responseBegin;
+  }
 }
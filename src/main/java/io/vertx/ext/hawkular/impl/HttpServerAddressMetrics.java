@@ -0,0 +1,103 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+
+package io.vertx.ext.hawkular.impl;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measurements of the requests processed by the servers listening on an address, shared by all
+ * {@link HttpServerMetricsImpl} instances.
+ * <p>
+ * Instances are reference counted by the servers of the address. Once released by all of them, an instance cannot be
+ * retained anymore, and it is removed after its final values are collected.
+ *
+ * @author Thomas Segismont
+ */
+class HttpServerAddressMetrics {
+  private final LatencyHistogram latencyHistogram = new LatencyHistogram();
+  private final StatusCodeCounters statusCodes;
+  private final HttpServerRouteMetrics routeMetrics;
+  private final AtomicInteger references = new AtomicInteger(1);
+
+  /**
+   * @param exactStatusCodes whether responses should also be counted per exact status code
+   * @param routeMetrics     the route metrics of the address, {@code null} if disabled
+   */
+  HttpServerAddressMetrics(boolean exactStatusCodes, HttpServerRouteMetrics routeMetrics) {
+    statusCodes = new StatusCodeCounters(exactStatusCodes);
+    this.routeMetrics = routeMetrics;
+  }
+
+  /**
+   * Increments the reference count, unless this instance has been released.
+   *
+   * @return true if the count was incremented
+   */
+  boolean retain() {
+    for (; ; ) {
+      int count = references.get();
+      if (count == 0) {
+        return false;
+      }
+      if (references.compareAndSet(count, count + 1)) {
+        return true;
+      }
+    }
+  }
+
+  void release() {
+    references.decrementAndGet();
+  }
+
+  /**
+   * @return true if no server uses this instance anymore
+   */
+  boolean isReleased() {
+    return references.get() == 0;
+  }
+
+  /**
+   * @return the response time histogram
+   */
+  LatencyHistogram latencyHistogram() {
+    return latencyHistogram;
+  }
+
+  /**
+   * @return the status code counters
+   */
+  StatusCodeCounters statusCodes() {
+    return statusCodes;
+  }
+
+  /**
+   * @return the route metrics, {@code null} if disabled
+   */
+  HttpServerRouteMetrics routeMetrics() {
+    return routeMetrics;
+  }
+
+  void collect(String baseName, long timestamp, double[] percentiles, String[] percentileIds, List<DataPoint> res) {
+    res.addAll(latencyHistogram.collect(baseName + "responseTime", timestamp, percentiles, percentileIds));
+    statusCodes.collect(baseName, timestamp, res);
+    if (routeMetrics != null) {
+      res.addAll(routeMetrics.collect(baseName + "routes.", timestamp));
+    }
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl;
+
+import io.vertx.core.http.HttpServerResponse;
+
+import java.util.Arrays;
+
+/**
+ * HTTP server connection monitoring class. An instance is created whenever
+ * {@link HttpServerMetricsImpl#connected(io.vertx.core.net.SocketAddress, String)} is called.
+ * <p>
+ * It keeps a pool of {@link HttpServerRequestMetrics}, so that tracking requests does not allocate once the connection
+ * has warmed up. The pool grows up to the largest number of requests processed at once, i.e. pipelined HTTP/1.x
+ * requests or concurrent HTTP/2 streams. Instances are confined to the connection event loop.
+ *
+ * @author Thomas Segismont
+ */
+public class HttpServerConnectionMetrics {
+  private HttpServerRequestMetrics[] pool = new HttpServerRequestMetrics[4];
+  private int pooled;
+
+  /**
+   * @param response the response of the request
+   * @return a request metrics instance, with its timer started
+   */
+  HttpServerRequestMetrics requestBegin(HttpServerResponse response) {
+    HttpServerRequestMetrics requestMetrics;
+    if (pooled > 0) {
+      requestMetrics = pool[--pooled];
+      pool[pooled] = null;
+    } else {
+      requestMetrics = new HttpServerRequestMetrics(this);
+    }
+    requestMetrics.begin(response);
+    return requestMetrics;
+  }
+
+  void recycle(HttpServerRequestMetrics requestMetrics) {
+    if (pooled == pool.length) {
+      pool = Arrays.copyOf(pool, 2 * pooled);
+    }
+    pool[pooled++] = requestMetrics;
+  }
+}
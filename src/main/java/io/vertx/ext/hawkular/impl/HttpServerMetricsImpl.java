@@ -15,6 +15,7 @@
  */
 package io.vertx.ext.hawkular.impl;
 
+import io.vertx.core.http.HttpHeaders;
 import io.vertx.core.http.HttpMethod;
 import io.vertx.core.http.HttpServerRequest;
 import io.vertx.core.http.HttpServerResponse;
@@ -29,7 +30,7 @@ import static java.util.concurrent.TimeUnit.*;
 /**
  * @author Thomas Segismont
  */
-public class HttpServerMetricsImpl implements HttpServerMetrics<Long, Void, Void> {
+public class HttpServerMetricsImpl implements HttpServerMetrics<HttpServerRequestMetrics, Void, HttpServerConnectionMetrics> {
   // Request info
   private final LongAdder processingTime = new LongAdder();
   private final LongAdder requestCount = new LongAdder();
@@ -46,46 +47,103 @@ public class HttpServerMetricsImpl implements HttpServerMetrics<Long, Void, Void
 
   private final SocketAddress localAddress;
   private final HttpServerMetricsSupplier httpServerMetricsSupplier;
+  private final HttpServerAddressMetrics addressMetrics;
+  private final LatencyHistogram latencyHistogram;
+  private final HttpServerRouteMetrics routeMetrics;
+  private final StatusCodeCounters statusCodes;
 
   public HttpServerMetricsImpl(SocketAddress localAddress, HttpServerMetricsSupplier httpServerMetricsSupplier) {
     this.localAddress = localAddress;
     this.httpServerMetricsSupplier = httpServerMetricsSupplier;
+    addressMetrics = httpServerMetricsSupplier.addressMetrics(localAddress);
+    latencyHistogram = addressMetrics.latencyHistogram();
+    routeMetrics = addressMetrics.routeMetrics();
+    statusCodes = addressMetrics.statusCodes();
     httpServerMetricsSupplier.register(this);
   }
 
   @Override
-  public Long requestBegin(Void socketMetric, HttpServerRequest request) {
+  public HttpServerRequestMetrics requestBegin(HttpServerConnectionMetrics socketMetric, HttpServerRequest request) {
     requests.increment();
-    return System.nanoTime();
+    HttpServerRequestMetrics requestMetric = begin(socketMetric, request.response());
+    if (routeMetrics != null) {
+      requestMetric.route(routeMetrics.series(request.method(), request.path()), contentLength(request));
+    } else {
+      requestMetric.route(null, 0);
+    }
+    return requestMetric;
+  }
+
+  private static long contentLength(HttpServerRequest request) {
+    String contentLength = request.getHeader(HttpHeaders.CONTENT_LENGTH);
+    if (contentLength != null) {
+      try {
+        return Long.parseLong(contentLength);
+      } catch (NumberFormatException ignore) {
+        // Invalid header, the size is unknown
+      }
+    }
+    return 0;
   }
 
   @Override
-  public void requestReset(Long requestMetric) {
-    requestCount.increment();
-    requests.decrement();
+  public void requestReset(HttpServerRequestMetrics requestMetric) {
+    HttpServerRouteMetrics.Series route = requestMetric.route();
+    if (requestMetric.end()) {
+      requestCount.increment();
+      requests.decrement();
+      if (route != null) {
+        route.requestReset();
+      }
+    }
   }
 
   @Override
-  public Long responsePushed(Void socketMetric, HttpMethod method, String uri, HttpServerResponse response) {
+  public HttpServerRequestMetrics responsePushed(HttpServerConnectionMetrics socketMetric, HttpMethod method, String uri, HttpServerResponse response) {
     requests.increment();
-    return System.nanoTime();
+    HttpServerRequestMetrics requestMetric = begin(socketMetric, response);
+    requestMetric.route(routeMetrics != null ? routeMetrics.series(method, uri) : null, 0);
+    return requestMetric;
+  }
+
+  private HttpServerRequestMetrics begin(HttpServerConnectionMetrics socketMetric, HttpServerResponse response) {
+    if (socketMetric != null) {
+      return socketMetric.requestBegin(response);
+    }
+    HttpServerRequestMetrics requestMetric = new HttpServerRequestMetrics(null);
+    requestMetric.begin(response);
+    return requestMetric;
   }
 
   @Override
-  public void responseEnd(Long nanoStart, HttpServerResponse response) {
-    long requestProcessingTime = System.nanoTime() - nanoStart;
+  public void responseEnd(HttpServerRequestMetrics requestMetric, HttpServerResponse response) {
+    if (!requestMetric.tracks(response)) {
+      // Late callback, the instance has been recycled for another request
+      return;
+    }
+    long requestProcessingTime = requestMetric.elapsed();
+    HttpServerRouteMetrics.Series route = requestMetric.route();
+    long routeBytesReceived = requestMetric.bytesReceived();
+    if (!requestMetric.end()) {
+      return;
+    }
+    if (route != null) {
+      route.responseEnd(requestProcessingTime, response.getStatusCode(), routeBytesReceived, response.bytesWritten());
+    }
     processingTime.add(requestProcessingTime);
+    latencyHistogram.record(requestProcessingTime);
+    statusCodes.record(response.getStatusCode());
     requestCount.increment();
     requests.decrement();
   }
 
   @Override
-  public Void upgrade(Long requestMetric, ServerWebSocket serverWebSocket) {
+  public Void upgrade(HttpServerRequestMetrics requestMetric, ServerWebSocket serverWebSocket) {
     return null;
   }
 
   @Override
-  public Void connected(Void socketMetric, ServerWebSocket serverWebSocket) {
+  public Void connected(HttpServerConnectionMetrics socketMetric, ServerWebSocket serverWebSocket) {
     wsConnections.increment();
     return null;
   }
@@ -96,28 +154,28 @@ public class HttpServerMetricsImpl implements HttpServerMetrics<Long, Void, Void
   }
 
   @Override
-  public Void connected(SocketAddress remoteAddress, String remoteName) {
+  public HttpServerConnectionMetrics connected(SocketAddress remoteAddress, String remoteName) {
     httpConnections.increment();
-    return null;
+    return new HttpServerConnectionMetrics();
   }
 
   @Override
-  public void disconnected(Void socketMetric, SocketAddress remoteAddress) {
+  public void disconnected(HttpServerConnectionMetrics socketMetric, SocketAddress remoteAddress) {
     httpConnections.decrement();
   }
 
   @Override
-  public void bytesRead(Void socketMetric, SocketAddress remoteAddress, long numberOfBytes) {
+  public void bytesRead(HttpServerConnectionMetrics socketMetric, SocketAddress remoteAddress, long numberOfBytes) {
     bytesReceived.add(numberOfBytes);
   }
 
   @Override
-  public void bytesWritten(Void socketMetric, SocketAddress remoteAddress, long numberOfBytes) {
+  public void bytesWritten(HttpServerConnectionMetrics socketMetric, SocketAddress remoteAddress, long numberOfBytes) {
     bytesSent.add(numberOfBytes);
   }
 
   @Override
-  public void exceptionOccurred(Void socketMetric, SocketAddress remoteAddress, Throwable t) {
+  public void exceptionOccurred(HttpServerConnectionMetrics socketMetric, SocketAddress remoteAddress, Throwable t) {
     errorCount.increment();
   }
 
@@ -128,6 +186,13 @@ public class HttpServerMetricsImpl implements HttpServerMetrics<Long, Void, Void
     return localAddress;
   }
 
+  /**
+   * @return the measurements shared by the servers listening on the same address
+   */
+  HttpServerAddressMetrics getAddressMetrics() {
+    return addressMetrics;
+  }
+
   /**
    * @return cumulated processing time of http requests
    */
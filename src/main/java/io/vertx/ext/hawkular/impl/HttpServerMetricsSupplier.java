@@ -16,12 +16,16 @@
 package io.vertx.ext.hawkular.impl;
 
 import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.hawkular.RouteMetricsOptions;
+import io.vertx.ext.hawkular.VertxHawkularOptions;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 
 /**
@@ -32,9 +36,26 @@ import java.util.concurrent.CopyOnWriteArraySet;
 public class HttpServerMetricsSupplier implements MetricSupplier {
   private final String baseName;
   private final Set<HttpServerMetricsImpl> metricsSet = new CopyOnWriteArraySet<>();
+  private final ConcurrentMap<SocketAddress, HttpServerAddressMetrics> addressMetrics = new ConcurrentHashMap<>();
+  private final double[] latencyPercentiles;
+  private final String[] latencyPercentileIds;
+  private final RouteMatcher routeMatcher;
+  private final int maxRouteSeries;
+  private final boolean exactStatusCodes;
 
-  public HttpServerMetricsSupplier(String prefix) {
+  public HttpServerMetricsSupplier(String prefix, VertxHawkularOptions options) {
     baseName = prefix + (prefix.isEmpty() ? "" : ".") + "vertx.http.server.";
+    latencyPercentiles = IntervalHistogram.percentiles(options.getLatencyPercentiles());
+    latencyPercentileIds = IntervalHistogram.percentileIds(latencyPercentiles);
+    exactStatusCodes = options.isExactStatusCodes();
+    RouteMetricsOptions routeMetricsOptions = options.getRouteMetricsOptions();
+    if (routeMetricsOptions != null && routeMetricsOptions.isEnabled()) {
+      routeMatcher = new RouteMatcher(routeMetricsOptions);
+      maxRouteSeries = routeMetricsOptions.getMaxSeries();
+    } else {
+      routeMatcher = null;
+      maxRouteSeries = 0;
+    }
   }
 
   @Override
@@ -71,6 +92,14 @@ public class HttpServerMetricsSupplier implements MetricSupplier {
     res.addAll(counters("bytesReceived", timestamp, bytesReceived));
     res.addAll(counters("bytesSent", timestamp, bytesSent));
     res.addAll(counters("errorCount", timestamp, errorCount));
+    addressMetrics.forEach((address, metrics) -> {
+      String name = baseName + address.host() + ":" + address.port() + ".";
+      metrics.collect(name, timestamp, latencyPercentiles, latencyPercentileIds, res);
+      // All the servers of the address are closed, the final values have been collected
+      if (metrics.isReleased()) {
+        addressMetrics.remove(address, metrics);
+      }
+    });
 
     return res;
   }
@@ -98,11 +127,37 @@ public class HttpServerMetricsSupplier implements MetricSupplier {
     return res;
   }
 
+  /**
+   * @return the measurements shared by the servers listening on {@code serverAddress}, retained by the caller
+   */
+  HttpServerAddressMetrics addressMetrics(SocketAddress serverAddress) {
+    for (; ; ) {
+      HttpServerAddressMetrics metrics = addressMetrics.get(serverAddress);
+      if (metrics == null) {
+        HttpServerRouteMetrics routeMetrics = null;
+        if (routeMatcher != null) {
+          routeMetrics = new HttpServerRouteMetrics(routeMatcher, maxRouteSeries);
+        }
+        HttpServerAddressMetrics created = new HttpServerAddressMetrics(exactStatusCodes, routeMetrics);
+        metrics = addressMetrics.putIfAbsent(serverAddress, created);
+        if (metrics == null) {
+          return created;
+        }
+      }
+      if (metrics.retain()) {
+        return metrics;
+      }
+      addressMetrics.remove(serverAddress, metrics);
+    }
+  }
+
   public void register(HttpServerMetricsImpl httpServerMetrics) {
     metricsSet.add(httpServerMetrics);
   }
 
   public void unregister(HttpServerMetricsImpl httpServerMetrics) {
-    metricsSet.remove(httpServerMetrics);
+    if (metricsSet.remove(httpServerMetrics)) {
+      httpServerMetrics.getAddressMetrics().release();
+    }
   }
 }
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl;
+
+import io.vertx.core.http.HttpServerResponse;
+
+/**
+ * HTTP server request monitoring class. Instances are associated with a request until the response ends or the request
+ * is reset.
+ * <p>
+ * Instances are provided by {@link HttpServerConnectionMetrics#requestBegin(HttpServerResponse)} and recycled for later
+ * requests or HTTP/2 streams of the same connection. To detect a callback for a request which is over, the response of
+ * the current request is kept as a stamp: a response end is only taken into account for the response of the request
+ * which began last. Vert.x only reports a reset for requests whose response has not ended, and {@link #end()} has no
+ * effect on a request which is done already, so every request is counted once.
+ *
+ * @author Thomas Segismont
+ */
+public class HttpServerRequestMetrics {
+  private final HttpServerConnectionMetrics connection;
+
+  private HttpServerResponse response;
+  private long start;
+  private boolean active;
+  private HttpServerRouteMetrics.Series route;
+  private long bytesReceived;
+
+  /**
+   * @param connection the connection which recycles this instance, {@code null} if it should not be recycled
+   */
+  HttpServerRequestMetrics(HttpServerConnectionMetrics connection) {
+    this.connection = connection;
+  }
+
+  /**
+   * @param response the response of the request
+   */
+  void begin(HttpServerResponse response) {
+    this.response = response;
+    start = System.nanoTime();
+    active = true;
+  }
+
+  /**
+   * @return true if this instance tracks the request of {@code response}, and the request is not done
+   */
+  boolean tracks(HttpServerResponse response) {
+    return active && this.response == response;
+  }
+
+  /**
+   * Associate the request with a route series, {@code null} if per-route metrics are disabled.
+   *
+   * @param route         the route series
+   * @param bytesReceived the request body size, if known
+   */
+  void route(HttpServerRouteMetrics.Series route, long bytesReceived) {
+    this.route = route;
+    this.bytesReceived = bytesReceived;
+  }
+
+  HttpServerRouteMetrics.Series route() {
+    return route;
+  }
+
+  long bytesReceived() {
+    return bytesReceived;
+  }
+
+  /**
+   * @return the number of nanoseconds elapsed since the request began
+   */
+  long elapsed() {
+    return System.nanoTime() - start;
+  }
+
+  /**
+   * Signal the request is done, and hand the instance back to its connection. Subsequent calls have no effect.
+   *
+   * @return false if the request was already done
+   */
+  boolean end() {
+    if (!active) {
+      return false;
+    }
+    active = false;
+    response = null;
+    route = null;
+    if (connection != null) {
+      connection.recycle(this);
+    }
+    return true;
+  }
+}
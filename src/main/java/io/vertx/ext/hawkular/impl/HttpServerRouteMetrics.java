@@ -0,0 +1,131 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl;
+
+import io.vertx.core.http.HttpMethod;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.concurrent.TimeUnit.*;
+
+/**
+ * Per method and route metrics of the HTTP servers listening on an address.
+ * <p>
+ * Series are created lazily, up to a maximum. Requests which do not match any route, or which would create a series
+ * beyond the maximum, are reported in the {@code other} bucket.
+ *
+ * @author Thomas Segismont
+ */
+class HttpServerRouteMetrics {
+  private static final HttpMethod[] METHODS = HttpMethod.values();
+
+  private final RouteMatcher routeMatcher;
+  private final int maxSeries;
+  private final AtomicReferenceArray<Series> series;
+  private final AtomicInteger seriesCount = new AtomicInteger();
+  private final Series other = new Series("other");
+
+  HttpServerRouteMetrics(RouteMatcher routeMatcher, int maxSeries) {
+    this.routeMatcher = routeMatcher;
+    this.maxSeries = maxSeries;
+    series = new AtomicReferenceArray<>(METHODS.length * routeMatcher.routeCount());
+  }
+
+  /**
+   * @return the series of the request
+   */
+  Series series(HttpMethod method, String path) {
+    int route = routeMatcher.match(path);
+    if (route == RouteMatcher.NO_ROUTE) {
+      return other;
+    }
+    int index = method.ordinal() * routeMatcher.routeCount() + route;
+    Series existing = series.get(index);
+    if (existing != null) {
+      return existing;
+    }
+    if (seriesCount.get() >= maxSeries) {
+      return other;
+    }
+    if (seriesCount.incrementAndGet() > maxSeries) {
+      seriesCount.decrementAndGet();
+      return other;
+    }
+    Series created = new Series(method.name() + "." + routeMatcher.name(route));
+    if (series.compareAndSet(index, null, created)) {
+      return created;
+    }
+    seriesCount.decrementAndGet();
+    return series.get(index);
+  }
+
+  List<DataPoint> collect(String baseName, long timestamp) {
+    List<DataPoint> res = new ArrayList<>();
+    for (int i = 0; i < series.length(); i++) {
+      Series s = series.get(i);
+      if (s != null) {
+        s.collect(baseName, timestamp, res);
+      }
+    }
+    other.collect(baseName, timestamp, res);
+    return res;
+  }
+
+  static class Series {
+    private final String name;
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder processingTime = new LongAdder();
+    private final StatusCodeCounters statusCodes = new StatusCodeCounters(false);
+    private final LongAdder bytesReceived = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+
+    Series(String name) {
+      this.name = name;
+    }
+
+    /**
+     * @param processingTime the request processing time, in nanoseconds
+     * @param statusCode     the response status code
+     * @param bytesReceived  the request body size, if known
+     * @param bytesSent      the number of bytes written in the response
+     */
+    void responseEnd(long processingTime, int statusCode, long bytesReceived, long bytesSent) {
+      requestCount.increment();
+      this.processingTime.add(processingTime);
+      statusCodes.record(statusCode);
+      this.bytesReceived.add(bytesReceived);
+      this.bytesSent.add(bytesSent);
+    }
+
+    void requestReset() {
+      requestCount.increment();
+    }
+
+    void collect(String baseName, long timestamp, List<DataPoint> res) {
+      String prefix = baseName + name + ".";
+      res.add(new CounterPoint(prefix + "requestCount", timestamp, requestCount.sum()));
+      res.add(new CounterPoint(prefix + "processingTime", timestamp, MILLISECONDS.convert(processingTime.sum(), NANOSECONDS)));
+      statusCodes.collect(prefix, timestamp, res);
+      res.add(new CounterPoint(prefix + "bytesReceived", timestamp, bytesReceived.sum()));
+      res.add(new CounterPoint(prefix + "bytesSent", timestamp, bytesSent.sum()));
+    }
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Distribution of the values recorded during a single collection interval.
+ * <p>
+ * Values are recorded in a {@link Recorder}: writers never block nor allocate. The collector takes a snapshot of the
+ * values recorded since the previous one, and the snapshot histogram is recycled, so
+ * {@link #collect(String, long, double[], String[])} must not be called concurrently.
+ * <p>
+ * Subclasses define the unit of recorded values and how they are reported.
+ *
+ * @author Thomas Segismont
+ */
+abstract class IntervalHistogram {
+  private final long highestTrackableValue;
+  private final Recorder recorder;
+  private Histogram intervalHistogram;
+
+  /**
+   * @param highestTrackableValue larger values are recorded as this value
+   */
+  IntervalHistogram(long highestTrackableValue) {
+    this.highestTrackableValue = highestTrackableValue;
+    recorder = new Recorder(1, highestTrackableValue, 2);
+  }
+
+  /**
+   * @param value the value, in the recording unit
+   */
+  void recordValue(long value) {
+    recorder.recordValue(Math.max(0, Math.min(value, highestTrackableValue)));
+  }
+
+  /**
+   * @return the reported value of {@code value}, in the reporting unit
+   */
+  abstract double report(long value);
+
+  /**
+   * Takes a snapshot of the values recorded since the previous call.
+   *
+   * @param baseName      the name of the metric, to which {@code .count}, {@code .min}, {@code .max} and
+   *                      {@code .pXX} are appended
+   * @param timestamp     the collection timestamp
+   * @param percentiles   the percentiles to report
+   * @param percentileIds the metric name suffixes of the percentiles, as computed by {@link #percentileId(double)}
+   * @return the interval count, min, max and percentiles gauges; only the count if nothing was recorded
+   */
+  List<DataPoint> collect(String baseName, long timestamp, double[] percentiles, String[] percentileIds) {
+    intervalHistogram = recorder.getIntervalHistogram(intervalHistogram);
+    long count = intervalHistogram.getTotalCount();
+    List<DataPoint> res = new ArrayList<>(3 + percentiles.length);
+    res.add(new GaugePoint(baseName + ".count", timestamp, count));
+    if (count > 0) {
+      res.add(new GaugePoint(baseName + ".min", timestamp, report(intervalHistogram.getMinValue())));
+      res.add(new GaugePoint(baseName + ".max", timestamp, report(intervalHistogram.getMaxValue())));
+      for (int i = 0; i < percentiles.length; i++) {
+        double value = report(intervalHistogram.getValueAtPercentile(percentiles[i]));
+        res.add(new GaugePoint(baseName + "." + percentileIds[i], timestamp, value));
+      }
+    }
+    return res;
+  }
+
+  /**
+   * @return the percentiles to report, an empty array if {@code percentiles} is {@code null}
+   */
+  static double[] percentiles(List<Double> percentiles) {
+    return percentiles != null ? percentiles.stream().mapToDouble(Double::doubleValue).toArray() : new double[0];
+  }
+
+  /**
+   * @return the metric name suffixes of the {@code percentiles}
+   */
+  static String[] percentileIds(double[] percentiles) {
+    return Arrays.stream(percentiles).mapToObj(IntervalHistogram::percentileId).toArray(String[]::new);
+  }
+
+  /**
+   * @return the metric name suffix of a percentile, e.g. {@code p99} for 99 and {@code p999} for 99.9
+   */
+  static String percentileId(double percentile) {
+    return "p" + BigDecimal.valueOf(percentile).stripTrailingZeros().toPlainString().replace(".", "");
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl;
+
+import static java.util.concurrent.TimeUnit.*;
+
+/**
+ * Latency distribution for a single collection interval, recorded in microseconds and reported in milliseconds.
+ *
+ * @author Thomas Segismont
+ */
+class LatencyHistogram extends IntervalHistogram {
+  private static final long HIGHEST_TRACKABLE_VALUE = MICROSECONDS.convert(1, HOURS);
+
+  LatencyHistogram() {
+    super(HIGHEST_TRACKABLE_VALUE);
+  }
+
+  /**
+   * @param latency the latency, in nanoseconds
+   */
+  void record(long latency) {
+    recordValue(MICROSECONDS.convert(latency, NANOSECONDS));
+  }
+
+  @Override
+  double report(long micros) {
+    return micros / 1000D;
+  }
+}
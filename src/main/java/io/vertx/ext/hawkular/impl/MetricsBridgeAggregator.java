@@ -0,0 +1,167 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Folds the gauge samples received by the metrics bridge into min, max, avg, count and last values per collection
+ * interval.
+ * <p>
+ * Accumulators are kept in an open addressing map, keyed by metric name, with primitive values in parallel arrays: no
+ * object is created per sample. Series which have not received any sample during a whole interval are removed.
+ * <p>
+ * Instances are not thread-safe, they must be confined to the collection context, on which the bridge consumer is
+ * registered.
+ *
+ * @author Thomas Segismont
+ */
+class MetricsBridgeAggregator implements MetricSupplier {
+  private static final int INITIAL_CAPACITY = 64;
+
+  private String[] names;
+  private double[] min;
+  private double[] max;
+  private double[] sum;
+  private double[] last;
+  private long[] count;
+  private int size;
+
+  MetricsBridgeAggregator() {
+    allocate(INITIAL_CAPACITY);
+  }
+
+  /**
+   * Record a gauge sample.
+   *
+   * @param name  the metric name
+   * @param value the sample value
+   */
+  void record(String name, double value) {
+    int mask = names.length - 1;
+    int idx = mix(name.hashCode()) & mask;
+    for (String current; (current = names[idx]) != null; idx = (idx + 1) & mask) {
+      if (current.equals(name)) {
+        if (count[idx]++ == 0) {
+          min[idx] = max[idx] = sum[idx] = value;
+        } else {
+          min[idx] = Math.min(min[idx], value);
+          max[idx] = Math.max(max[idx], value);
+          sum[idx] += value;
+        }
+        last[idx] = value;
+        return;
+      }
+    }
+    names[idx] = name;
+    min[idx] = max[idx] = sum[idx] = last[idx] = value;
+    count[idx] = 1;
+    if (++size > names.length / 2) {
+      rehash(names.length * 2, false);
+    }
+  }
+
+  @Override
+  public List<DataPoint> collect() {
+    long timestamp = System.currentTimeMillis();
+    List<DataPoint> res = new ArrayList<>(5 * size);
+    boolean idle = false;
+    for (int i = 0; i < names.length; i++) {
+      String name = names[i];
+      if (name == null) {
+        continue;
+      }
+      long n = count[i];
+      if (n == 0) {
+        idle = true;
+        continue;
+      }
+      res.add(new GaugePoint(name + ".min", timestamp, min[i]));
+      res.add(new GaugePoint(name + ".max", timestamp, max[i]));
+      res.add(new GaugePoint(name + ".avg", timestamp, sum[i] / n));
+      res.add(new GaugePoint(name + ".count", timestamp, n));
+      res.add(new GaugePoint(name + ".last", timestamp, last[i]));
+    }
+    if (idle) {
+      rehash(names.length, true);
+    } else {
+      Arrays.fill(count, 0);
+    }
+    return res;
+  }
+
+  /**
+   * @return the number of series tracked
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Move the active series to new arrays, dropping the idle ones.
+   *
+   * @param capacity the new capacity
+   * @param reset    whether accumulators should be reset instead of copied
+   */
+  private void rehash(int capacity, boolean reset) {
+    String[] oldNames = names;
+    double[] oldMin = min;
+    double[] oldMax = max;
+    double[] oldSum = sum;
+    double[] oldLast = last;
+    long[] oldCount = count;
+    allocate(capacity);
+    size = 0;
+    int mask = capacity - 1;
+    for (int i = 0; i < oldNames.length; i++) {
+      String name = oldNames[i];
+      if (name == null || oldCount[i] == 0) {
+        continue;
+      }
+      int idx = mix(name.hashCode()) & mask;
+      while (names[idx] != null) {
+        idx = (idx + 1) & mask;
+      }
+      names[idx] = name;
+      if (!reset) {
+        min[idx] = oldMin[i];
+        max[idx] = oldMax[i];
+        sum[idx] = oldSum[i];
+        last[idx] = oldLast[i];
+        count[idx] = oldCount[i];
+      }
+      size++;
+    }
+  }
+
+  private void allocate(int capacity) {
+    names = new String[capacity];
+    min = new double[capacity];
+    max = new double[capacity];
+    sum = new double[capacity];
+    last = new double[capacity];
+    count = new long[capacity];
+  }
+
+  private static int mix(int hash) {
+    // Spread the high bits, metric names often share long prefixes
+    int h = hash * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl;
+
+import io.vertx.core.buffer.Buffer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes data points in the Hawkular <em>mixed data</em> JSON format straight to a {@link Buffer}, without building
+ * an intermediate {@link io.vertx.core.json.JsonObject} tree.
+ * <p>
+ * Points are grouped by type then by metric id. Groups are iterated in the same order, and values are formatted the
+ * same way, as with a Jackson serialized {@link io.vertx.core.json.JsonObject}, so the output is byte-identical.
+ * <p>
+ * Instances are not thread-safe.
+ *
+ * @author Thomas Segismont
+ */
+class MixedDataEncoder {
+  private static final int MIN_SIZE_HINT = 256;
+
+  private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] GAUGES = "\"gauges\":[".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] COUNTERS = "\"counters\":[".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] AVAILABILITIES = "\"availabilities\":[".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] ID = "{\"id\":".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] DATA = ",\"data\":[".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] TIMESTAMP = "{\"timestamp\":".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] VALUE = ",\"value\":".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] MIN_LONG = Long.toString(Long.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+
+  private int sizeHint = MIN_SIZE_HINT;
+
+  /**
+   * @param dataPoints the points to encode
+   * @return a new buffer holding the mixed data JSON document
+   */
+  Buffer encode(List<DataPoint> dataPoints) {
+    Map<String, List<DataPoint>> gauges = null;
+    Map<String, List<DataPoint>> counters = null;
+    Map<String, List<DataPoint>> availabilities = null;
+    for (int i = 0, size = dataPoints.size(); i < size; i++) {
+      DataPoint dataPoint = dataPoints.get(i);
+      Map<String, List<DataPoint>> group;
+      if (dataPoint instanceof GaugePoint) {
+        group = gauges == null ? (gauges = new HashMap<>()) : gauges;
+      } else if (dataPoint instanceof CounterPoint) {
+        group = counters == null ? (counters = new HashMap<>()) : counters;
+      } else if (dataPoint instanceof AvailabilityPoint) {
+        group = availabilities == null ? (availabilities = new HashMap<>()) : availabilities;
+      } else {
+        continue;
+      }
+      group.computeIfAbsent(dataPoint.getName(), name -> new ArrayList<>()).add(dataPoint);
+    }
+
+    Buffer buffer = Buffer.buffer(sizeHint);
+    buffer.appendByte((byte) '{');
+    boolean first = appendMetrics(buffer, GAUGES, gauges, true);
+    first = appendMetrics(buffer, COUNTERS, counters, first);
+    appendMetrics(buffer, AVAILABILITIES, availabilities, first);
+    buffer.appendByte((byte) '}');
+
+    sizeHint = Math.max(MIN_SIZE_HINT, buffer.length());
+    return buffer;
+  }
+
+  private static boolean appendMetrics(Buffer buffer, byte[] type, Map<String, List<DataPoint>> metrics, boolean first) {
+    if (metrics == null) {
+      return first;
+    }
+    if (!first) {
+      buffer.appendByte((byte) ',');
+    }
+    buffer.appendBytes(type);
+    boolean firstMetric = true;
+    for (Map.Entry<String, List<DataPoint>> metric : metrics.entrySet()) {
+      if (!firstMetric) {
+        buffer.appendByte((byte) ',');
+      }
+      firstMetric = false;
+      buffer.appendBytes(ID);
+      appendString(buffer, metric.getKey());
+      buffer.appendBytes(DATA);
+      List<DataPoint> points = metric.getValue();
+      for (int i = 0, size = points.size(); i < size; i++) {
+        if (i > 0) {
+          buffer.appendByte((byte) ',');
+        }
+        DataPoint dataPoint = points.get(i);
+        buffer.appendBytes(TIMESTAMP);
+        appendLong(buffer, dataPoint.getTimestamp());
+        buffer.appendBytes(VALUE);
+        appendValue(buffer, dataPoint);
+        buffer.appendByte((byte) '}');
+      }
+      buffer.appendByte((byte) ']').appendByte((byte) '}');
+    }
+    buffer.appendByte((byte) ']');
+    return false;
+  }
+
+  private static void appendValue(Buffer buffer, DataPoint dataPoint) {
+    if (dataPoint instanceof GaugePoint) {
+      double value = ((GaugePoint) dataPoint).getValue();
+      if (Double.isNaN(value) || Double.isInfinite(value)) {
+        // Jackson quotes non numeric numbers by default
+        buffer.appendByte((byte) '"');
+        appendAscii(buffer, Double.toString(value));
+        buffer.appendByte((byte) '"');
+      } else {
+        appendAscii(buffer, Double.toString(value));
+      }
+    } else if (dataPoint instanceof CounterPoint) {
+      appendLong(buffer, ((CounterPoint) dataPoint).getValue());
+    } else {
+      String value = ((AvailabilityPoint) dataPoint).getValue();
+      if (value == null) {
+        appendAscii(buffer, "null");
+      } else {
+        appendString(buffer, value);
+      }
+    }
+  }
+
+  private static void appendLong(Buffer buffer, long value) {
+    if (value == Long.MIN_VALUE) {
+      buffer.appendBytes(MIN_LONG);
+      return;
+    }
+    if (value < 0) {
+      buffer.appendByte((byte) '-');
+      value = -value;
+    }
+    long divisor = 1;
+    while (value / divisor >= 10) {
+      divisor *= 10;
+    }
+    for (; divisor > 0; divisor /= 10) {
+      buffer.appendByte((byte) ('0' + (value / divisor) % 10));
+    }
+  }
+
+  private static void appendAscii(Buffer buffer, String value) {
+    for (int i = 0, length = value.length(); i < length; i++) {
+      buffer.appendByte((byte) value.charAt(i));
+    }
+  }
+
+  /**
+   * Appends a JSON string, escaped like Jackson does by default: quotes, backslashes and control characters only.
+   * Non ASCII characters are UTF-8 encoded.
+   */
+  private static void appendString(Buffer buffer, String value) {
+    buffer.appendByte((byte) '"');
+    int length = value.length();
+    int i = 0;
+    while (i < length) {
+      char c = value.charAt(i);
+      if (c >= 0x80) {
+        int end = i + 1;
+        while (end < length && value.charAt(end) >= 0x80) {
+          end++;
+        }
+        buffer.appendString(value.substring(i, end));
+        i = end;
+        continue;
+      }
+      if (c == '"' || c == '\\') {
+        buffer.appendByte((byte) '\\').appendByte((byte) c);
+      } else if (c < 0x20) {
+        appendControlChar(buffer, c);
+      } else {
+        buffer.appendByte((byte) c);
+      }
+      i++;
+    }
+    buffer.appendByte((byte) '"');
+  }
+
+  private static void appendControlChar(Buffer buffer, char c) {
+    buffer.appendByte((byte) '\\');
+    switch (c) {
+      case '\b':
+        buffer.appendByte((byte) 'b');
+        break;
+      case '\t':
+        buffer.appendByte((byte) 't');
+        break;
+      case '\n':
+        buffer.appendByte((byte) 'n');
+        break;
+      case '\f':
+        buffer.appendByte((byte) 'f');
+        break;
+      case '\r':
+        buffer.appendByte((byte) 'r');
+        break;
+      default:
+        buffer.appendByte((byte) 'u').appendByte((byte) '0').appendByte((byte) '0')
+          .appendByte(HEX[c >> 4]).appendByte(HEX[c & 0xF]);
+    }
+  }
+}
@@ -16,12 +16,12 @@
 
 package io.vertx.ext.hawkular.impl;
 
+import io.vertx.ext.hawkular.VertxHawkularOptions;
+
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.stream.Stream;
-
-import static java.util.stream.Collectors.*;
 
 /**
  * Aggregates values from {@link PoolMetricsImpl} instances and exposes metrics for collection.
@@ -31,32 +31,39 @@ import static java.util.stream.Collectors.*;
 public class NamedPoolMetricsSupplier implements MetricSupplier {
   private final Set<PoolMetricsImpl> metricsSet = new CopyOnWriteArraySet<>();
   private final String baseName;
+  private final double[] latencyPercentiles;
+  private final String[] latencyPercentileIds;
 
-  public NamedPoolMetricsSupplier(String prefix) {
+  public NamedPoolMetricsSupplier(String prefix, VertxHawkularOptions options) {
     baseName = prefix + (prefix.isEmpty() ? "" : ".") + "vertx.pool.";
+    latencyPercentiles = IntervalHistogram.percentiles(options.getLatencyPercentiles());
+    latencyPercentileIds = IntervalHistogram.percentileIds(latencyPercentiles);
   }
 
   @Override
   public List<DataPoint> collect() {
     long timestamp = System.currentTimeMillis();
-    return metricsSet.stream()
-      .flatMap(poolMetrics -> {
-        String base = baseName + poolMetrics.getPoolType() + "." + poolMetrics.getPoolName() + ".";
-        Stream.Builder<DataPoint> dataPoints = Stream.<DataPoint>builder()
-          .add(new CounterPoint(base + "delay", timestamp, poolMetrics.getDelay()))
-          .add(new GaugePoint(base + "queued", timestamp, poolMetrics.getQueued()))
-          .add(new CounterPoint(base + "queuedCount", timestamp, poolMetrics.getQueuedCount()))
-          .add(new CounterPoint(base + "usage", timestamp, poolMetrics.getUsage()))
-          .add(new GaugePoint(base + "inUse", timestamp, poolMetrics.getInUse()))
-          .add(new CounterPoint(base + "completed", timestamp, poolMetrics.getCompleted()));
-        if (poolMetrics.getMaxPoolSize() > 0) {
-          dataPoints
-            .add(new GaugePoint(base + "maxPoolSize", timestamp, poolMetrics.getMaxPoolSize()))
-            .add(new GaugePoint(base + "poolRatio", timestamp, poolMetrics.getUsageRatio()));
-        }
-        return dataPoints.build();
-      })
-      .collect(toList());
+    List<DataPoint> res = new ArrayList<>();
+    for (PoolMetricsImpl poolMetrics : metricsSet) {
+      String base = baseName + poolMetrics.getPoolType() + "." + poolMetrics.getPoolName() + ".";
+      long inUseMax = poolMetrics.getAndResetInUseMax();
+      res.add(new CounterPoint(base + "delay", timestamp, poolMetrics.getDelay()));
+      res.add(new GaugePoint(base + "queued", timestamp, poolMetrics.getQueued()));
+      res.add(new GaugePoint(base + "queuedMax", timestamp, poolMetrics.getAndResetQueuedMax()));
+      res.add(new CounterPoint(base + "queuedCount", timestamp, poolMetrics.getQueuedCount()));
+      res.add(new CounterPoint(base + "usage", timestamp, poolMetrics.getUsage()));
+      res.add(new GaugePoint(base + "inUse", timestamp, poolMetrics.getInUse()));
+      res.add(new GaugePoint(base + "inUseMax", timestamp, inUseMax));
+      res.add(new CounterPoint(base + "completed", timestamp, poolMetrics.getCompleted()));
+      res.addAll(poolMetrics.getDelayHistogram().collect(base + "delayTime", timestamp, latencyPercentiles, latencyPercentileIds));
+      res.addAll(poolMetrics.getUsageHistogram().collect(base + "usageTime", timestamp, latencyPercentiles, latencyPercentileIds));
+      if (poolMetrics.getMaxPoolSize() > 0) {
+        res.add(new GaugePoint(base + "maxPoolSize", timestamp, poolMetrics.getMaxPoolSize()));
+        res.add(new GaugePoint(base + "poolRatio", timestamp, poolMetrics.getUsageRatio()));
+        res.add(new GaugePoint(base + "poolRatioMax", timestamp, ((double) inUseMax) / poolMetrics.getMaxPoolSize()));
+      }
+    }
+    return res;
   }
 
   public void register(PoolMetricsImpl poolMetrics) {
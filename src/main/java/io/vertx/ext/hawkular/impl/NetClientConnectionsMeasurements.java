@@ -16,35 +16,75 @@
 
 package io.vertx.ext.hawkular.impl;
 
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Holds measurements for all connections of a {@link io.vertx.core.net.NetClient} to a remote
  * {@link io.vertx.core.net.SocketAddress}.
+ * <p>
+ * Once the remote address has been idle for long enough, the instance may be evicted: afterwards, no connection can be
+ * counted anymore and a new instance must be created.
  *
  * @author Thomas Segismont
  */
 public class NetClientConnectionsMeasurements {
+  private static final int EVICTED = -1;
+
   // Connection info
-  private final LongAdder connections = new LongAdder();
+  private final AtomicInteger connections = new AtomicInteger();
+  private final LongAdder openedConnections = new LongAdder();
   // Bytes info
   private final LongAdder bytesReceived = new LongAdder();
   private final LongAdder bytesSent = new LongAdder();
   // Other
   private final LongAdder errorCount = new LongAdder();
 
+  // Idle state, only accessed by the collector
+  private long lastOpenedConnections;
+  private long idleSince = System.nanoTime();
+
   /**
-   * Increment the number of opened connections.
+   * Increment the number of opened connections, unless this instance has been evicted.
+   *
+   * @return true if the connection was counted
    */
-  public void incrementConnections() {
-    connections.increment();
+  public boolean incrementConnections() {
+    for (; ; ) {
+      int count = connections.get();
+      if (count == EVICTED) {
+        return false;
+      }
+      if (connections.compareAndSet(count, count + 1)) {
+        openedConnections.increment();
+        return true;
+      }
+    }
   }
 
   /**
    * Decrement the number of opened connections.
    */
   public void decrementConnections() {
-    connections.decrement();
+    connections.decrementAndGet();
+  }
+
+  /**
+   * Evicts this instance if no connection has been opened and none is left for at least {@code timeout}. Must only be
+   * called by the collector.
+   *
+   * @param now     the current time, in nanoseconds
+   * @param timeout the idle timeout, in nanoseconds
+   * @return true if this instance is now evicted
+   */
+  boolean evictIfIdle(long now, long timeout) {
+    long opened = openedConnections.sum();
+    if (connections.get() != 0 || opened != lastOpenedConnections) {
+      lastOpenedConnections = opened;
+      idleSince = now;
+      return false;
+    }
+    return now - idleSince >= timeout && connections.compareAndSet(0, EVICTED);
   }
 
   /**
@@ -72,7 +112,7 @@ public class NetClientConnectionsMeasurements {
    * @return a snaphsot of the current measurements
    */
   public Snapshot getSnapshot() {
-    return new Snapshot(connections.sum(), bytesReceived.sum(), bytesSent.sum(), errorCount.sum());
+    return new Snapshot(Math.max(0, connections.get()), bytesReceived.sum(), bytesSent.sum(), errorCount.sum());
   }
 
   /**
@@ -119,6 +159,13 @@ public class NetClientConnectionsMeasurements {
       return errorCount;
     }
 
+    /**
+     * @return a copy of this snapshot, with the number of opened connections set to zero
+     */
+    Snapshot countersOnly() {
+      return new Snapshot(0, bytesReceived, bytesSent, errorCount);
+    }
+
     public static Snapshot merge(Snapshot s1, Snapshot s2) {
       return new Snapshot(s1.connections + s2.connections, s1.bytesReceived + s2.bytesReceived,
         s1.bytesSent + s2.bytesSent, s1.errorCount + s2.errorCount);
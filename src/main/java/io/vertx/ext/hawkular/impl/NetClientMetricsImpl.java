@@ -17,21 +17,21 @@
 package io.vertx.ext.hawkular.impl;
 
 import io.vertx.core.net.SocketAddress;
-import io.vertx.core.net.impl.SocketAddressImpl;
 import io.vertx.core.spi.metrics.TCPMetrics;
 import io.vertx.ext.hawkular.impl.NetClientConnectionsMeasurements.Snapshot;
 
+import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-
-import static java.util.stream.Collectors.*;
 
 /**
+ * The socket metric is the {@link NetClientConnectionsMeasurements} of the remote address, so that I/O events are
+ * recorded without any lookup.
+ *
  * @author Thomas Segismont
  */
-public class NetClientMetricsImpl implements TCPMetrics<SocketAddress> {
-  private final ConcurrentMap<SocketAddress, NetClientConnectionsMeasurements> connectionsMeasurements = new ConcurrentHashMap<>();
+public class NetClientMetricsImpl implements TCPMetrics<NetClientConnectionsMeasurements> {
+  private final RemoteAddressRegistry<NetClientConnectionsMeasurements> connectionsMeasurements =
+    new RemoteAddressRegistry<>(address -> new NetClientConnectionsMeasurements());
   private final NetClientMetricsSupplier netClientMetricsSupplier;
 
   public NetClientMetricsImpl(NetClientMetricsSupplier netClientMetricsSupplier) {
@@ -40,49 +40,67 @@ public class NetClientMetricsImpl implements TCPMetrics<SocketAddress> {
   }
 
   @Override
-  public SocketAddress connected(SocketAddress remoteAddress, String remoteName) {
-    SocketAddress key = new SocketAddressImpl(remoteAddress.port(), remoteName);
-    connectionsMeasurements.computeIfAbsent(key, address -> new NetClientConnectionsMeasurements()).incrementConnections();
-    return key;
+  public NetClientConnectionsMeasurements connected(SocketAddress remoteAddress, String remoteName) {
+    for (; ; ) {
+      NetClientConnectionsMeasurements measurements = connectionsMeasurements.get(remoteName, remoteAddress.port());
+      if (measurements.incrementConnections()) {
+        return measurements;
+      }
+      // Evicted concurrently: remove it now, instead of spinning until the collector does
+      connectionsMeasurements.remove(remoteName, remoteAddress.port(), measurements);
+    }
   }
 
   @Override
-  public void disconnected(SocketAddress key, SocketAddress remoteAddress) {
-    NetClientConnectionsMeasurements measurements = connectionsMeasurements.get(key);
-    if (measurements != null) {
-      measurements.decrementConnections();
-    }
+  public void disconnected(NetClientConnectionsMeasurements measurements, SocketAddress remoteAddress) {
+    measurements.decrementConnections();
   }
 
   @Override
-  public void bytesRead(SocketAddress key, SocketAddress remoteAddress, long numberOfBytes) {
-    NetClientConnectionsMeasurements measurements = connectionsMeasurements.get(key);
-    if (measurements != null) {
-      measurements.addBytesReceived(numberOfBytes);
-    }
+  public void bytesRead(NetClientConnectionsMeasurements measurements, SocketAddress remoteAddress, long numberOfBytes) {
+    measurements.addBytesReceived(numberOfBytes);
   }
 
   @Override
-  public void bytesWritten(SocketAddress key, SocketAddress remoteAddress, long numberOfBytes) {
-    NetClientConnectionsMeasurements measurements = connectionsMeasurements.get(key);
-    if (measurements != null) {
-      measurements.addBytesSent(numberOfBytes);
-    }
+  public void bytesWritten(NetClientConnectionsMeasurements measurements, SocketAddress remoteAddress, long numberOfBytes) {
+    measurements.addBytesSent(numberOfBytes);
   }
 
   @Override
-  public void exceptionOccurred(SocketAddress key, SocketAddress remoteAddress, Throwable t) {
-    NetClientConnectionsMeasurements measurements = connectionsMeasurements.get(key);
-    if (measurements != null) {
-      measurements.incrementErrorCount();
-    }
+  public void exceptionOccurred(NetClientConnectionsMeasurements measurements, SocketAddress remoteAddress, Throwable t) {
+    measurements.incrementErrorCount();
   }
 
   /**
-   * @return a snapshot of measurements for each remote address
+   * Measurements of remote addresses idle for longer than the timeout are evicted, and handed over to the supplier
+   * with their final values. Must only be called by the collector.
+   *
+   * @return a snapshot of measurements for each remote address which is not evicted
    */
   public Map<SocketAddress, Snapshot> getMeasurementsSnapshot() {
-    return connectionsMeasurements.entrySet().stream().collect(toMap(Map.Entry::getKey, e -> e.getValue().getSnapshot()));
+    long now = System.nanoTime();
+    long idleTimeout = netClientMetricsSupplier.getRemoteIdleTimeout();
+    Map<SocketAddress, Snapshot> res = new HashMap<>();
+    connectionsMeasurements.forEach((address, measurements) -> {
+      if (idleTimeout > 0 && measurements.evictIfIdle(now, idleTimeout)) {
+        connectionsMeasurements.remove(address, measurements);
+        netClientMetricsSupplier.evicted(address, measurements);
+      } else {
+        res.put(address, measurements.getSnapshot());
+      }
+    });
+    return res;
+  }
+
+  /**
+   * Must only be called by the collector, once this instance is closed.
+   *
+   * @return the final snapshot of measurements for each remote address
+   */
+  Map<SocketAddress, Snapshot> getFinalSnapshot() {
+    Map<SocketAddress, Snapshot> res = new HashMap<>();
+    connectionsMeasurements.forEach((address, measurements) -> res.put(address, measurements.getSnapshot()));
+    return res;
   }
 
   @Override
@@ -17,14 +17,20 @@
 package io.vertx.ext.hawkular.impl;
 
 import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.hawkular.VertxHawkularOptions;
 import io.vertx.ext.hawkular.impl.NetClientConnectionsMeasurements.Snapshot;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.concurrent.TimeUnit.*;
 
 /**
  * Aggregates values from {@link NetClientMetricsImpl} instances and exposes metrics for collection.
@@ -34,15 +40,26 @@ import java.util.concurrent.CopyOnWriteArraySet;
 public class NetClientMetricsSupplier implements MetricSupplier {
   private final String baseName;
   private final Set<NetClientMetricsImpl> metricsSet = new CopyOnWriteArraySet<>();
+  private final Queue<NetClientMetricsImpl> closedMetrics = new ConcurrentLinkedQueue<>();
+  private final LongAdder evictions = new LongAdder();
+  private final long remoteIdleTimeout;
+  private final RemoteAddressTotals<Snapshot> totals;
 
-  public NetClientMetricsSupplier(String prefix) {
+  public NetClientMetricsSupplier(String prefix, VertxHawkularOptions options) {
     baseName = prefix + (prefix.isEmpty() ? "" : ".") + "vertx.net.client.";
+    remoteIdleTimeout = NANOSECONDS.convert(options.getRemoteIdleTimeout(), SECONDS);
+    totals = new RemoteAddressTotals<>(Snapshot::merge, Snapshot::countersOnly, remoteIdleTimeout);
   }
 
   @Override
   public List<DataPoint> collect() {
     long timestamp = System.currentTimeMillis();
 
+    // Before the live values, so that a client closed during the collection is not counted twice
+    for (NetClientMetricsImpl closed; (closed = closedMetrics.poll()) != null; ) {
+      closed.getFinalSnapshot().forEach(totals::add);
+    }
+
     Map<SocketAddress, Snapshot> values = new HashMap<>();
 
     for (NetClientMetricsImpl netClientMetrics : metricsSet) {
@@ -50,6 +67,7 @@ public class NetClientMetricsSupplier implements MetricSupplier {
         values.merge(address, snapshot, Snapshot::merge);
       });
     }
+    totals.addTo(values, System.nanoTime());
 
     List<DataPoint> res = new ArrayList<>();
 
@@ -60,14 +78,34 @@ public class NetClientMetricsSupplier implements MetricSupplier {
       res.add(new CounterPoint(baseName + addressId + ".bytesSent", timestamp, snapshot.getBytesSent()));
       res.add(new CounterPoint(baseName + addressId + ".errorCount", timestamp, snapshot.getErrorCount()));
     });
+    res.add(new CounterPoint(baseName + "evictions", timestamp, evictions.sum()));
     return res;
   }
 
+  /**
+   * @return the time after which the measurements of an idle remote address are evicted, in nanoseconds; {@code 0} if
+   * they should be kept forever
+   */
+  long getRemoteIdleTimeout() {
+    return remoteIdleTimeout;
+  }
+
+  /**
+   * Signal the measurements of an idle remote address have been evicted. Their final values are kept in the totals of
+   * the address.
+   */
+  void evicted(SocketAddress address, NetClientConnectionsMeasurements measurements) {
+    evictions.increment();
+    totals.add(address, measurements.getSnapshot());
+  }
+
   public void register(NetClientMetricsImpl netClientMetrics) {
     metricsSet.add(netClientMetrics);
   }
 
   public void unregister(NetClientMetricsImpl netClientMetrics) {
-    metricsSet.remove(netClientMetrics);
+    if (metricsSet.remove(netClientMetrics)) {
+      closedMetrics.add(netClientMetrics);
+    }
   }
 }
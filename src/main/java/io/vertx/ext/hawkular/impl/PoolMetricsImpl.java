@@ -18,25 +18,39 @@ package io.vertx.ext.hawkular.impl;
 
 import io.vertx.core.spi.metrics.PoolMetrics;
 
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.LongAdder;
 
 import static java.util.concurrent.TimeUnit.*;
 
 /**
+ * Besides cumulated times, queue delay and usage time distributions are recorded in {@link LatencyHistogram}s, and
+ * the peak number of queued and in use elements is tracked since the last collection.
+ * <p>
+ * Task metrics are mutable holders, recycled once the task ends or is rejected. So recording does not allocate, as
+ * long as no more than {@code 64} tasks are pending at once.
+ *
  * @author Thomas Segismont
  */
-public class PoolMetricsImpl implements PoolMetrics<Long> {
+public class PoolMetricsImpl implements PoolMetrics<PoolMetricsImpl.Task> {
+  private static final int MAX_RECYCLED = 64;
+
   private final NamedPoolMetricsSupplier namedPoolMetricsSupplier;
   private final String poolType;
   private final String poolName;
   private final int maxPoolSize;
 
   private final LongAdder delay = new LongAdder();
-  private final LongAdder queued = new LongAdder();
+  private final AtomicLong queued = new AtomicLong();
+  private final AtomicLong queuedMax = new AtomicLong();
   private final LongAdder queuedCount = new LongAdder();
   private final LongAdder usage = new LongAdder();
-  private final LongAdder inUse = new LongAdder();
+  private final AtomicLong inUse = new AtomicLong();
+  private final AtomicLong inUseMax = new AtomicLong();
   private final LongAdder completed = new LongAdder();
+  private final LatencyHistogram delayHistogram = new LatencyHistogram();
+  private final LatencyHistogram usageHistogram = new LatencyHistogram();
+  private final Recycler<Task> tasks = new Recycler<>(MAX_RECYCLED);
 
   public PoolMetricsImpl(NamedPoolMetricsSupplier namedPoolMetricsSupplier, String poolType, String poolName, int maxPoolSize) {
     this.namedPoolMetricsSupplier = namedPoolMetricsSupplier;
@@ -47,31 +61,51 @@ public class PoolMetricsImpl implements PoolMetrics<Long> {
   }
 
   @Override
-  public Long submitted() {
-    queued.increment();
+  public Task submitted() {
+    updateMax(queuedMax, queued.incrementAndGet());
     queuedCount.increment();
-    return System.nanoTime();
+    Task task = tasks.poll();
+    if (task == null) {
+      task = new Task();
+    }
+    task.submitted = System.nanoTime();
+    return task;
   }
 
   @Override
-  public void rejected(Long submitted) {
-    queued.decrement();
+  public void rejected(Task task) {
+    queued.decrementAndGet();
+    tasks.recycle(task);
   }
 
   @Override
-  public Long begin(Long submitted) {
+  public Task begin(Task task) {
     long time = System.nanoTime();
-    delay.add(time - submitted);
-    queued.decrement();
-    inUse.increment();
-    return time;
+    long waited = time - task.submitted;
+    delay.add(waited);
+    delayHistogram.record(waited);
+    queued.decrementAndGet();
+    updateMax(inUseMax, inUse.incrementAndGet());
+    task.begun = time;
+    return task;
   }
 
   @Override
-  public void end(Long begin, boolean succeeded) {
-    usage.add(System.nanoTime() - begin);
+  public void end(Task task, boolean succeeded) {
+    long used = System.nanoTime() - task.begun;
+    usage.add(used);
+    usageHistogram.record(used);
     completed.increment();
-    inUse.decrement();
+    inUse.decrementAndGet();
+    tasks.recycle(task);
+  }
+
+  private static void updateMax(AtomicLong max, long value) {
+    for (long current = max.get(); value > current; current = max.get()) {
+      if (max.compareAndSet(current, value)) {
+        return;
+      }
+    }
   }
 
   /**
@@ -106,7 +140,16 @@ public class PoolMetricsImpl implements PoolMetrics<Long> {
    * @return current number of elements in the queue
    */
   public long getQueued() {
-    return queued.sum();
+    return queued.get();
+  }
+
+  /**
+   * Resets the high-watermark to the current number of queued elements.
+   *
+   * @return the maximum number of elements in the queue since the previous call
+   */
+  public long getAndResetQueuedMax() {
+    return queuedMax.getAndSet(queued.get());
   }
 
   /**
@@ -127,7 +170,16 @@ public class PoolMetricsImpl implements PoolMetrics<Long> {
    * @return current number of resources used
    */
   public long getInUse() {
-    return inUse.sum();
+    return inUse.get();
+  }
+
+  /**
+   * Resets the high-watermark to the current number of resources used.
+   *
+   * @return the maximum number of resources used since the previous call
+   */
+  public long getAndResetInUseMax() {
+    return inUseMax.getAndSet(inUse.get());
   }
 
   /**
@@ -144,6 +196,31 @@ public class PoolMetricsImpl implements PoolMetrics<Long> {
     return maxPoolSize > 0 ? ((double) getInUse()) / maxPoolSize : -1;
   }
 
+  /**
+   * @return the distribution of queue delays since the last collection
+   */
+  LatencyHistogram getDelayHistogram() {
+    return delayHistogram;
+  }
+
+  /**
+   * @return the distribution of usage times since the last collection
+   */
+  LatencyHistogram getUsageHistogram() {
+    return usageHistogram;
+  }
+
+  /**
+   * The metric of a task submitted to the pool.
+   */
+  public static final class Task {
+    private long submitted;
+    private long begun;
+
+    private Task() {
+    }
+  }
+
   @Override
   public boolean isEnabled() {
     return true;
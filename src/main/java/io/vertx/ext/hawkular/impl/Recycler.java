@@ -0,0 +1,66 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+
+package io.vertx.ext.hawkular.impl;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A small lock-free pool of reusable objects, which may be borrowed and returned on different threads.
+ * <p>
+ * Instances are kept in a fixed array of slots which are exchanged atomically, so neither borrowing nor returning an
+ * instance allocates or takes a lock. When all slots are empty, callers create a new instance; when all are taken,
+ * returned instances are left to the garbage collector.
+ *
+ * @author Thomas Segismont
+ */
+class Recycler<T> {
+  private final AtomicReferenceArray<T> slots;
+
+  /**
+   * @param capacity the maximum number of instances kept for reuse
+   */
+  Recycler(int capacity) {
+    slots = new AtomicReferenceArray<>(capacity);
+  }
+
+  /**
+   * @return a recycled instance, or {@code null} if none is available
+   */
+  T poll() {
+    for (int i = 0; i < slots.length(); i++) {
+      if (slots.get(i) != null) {
+        T instance = slots.getAndSet(i, null);
+        if (instance != null) {
+          return instance;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Makes an instance available for reuse. It must not be used by the caller afterwards.
+   */
+  void recycle(T instance) {
+    for (int i = 0; i < slots.length(); i++) {
+      if (slots.get(i) == null && slots.compareAndSet(i, null, instance)) {
+        return;
+      }
+    }
+  }
+}
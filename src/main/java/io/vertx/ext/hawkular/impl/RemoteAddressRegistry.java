@@ -0,0 +1,170 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl;
+
+import io.vertx.core.net.SocketAddress;
+import io.vertx.core.net.impl.SocketAddressImpl;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Measurements of client connections, per remote address.
+ * <p>
+ * Measurements are looked up by host name and port, so that no {@link SocketAddress} key needs to be created when a
+ * connection is opened. Callers are expected to use the measurements object as the connection metric, so that the
+ * registry is only involved when a connection is opened, or when idle measurements are removed.
+ *
+ * @author Thomas Segismont
+ */
+class RemoteAddressRegistry<M> {
+  private final ConcurrentMap<String, Host<M>> hosts = new ConcurrentHashMap<>();
+  private final Function<SocketAddress, M> factory;
+
+  /**
+   * @param factory creates the measurements of a remote address, when the first connection to it is opened
+   */
+  RemoteAddressRegistry(Function<SocketAddress, M> factory) {
+    this.factory = factory;
+  }
+
+  /**
+   * @return the measurements of the remote address, created if needed
+   */
+  M get(String host, int port) {
+    for (; ; ) {
+      Host<M> h = hosts.get(host);
+      if (h == null) {
+        h = hosts.computeIfAbsent(host, Host::new);
+      }
+      M measurements = h.get(port, factory);
+      if (measurements != null) {
+        return measurements;
+      }
+      // The host has just been removed, retry with a new one
+    }
+  }
+
+  /**
+   * Removes the measurements of a remote address, if they have not been replaced already.
+   */
+  void remove(SocketAddress address, M measurements) {
+    remove(address.host(), address.port(), measurements);
+  }
+
+  /**
+   * Removes the measurements of a remote address, if they have not been replaced already.
+   */
+  void remove(String host, int port, M measurements) {
+    Host<M> h = hosts.get(host);
+    if (h != null && h.remove(port, measurements)) {
+      hosts.remove(host, h);
+    }
+  }
+
+  /**
+   * Performs the given action for each remote address.
+   */
+  void forEach(BiConsumer<SocketAddress, M> action) {
+    hosts.values().forEach(h -> {
+      for (Port<M> entry : h.ports) {
+        action.accept(entry.address, entry.measurements);
+      }
+    });
+  }
+
+  private static class Host<M> {
+    final String name;
+    // Hosts are usually connected on a few ports only, a linear scan is cheaper than hashing
+    volatile Port<M>[] ports = newPorts(0);
+    // Guarded by this
+    boolean removed;
+
+    Host(String name) {
+      this.name = name;
+    }
+
+    /**
+     * @return the measurements, or {@code null} if this host has been removed
+     */
+    M get(int port, Function<SocketAddress, M> factory) {
+      M measurements = find(port);
+      if (measurements != null) {
+        return measurements;
+      }
+      synchronized (this) {
+        if (removed) {
+          return null;
+        }
+        measurements = find(port);
+        if (measurements == null) {
+          SocketAddress address = new SocketAddressImpl(port, name);
+          measurements = factory.apply(address);
+          Port<M>[] copy = Arrays.copyOf(ports, ports.length + 1);
+          copy[ports.length] = new Port<>(address, measurements);
+          ports = copy;
+        }
+        return measurements;
+      }
+    }
+
+    private M find(int port) {
+      for (Port<M> entry : ports) {
+        if (entry.address.port() == port) {
+          return entry.measurements;
+        }
+      }
+      return null;
+    }
+
+    /**
+     * @return true if the host has no port left, in which case it is marked as removed
+     */
+    synchronized boolean remove(int port, M measurements) {
+      Port<M>[] current = ports;
+      for (int i = 0; i < current.length; i++) {
+        if (current[i].address.port() == port && current[i].measurements == measurements) {
+          Port<M>[] copy = newPorts(current.length - 1);
+          System.arraycopy(current, 0, copy, 0, i);
+          System.arraycopy(current, i + 1, copy, i, current.length - i - 1);
+          ports = copy;
+          break;
+        }
+      }
+      removed = ports.length == 0;
+      return removed;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <M> Port<M>[] newPorts(int length) {
+      return (Port<M>[]) new Port<?>[length];
+    }
+  }
+
+  private static class Port<M> {
+    final SocketAddress address;
+    final M measurements;
+
+    Port(SocketAddress address, M measurements) {
+      this.address = address;
+      this.measurements = measurements;
+    }
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+
+package io.vertx.ext.hawkular.impl;
+
+import io.vertx.core.net.SocketAddress;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.BinaryOperator;
+import java.util.function.UnaryOperator;
+
+/**
+ * Counter totals of client measurements which are gone, per remote address.
+ * <p>
+ * Several clients may connect to the same remote address, and each of them may evict its measurements or be closed
+ * independently. The final values of such measurements are kept here, and added to the live values of the address, so
+ * that its counters never decrease. Once no client holds the address, the totals are reported one last time, then kept
+ * unreported for the retention time: a client connecting again in the meantime resumes the counters where they were.
+ * <p>
+ * Instances are not thread-safe, they must only be used by the collector.
+ *
+ * @param <S> the snapshot type
+ * @author Thomas Segismont
+ */
+class RemoteAddressTotals<S> {
+  private final Map<SocketAddress, Total<S>> totals = new HashMap<>();
+  private final BinaryOperator<S> merge;
+  private final UnaryOperator<S> countersOnly;
+  private final long retention;
+
+  /**
+   * @param merge        sums two snapshots
+   * @param countersOnly copies a snapshot, with gauges set to zero
+   * @param retention    the time totals are kept once no client holds the address, in nanoseconds; {@code 0} to keep
+   *                     them forever
+   */
+  RemoteAddressTotals(BinaryOperator<S> merge, UnaryOperator<S> countersOnly, long retention) {
+    this.merge = merge;
+    this.countersOnly = countersOnly;
+    this.retention = retention;
+  }
+
+  /**
+   * Adds the final values of measurements which are gone, evicted or belonging to a closed client.
+   */
+  void add(SocketAddress address, S snapshot) {
+    S counters = countersOnly.apply(snapshot);
+    Total<S> total = totals.get(address);
+    if (total == null) {
+      totals.put(address, new Total<>(counters));
+    } else {
+      total.snapshot = merge.apply(total.snapshot, counters);
+      total.reported = false;
+    }
+  }
+
+  /**
+   * Adds the totals to the live values, which hold an entry for each address still held by a client. Totals of the
+   * other addresses are only added if they changed since they were last reported.
+   *
+   * @param values the live values, modified in place
+   * @param now    the current time, in nanoseconds
+   */
+  void addTo(Map<SocketAddress, S> values, long now) {
+    for (Iterator<Map.Entry<SocketAddress, Total<S>>> iterator = totals.entrySet().iterator(); iterator.hasNext(); ) {
+      Map.Entry<SocketAddress, Total<S>> entry = iterator.next();
+      Total<S> total = entry.getValue();
+      if (values.containsKey(entry.getKey())) {
+        values.merge(entry.getKey(), total.snapshot, merge);
+        total.unheldSince = 0;
+      } else if (!total.reported || total.unheldSince == 0) {
+        // Final values, reported once
+        values.put(entry.getKey(), total.snapshot);
+        total.unheldSince = now;
+      } else if (retention > 0 && now - total.unheldSince >= retention) {
+        iterator.remove();
+        continue;
+      }
+      total.reported = true;
+    }
+  }
+
+  /**
+   * @return the number of addresses with totals
+   */
+  int size() {
+    return totals.size();
+  }
+
+  private static class Total<S> {
+    S snapshot;
+    boolean reported;
+    long unheldSince;
+
+    Total(S snapshot) {
+      this.snapshot = snapshot;
+    }
+  }
+}
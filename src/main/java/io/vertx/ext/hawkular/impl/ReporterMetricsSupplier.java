@@ -0,0 +1,358 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.concurrent.TimeUnit.*;
+
+/**
+ * Measures the cost of the metrics reporter itself and exposes metrics for collection.
+ * <p>
+ * Measurements are recorded with {@link LongAdder}s and volatile fields, so that instrumenting the export pipeline
+ * does not add contention to it.
+ *
+ * @author Thomas Segismont
+ */
+public class ReporterMetricsSupplier implements MetricSupplier {
+  private final String baseName;
+  // Collection, per supplier
+  private final ConcurrentMap<Class<?>, CollectionTime> collectionTimes = new ConcurrentHashMap<>();
+  // Serialization and sending
+  private final LongAdder serializationTime = new LongAdder();
+  private final LongAdder payloadBytes = new LongAdder();
+  private final LongAdder batches = new LongAdder();
+  private final LongAdder batchPoints = new LongAdder();
+  private final LongAdder responses = new LongAdder();
+  private final LongAdder sendTime = new LongAdder();
+  // Index 0 holds transport errors, index n holds nxx status codes
+  private final LongAdder[] statuses = new LongAdder[6];
+  private volatile int queueSize;
+  // Tagged metrics cache
+  private final LongAdder tagCacheHits = new LongAdder();
+  private final LongAdder tagCacheMisses = new LongAdder();
+  // Compression
+  private final LongAdder uncompressedBytes = new LongAdder();
+  private final LongAdder compressedBytes = new LongAdder();
+  private final LongAdder compressionTime = new LongAdder();
+  // Sender queue overflow
+  private final LongAdder droppedPoints = new LongAdder();
+  private final LongAdder coalescedPoints = new LongAdder();
+  // Change detection
+  private final LongAdder suppressedPoints = new LongAdder();
+  // Disk spool
+  private final LongAdder spooledBatches = new LongAdder();
+  private final LongAdder replayedBatches = new LongAdder();
+  private final LongAdder spoolDiscardedBatches = new LongAdder();
+  private final LongAdder spoolSize = new LongAdder();
+  // Retries
+  private final LongAdder retries = new LongAdder();
+  private final LongAdder retryGiveUps = new LongAdder();
+  private final LongAdder retryTime = new LongAdder();
+  private final LongAdder rejectedBatches = new LongAdder();
+  // Effective batch size
+  private volatile int batchSize;
+  // Circuit breaker, null if disabled
+  private volatile String circuitBreakerState;
+
+  public ReporterMetricsSupplier(String prefix) {
+    baseName = prefix + (prefix.isEmpty() ? "" : ".") + "vertx.hawkular.reporter.";
+    for (int i = 0; i < statuses.length; i++) {
+      statuses[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Signal metrics have been collected from a supplier.
+   *
+   * @param supplier the metric supplier
+   * @param time     time spent collecting, in nanoseconds
+   */
+  public void collected(MetricSupplier supplier, long time) {
+    collectionTimes.computeIfAbsent(supplier.getClass(), CollectionTime::new).time.add(time);
+  }
+
+  /**
+   * Signal data points have been serialized to a request body.
+   *
+   * @param time time spent serializing, in nanoseconds
+   */
+  public void serialized(long time) {
+    serializationTime.add(time);
+  }
+
+  /**
+   * Signal a new batch of data points is about to be sent.
+   *
+   * @param points the number of points in the batch
+   */
+  public void batch(int points) {
+    batches.increment();
+    batchPoints.add(points);
+  }
+
+  /**
+   * Signal a request body has been sent.
+   *
+   * @param bytes the size of the body, as sent on the wire
+   */
+  public void sent(int bytes) {
+    payloadBytes.add(bytes);
+  }
+
+  /**
+   * Signal a batch request is done.
+   *
+   * @param statusCode the response status code, or {@code -1} if the request failed
+   * @param latency    time elapsed between the request and the response, in nanoseconds, ignored if the request failed
+   */
+  public void response(int statusCode, long latency) {
+    if (statusCode < 0) {
+      statuses[0].increment();
+      return;
+    }
+    statuses[Math.min(5, Math.max(1, statusCode / 100))].increment();
+    responses.increment();
+    sendTime.add(latency);
+  }
+
+  /**
+   * Signal the number of data points waiting in the sender queue has changed.
+   */
+  public void queueSize(int queueSize) {
+    this.queueSize = queueSize;
+  }
+
+  /**
+   * Signal the tagged metrics cache has been looked up.
+   *
+   * @param hits   the number of metrics found in the cache
+   * @param misses the number of metrics not found in the cache
+   */
+  public void tagCacheLookups(int hits, int misses) {
+    tagCacheHits.add(hits);
+    tagCacheMisses.add(misses);
+  }
+
+  /**
+   * Signal a request body has been compressed.
+   *
+   * @param bytesIn  size of the body before compression
+   * @param bytesOut size of the body after compression
+   * @param cpuTime  CPU time spent compressing, in nanoseconds
+   */
+  public void compressed(long bytesIn, long bytesOut, long cpuTime) {
+    uncompressedBytes.add(bytesIn);
+    compressedBytes.add(bytesOut);
+    compressionTime.add(cpuTime);
+  }
+
+  /**
+   * Signal data points have been dropped because the sender queue was full.
+   */
+  public void dropped(int count) {
+    droppedPoints.add(count);
+  }
+
+  /**
+   * Signal data points have been coalesced because the sender queue was full.
+   */
+  public void coalesced(int count) {
+    coalescedPoints.add(count);
+  }
+
+  /**
+   * Signal collected data points have not been sent because their value has not changed.
+   */
+  void suppressed(int count) {
+    suppressedPoints.add(count);
+  }
+
+  /**
+   * Signal a batch has been written to the disk spool.
+   *
+   * @param bytes the size of the record
+   */
+  public void spooled(int bytes) {
+    spooledBatches.increment();
+    spoolSize.add(bytes);
+  }
+
+  /**
+   * Signal an unconsumed record has been found in the disk spool when it was opened.
+   *
+   * @param bytes the size of the record
+   */
+  public void spoolRecovered(int bytes) {
+    spoolSize.add(bytes);
+  }
+
+  /**
+   * Signal a record has been consumed or discarded from the disk spool.
+   *
+   * @param bytes the size of the record
+   */
+  public void spoolConsumed(int bytes) {
+    spoolSize.add(-bytes);
+  }
+
+  /**
+   * Signal spooled batches have been discarded, because they were too large or too old, or because the spool was full.
+   */
+  public void spoolDiscarded(int count) {
+    spoolDiscardedBatches.add(count);
+  }
+
+  /**
+   * Signal a spooled batch has been successfully replayed.
+   */
+  public void replayed() {
+    replayedBatches.increment();
+  }
+
+  /**
+   * Signal a failed batch request will be retried.
+   */
+  public void retried() {
+    retries.increment();
+  }
+
+  /**
+   * Signal a batch request has been given up after the last attempt failed.
+   */
+  public void gaveUp() {
+    retryGiveUps.increment();
+  }
+
+  /**
+   * Signal a retried batch request is done.
+   *
+   * @param time time elapsed since the first attempt failed, in nanoseconds
+   */
+  public void retryTime(long time) {
+    retryTime.add(time);
+  }
+
+  /**
+   * Signal a batch has been rejected by the server with a client error status code.
+   */
+  public void rejected() {
+    rejectedBatches.increment();
+  }
+
+  /**
+   * Signal the circuit breaker state has changed.
+   */
+  void circuitBreakerState(CircuitBreaker.State state) {
+    switch (state) {
+      case CLOSED:
+        circuitBreakerState = "up";
+        break;
+      case OPEN:
+        circuitBreakerState = "down";
+        break;
+      default:
+        circuitBreakerState = "unknown";
+    }
+  }
+
+  /**
+   * Signal the effective batch size has changed.
+   */
+  public void batchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  @Override
+  public List<DataPoint> collect() {
+    long timestamp = System.currentTimeMillis();
+    List<DataPoint> res = new ArrayList<>();
+    collectionTimes.values().forEach(collectionTime -> {
+      long time = MILLISECONDS.convert(collectionTime.time.sum(), NANOSECONDS);
+      res.add(new CounterPoint(baseName + "collectionTime." + collectionTime.name, timestamp, time));
+    });
+    res.add(new CounterPoint(baseName + "serializationTime", timestamp, MILLISECONDS.convert(serializationTime.sum(), NANOSECONDS)));
+    res.add(new CounterPoint(baseName + "payloadBytes", timestamp, payloadBytes.sum()));
+    long batchCount = batches.sum();
+    res.add(new CounterPoint(baseName + "batches", timestamp, batchCount));
+    if (batchCount > 0) {
+      res.add(new GaugePoint(baseName + "pointsPerBatch", timestamp, ((double) batchPoints.sum()) / batchCount));
+    }
+    long responseCount = responses.sum();
+    res.add(new CounterPoint(baseName + "sendTime", timestamp, MILLISECONDS.convert(sendTime.sum(), NANOSECONDS)));
+    if (responseCount > 0) {
+      res.add(new GaugePoint(baseName + "sendLatency", timestamp, ((double) sendTime.sum()) / responseCount / 1000000));
+    }
+    res.add(new CounterPoint(baseName + "responses.error", timestamp, statuses[0].sum()));
+    for (int i = 1; i < statuses.length; i++) {
+      res.add(new CounterPoint(baseName + "responses." + i + "xx", timestamp, statuses[i].sum()));
+    }
+    res.add(new GaugePoint(baseName + "queueSize", timestamp, queueSize));
+    long hits = tagCacheHits.sum();
+    long lookups = hits + tagCacheMisses.sum();
+    if (lookups > 0) {
+      res.add(new GaugePoint(baseName + "tagCacheHitRatio", timestamp, ((double) hits) / lookups));
+    }
+    long bytesIn = uncompressedBytes.sum();
+    long bytesOut = compressedBytes.sum();
+    res.add(new CounterPoint(baseName + "uncompressedBytes", timestamp, bytesIn));
+    res.add(new CounterPoint(baseName + "compressedBytes", timestamp, bytesOut));
+    if (bytesIn > 0) {
+      res.add(new GaugePoint(baseName + "compressionRatio", timestamp, ((double) bytesOut) / bytesIn));
+    }
+    res.add(new CounterPoint(baseName + "compressionTime", timestamp, MILLISECONDS.convert(compressionTime.sum(), NANOSECONDS)));
+    res.add(new CounterPoint(baseName + "droppedPoints", timestamp, droppedPoints.sum()));
+    res.add(new CounterPoint(baseName + "coalescedPoints", timestamp, coalescedPoints.sum()));
+    long suppressed = suppressedPoints.sum();
+    res.add(new CounterPoint(baseName + "suppressedPoints", timestamp, suppressed));
+    long points = batchPoints.sum();
+    if (points > 0) {
+      // Estimated from the average size of a point on the wire
+      res.add(new GaugePoint(baseName + "suppressedBytes", timestamp, ((double) payloadBytes.sum()) / points * suppressed));
+    }
+    res.add(new CounterPoint(baseName + "spooledBatches", timestamp, spooledBatches.sum()));
+    res.add(new CounterPoint(baseName + "replayedBatches", timestamp, replayedBatches.sum()));
+    res.add(new CounterPoint(baseName + "spoolDiscardedBatches", timestamp, spoolDiscardedBatches.sum()));
+    res.add(new GaugePoint(baseName + "spoolSize", timestamp, spoolSize.sum()));
+    res.add(new CounterPoint(baseName + "retries", timestamp, retries.sum()));
+    res.add(new CounterPoint(baseName + "retryGiveUps", timestamp, retryGiveUps.sum()));
+    res.add(new CounterPoint(baseName + "retryTime", timestamp, MILLISECONDS.convert(retryTime.sum(), NANOSECONDS)));
+    res.add(new CounterPoint(baseName + "rejectedBatches", timestamp, rejectedBatches.sum()));
+    res.add(new GaugePoint(baseName + "batchSize", timestamp, batchSize));
+    String circuitBreakerState = this.circuitBreakerState;
+    if (circuitBreakerState != null) {
+      res.add(new AvailabilityPoint(baseName + "circuitBreaker", timestamp, circuitBreakerState));
+    }
+    return res;
+  }
+
+  private static class CollectionTime {
+    final String name;
+    final LongAdder time = new LongAdder();
+
+    CollectionTime(Class<?> supplierClass) {
+      // HttpServerMetricsSupplier -> httpServer
+      String simpleName = supplierClass.getSimpleName().replaceFirst("(Metrics)?(Supplier|Impl)$", "");
+      name = simpleName.isEmpty() ? supplierClass.getName()
+        : Character.toLowerCase(simpleName.charAt(0)) + simpleName.substring(1);
+    }
+  }
+}
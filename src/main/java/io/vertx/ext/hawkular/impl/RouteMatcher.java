@@ -0,0 +1,130 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.hawkular.RouteMetricsOptions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves request paths to the configured routes. Routes are compiled once, and resolved paths are cached.
+ * <p>
+ * Paths come from clients, so the cache is a fixed size table in which a path simply replaces the one previously
+ * stored in its slot. Random paths cannot grow it, nor stay in it forever: frequent paths get their slot back as soon
+ * as they are requested again.
+ *
+ * @author Thomas Segismont
+ */
+class RouteMatcher {
+  static final int NO_ROUTE = -1;
+
+  // Must be a power of two
+  private static final int CACHE_CAPACITY = 4096;
+  private static final int CACHE_MASK = CACHE_CAPACITY - 1;
+
+  private final String[] names;
+  private final Pattern[] patterns;
+  private final AtomicReferenceArray<CachedPath> cache = new AtomicReferenceArray<>(CACHE_CAPACITY);
+
+  RouteMatcher(RouteMetricsOptions options) {
+    List<String> names = new ArrayList<>();
+    List<Pattern> patterns = new ArrayList<>();
+    if (options.getRoutes() != null) {
+      for (String template : options.getRoutes()) {
+        names.add(template);
+        patterns.add(compileTemplate(template));
+      }
+    }
+    JsonObject regexes = options.getPatterns();
+    if (regexes != null) {
+      for (String name : regexes.fieldNames()) {
+        names.add(name);
+        patterns.add(Pattern.compile(regexes.getString(name)));
+      }
+    }
+    this.names = names.toArray(new String[0]);
+    this.patterns = patterns.toArray(new Pattern[0]);
+  }
+
+  static Pattern compileTemplate(String template) {
+    StringBuilder regex = new StringBuilder();
+    String[] segments = template.split("/", -1);
+    for (int i = 0; i < segments.length; i++) {
+      String segment = segments[i];
+      if (i > 0) {
+        regex.append('/');
+      }
+      if (segment.startsWith(":") || (segment.startsWith("{") && segment.endsWith("}"))) {
+        regex.append("[^/]+");
+      } else if (segment.equals("*") && i == segments.length - 1) {
+        regex.append(".*");
+      } else if (!segment.isEmpty()) {
+        regex.append(Pattern.quote(segment));
+      }
+    }
+    return Pattern.compile(regex.toString());
+  }
+
+  /**
+   * @return the number of configured routes
+   */
+  int routeCount() {
+    return names.length;
+  }
+
+  /**
+   * @return the name of the route
+   */
+  String name(int route) {
+    return names[route];
+  }
+
+  /**
+   * @return the index of the first route matching {@code path}, or {@link #NO_ROUTE}
+   */
+  int match(String path) {
+    int hash = path.hashCode();
+    int slot = (hash ^ (hash >>> 16)) & CACHE_MASK;
+    CachedPath cached = cache.get(slot);
+    if (cached != null && cached.path.equals(path)) {
+      return cached.route;
+    }
+    int route = NO_ROUTE;
+    for (int i = 0; i < patterns.length; i++) {
+      if (patterns[i].matcher(path).matches()) {
+        route = i;
+        break;
+      }
+    }
+    cache.set(slot, new CachedPath(path, route));
+    return route;
+  }
+
+  private static class CachedPath {
+    final String path;
+    final int route;
+
+    CachedPath(String path, int route) {
+      this.path = path;
+      this.route = route;
+    }
+  }
+}
@@ -33,27 +33,50 @@ import static java.util.concurrent.TimeUnit.*;
 public class Scheduler {
   private final Vertx vertx;
   private final Handler<List<DataPoint>> sender;
+  private final ReporterMetricsSupplier reporterMetrics;
   private final List<MetricSupplier> suppliers;
+  // Null if disabled
+  private final ChangeDetector changeDetector;
 
   private long timerId;
 
   /**
-   * @param vertx   the {@link Vertx} managed instance
-   * @param options Vertx Hawkular options
-   * @param context the metric collection and sending execution context
-   * @param sender  the object responsible for sending metrics to the Hawkular server
+   * @param vertx           the {@link Vertx} managed instance
+   * @param options         Vertx Hawkular options
+   * @param context         the metric collection and sending execution context
+   * @param sender          the object responsible for sending metrics to the Hawkular server
+   * @param reporterMetrics the reporter self metrics, registered as a supplier until the scheduler is stopped
    */
-  public Scheduler(Vertx vertx, VertxHawkularOptions options, Context context, Handler<List<DataPoint>> sender) {
+  public Scheduler(Vertx vertx, VertxHawkularOptions options, Context context, Handler<List<DataPoint>> sender,
+                   ReporterMetricsSupplier reporterMetrics) {
     this.vertx = vertx;
     this.sender = sender;
+    this.reporterMetrics = reporterMetrics;
     suppliers = new CopyOnWriteArrayList<>();
+    suppliers.add(reporterMetrics);
+    if (options.isChangeDetectionEnabled()) {
+      changeDetector = new ChangeDetector(options.getChangeDetectionHeartbeat(), reporterMetrics);
+    } else {
+      changeDetector = null;
+    }
     context.runOnContext(aVoid -> {
       timerId = vertx.setPeriodic(MILLISECONDS.convert(options.getSchedule(), SECONDS), this::collectAndSend);
     });
   }
 
   private void collectAndSend(Long timerId) {
-    suppliers.forEach(supplier -> sender.handle(supplier.collect()));
+    if (changeDetector != null) {
+      changeDetector.tick();
+    }
+    for (MetricSupplier supplier : suppliers) {
+      long start = System.nanoTime();
+      List<DataPoint> dataPoints = supplier.collect();
+      reporterMetrics.collected(supplier, System.nanoTime() - start);
+      if (changeDetector != null) {
+        dataPoints = changeDetector.filter(dataPoints);
+      }
+      sender.handle(dataPoints);
+    }
   }
 
   /**
@@ -78,6 +101,7 @@ public class Scheduler {
    * Stop collecting.
    */
   public void stop() {
+    suppliers.remove(reporterMetrics);
     vertx.cancelTimer(timerId);
   }
 }
@@ -15,9 +15,7 @@
  */
 package io.vertx.ext.hawkular.impl;
 
-import io.vertx.core.AsyncResult;
 import io.vertx.core.Context;
-import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
@@ -31,18 +29,26 @@ import io.vertx.core.json.JsonObject;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 import io.vertx.ext.hawkular.AuthenticationOptions;
+import io.vertx.ext.hawkular.CircuitBreakerOptions;
+import io.vertx.ext.hawkular.OverflowPolicy;
+import io.vertx.ext.hawkular.RetryOptions;
+import io.vertx.ext.hawkular.SpoolOptions;
 import io.vertx.ext.hawkular.VertxHawkularOptions;
 
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 
 import static java.util.concurrent.TimeUnit.*;
 import static java.util.stream.Collectors.*;
@@ -57,10 +63,10 @@ public class Sender implements Handler<List<DataPoint>> {
 
   private static final CharSequence MEDIA_TYPE_APPLICATION_JSON = HttpHeaders.createOptimized("application/json");
   private static final CharSequence HTTP_HEADER_HAWKULAR_TENANT = HttpHeaders.createOptimized("Hawkular-Tenant");
-
-  private static final Pattern HAWKULAR_VERSION = Pattern.compile("([0-9]+)\\.([0-9]+)\\.(.+)");
+  private static final CharSequence CONTENT_ENCODING_GZIP = HttpHeaders.createOptimized("gzip");
 
   private final Vertx vertx;
+  private final Context context;
   private final String metricsServiceUri;
 
   private final CharSequence tenant;
@@ -68,28 +74,48 @@ public class Sender implements Handler<List<DataPoint>> {
 
   private final Map<CharSequence, Iterable<CharSequence>> httpHeaders;
 
-  private final int batchSize;
+  private final BatchSizeController batchSizeController;
   private final long batchDelay;
-  private final List<DataPoint> queue;
+  private final int maxInFlightBatches;
+  private final int maxQueueSize;
+  private final OverflowPolicy overflowPolicy;
+  private final ArrayDeque<DataPoint> queue;
 
   private final JsonObject tags;
   private final List<MetricTagsMatcher> metricTagsMatchers;
   private final TaggedMetricsCache taggedMetricsCache;
+  private final MixedDataEncoder encoder;
+  private final GzipCompressor compressor;
+  private final ReporterMetricsSupplier reporterMetrics;
+
+  private final SpoolOptions spoolOptions;
+  private final int maxAttempts;
+  private final long retryBaseDelay;
+  private final long retryMaxDelay;
+  private final double retryJitter;
+  private final CircuitBreaker circuitBreaker;
 
   private HttpClient httpClient;
+  private EndpointDiscovery endpointDiscovery;
   private long timerId;
-
-  private String metricsDataUri;
+  private long replayTimerId = -1;
+  private DiskSpool spool;
+  private boolean reachable;
+  private boolean replaying;
+  private boolean stopped;
 
   private long sendTime;
+  private int inFlightBatches;
 
   /**
-   * @param vertx   the {@link Vertx} managed instance
-   * @param options Vertx Hawkular options
-   * @param context the metric collection and sending execution context
+   * @param vertx           the {@link Vertx} managed instance
+   * @param options         Vertx Hawkular options
+   * @param context         the metric collection and sending execution context
+   * @param reporterMetrics the reporter self metrics
    */
-  public Sender(Vertx vertx, VertxHawkularOptions options, Context context) {
+  public Sender(Vertx vertx, VertxHawkularOptions options, Context context, ReporterMetricsSupplier reporterMetrics) {
     this.vertx = vertx;
+    this.context = context;
     metricsServiceUri = options.getMetricsServiceUri();
 
     tenant = options.isSendTenantHeader() ? HttpHeaders.createOptimized(options.getTenant()) : null;
@@ -123,20 +149,38 @@ public class Sender implements Handler<List<DataPoint>> {
       this.httpHeaders = Collections.emptyMap();
     }
 
-    batchSize = options.getBatchSize();
+    batchSizeController = new BatchSizeController(options, reporterMetrics);
     batchDelay = NANOSECONDS.convert(options.getBatchDelay(), SECONDS);
-    queue = new ArrayList<>(batchSize);
+    maxInFlightBatches = options.getMaxInFlightBatches();
+    maxQueueSize = maxInFlightBatches * batchSizeController.maxBatchSize();
+    overflowPolicy = options.getOverflowPolicy();
+    queue = new ArrayDeque<>(batchSizeController.batchSize());
     tags = options.getTags();
     metricTagsMatchers = options.getMetricTagsMatches().stream()
       .map(MetricTagsMatcher::new)
       .collect(toList());
     taggedMetricsCache = new TaggedMetricsCache(options.getTaggedMetricsCacheSize());
+    encoder = new MixedDataEncoder();
+    compressor = options.isCompressionEnabled() ? new GzipCompressor(reporterMetrics) : null;
+    this.reporterMetrics = reporterMetrics;
+    spoolOptions = options.getSpoolOptions();
+    RetryOptions retryOptions = options.getRetryOptions();
+    maxAttempts = Math.max(1, retryOptions.getMaxAttempts());
+    retryBaseDelay = Math.max(1, retryOptions.getBaseDelay());
+    retryMaxDelay = Math.max(retryBaseDelay, retryOptions.getMaxDelay());
+    retryJitter = Math.min(1, Math.max(0, retryOptions.getJitter()));
+    CircuitBreakerOptions circuitBreakerOptions = options.getCircuitBreakerOptions();
+    circuitBreaker = circuitBreakerOptions.isEnabled() ? new CircuitBreaker(circuitBreakerOptions, reporterMetrics) : null;
     context.runOnContext(aVoid -> {
       HttpClientOptions httpClientOptions = options.getHttpOptions()
         .setDefaultHost(options.getHost())
         .setDefaultPort(options.getPort());
       httpClient = vertx.createHttpClient(httpClientOptions);
+      endpointDiscovery = new EndpointDiscovery(httpClient, metricsServiceUri);
       timerId = vertx.setPeriodic(MILLISECONDS.convert(batchDelay, NANOSECONDS), this::flushIfIdle);
+      if (spoolOptions.isEnabled()) {
+        openSpool();
+      }
       }
     );
     sendTime = System.nanoTime();
@@ -151,31 +195,135 @@ public class Sender implements Handler<List<DataPoint>> {
       LOG.trace(msg);
     }
 
-    if (queue.size() + dataPoints.size() < batchSize) {
-      queue.addAll(dataPoints);
+    queue.addAll(dataPoints);
+    drain();
+    if (queue.size() > maxQueueSize) {
+      overflow();
+      reporterMetrics.queueSize(queue.size());
+    }
+  }
+
+  /**
+   * Send full batches, as long as the in-flight window and the circuit breaker allow.
+   */
+  private void drain() {
+    while (inFlightBatches < maxInFlightBatches && queue.size() >= batchSizeController.batchSize() && allowRequest()) {
+      send(nextBatch());
+    }
+    reporterMetrics.queueSize(queue.size());
+  }
+
+  private List<DataPoint> nextBatch() {
+    int size = Math.min(batchSizeController.batchSize(), queue.size());
+    List<DataPoint> batch = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      batch.add(queue.pollFirst());
+    }
+    return batch;
+  }
+
+  private void overflow() {
+    int excess = queue.size() - maxQueueSize;
+    if (overflowPolicy == OverflowPolicy.COALESCE) {
+      int coalesced = coalesce();
+      reporterMetrics.coalesced(coalesced);
+      excess -= coalesced;
+    }
+    if (excess <= 0) {
       return;
     }
-    List<DataPoint> temp = new ArrayList<>(queue.size() + dataPoints.size());
-    temp.addAll(queue);
-    temp.addAll(dataPoints);
+    List<DataPoint> overflowed = spool != null ? new ArrayList<>(excess) : null;
+    for (int i = 0; i < excess; i++) {
+      DataPoint dataPoint = overflowPolicy == OverflowPolicy.DROP_NEWEST ? queue.pollLast() : queue.pollFirst();
+      if (overflowed != null) {
+        overflowed.add(dataPoint);
+      }
+    }
+    if (overflowed == null) {
+      reporterMetrics.dropped(excess);
+      return;
+    }
+    int batchSize = batchSizeController.batchSize();
+    for (int from = 0; from < overflowed.size(); from += batchSize) {
+      List<DataPoint> chunk = overflowed.subList(from, Math.min(from + batchSize, overflowed.size()));
+      spool(encode(chunk));
+    }
+  }
+
+  /**
+   * Keep only the latest queued point of each metric.
+   *
+   * @return the number of points removed from the queue
+   */
+  private int coalesce() {
+    int size = queue.size();
+    Map<TaggedMetricsCacheKey, DataPoint> latest = new LinkedHashMap<>();
+    for (DataPoint dataPoint : queue) {
+      String type = tagsType(dataPoint);
+      if (type != null) {
+        latest.put(new TaggedMetricsCacheKey(type, dataPoint.getName()), dataPoint);
+      }
+    }
     queue.clear();
-    do {
-      List<DataPoint> subList = temp.subList(0, batchSize);
-      send(subList);
-      subList.clear();
-    } while (temp.size() >= batchSize);
-    queue.addAll(temp);
+    queue.addAll(latest.values());
+    return size - queue.size();
   }
 
   private void send(List<DataPoint> dataPoints) {
-    JsonObject hawkularMixedData = toHawkularMixedData(dataPoints);
-    Buffer json = hawkularMixedData.toBuffer();
-    getMetricsDataUri(ar -> {
-      if (ar.succeeded()) {
-        HttpClientRequest request = httpClient.post(ar.result(), this::onResponse)
-          .exceptionHandler(err -> LOG.trace("Could not send metrics", err))
-          .putHeader(HttpHeaders.CONTENT_TYPE, MEDIA_TYPE_APPLICATION_JSON);
+    inFlightBatches++;
+    reporterMetrics.batch(dataPoints.size());
+    dispatch(new InFlightBatch(encode(dataPoints), dataPoints.size(), null));
+    tagMetrics(dataPoints);
+  }
+
+  private Buffer encode(List<DataPoint> dataPoints) {
+    long start = System.nanoTime();
+    Buffer json = encoder.encode(dataPoints);
+    reporterMetrics.serialized(System.nanoTime() - start);
+    return json;
+  }
 
+  private void dispatch(InFlightBatch batch) {
+    batch.attempts++;
+    batch.attemptCompleted = false;
+    batch.sentAt = 0;
+    if (compressor == null) {
+      post(batch, batch.json, false);
+    } else if (batch.compressed != null) {
+      post(batch, batch.compressed, true);
+    } else {
+      // Ordered, so that batches are compressed and posted in the same order as they were created
+      context.<Buffer>executeBlocking(fut -> fut.complete(compressor.compress(batch.json)), true, ar -> {
+        if (ar.succeeded()) {
+          batch.compressed = ar.result();
+          post(batch, batch.compressed, true);
+        } else {
+          LOG.trace("Could not compress metrics", ar.cause());
+          post(batch, batch.json, false);
+        }
+      });
+    }
+  }
+
+  private void post(InFlightBatch batch, Buffer body, boolean gzipped) {
+    int attempt = batch.attempts;
+    endpointDiscovery.getMetricsDataUri(ar -> {
+      if (ar.succeeded()) {
+        HttpClientRequest request = httpClient.post(ar.result(), response -> {
+          if (response.statusCode() == 404) {
+            // The server may have been replaced with a different version
+            endpointDiscovery.invalidate();
+          }
+          batch.complete(attempt, response.statusCode());
+          onResponse(response);
+        }).exceptionHandler(err -> {
+          batch.complete(attempt, -1);
+          LOG.trace("Could not send metrics", err);
+        }).putHeader(HttpHeaders.CONTENT_TYPE, MEDIA_TYPE_APPLICATION_JSON);
+
+        if (gzipped) {
+          request.putHeader(HttpHeaders.CONTENT_ENCODING, CONTENT_ENCODING_GZIP);
+        }
         if (tenant != null) {
           request.putHeader(HTTP_HEADER_HAWKULAR_TENANT, tenant);
         }
@@ -184,70 +332,71 @@ public class Sender implements Handler<List<DataPoint>> {
         }
         httpHeaders.forEach(request::putHeader);
 
-        request.end(json);
-        sendTime = System.nanoTime();
+        batch.sentAt = System.nanoTime();
+        request.end(body);
+        reporterMetrics.sent(body.length());
+        sendTime = batch.sentAt;
+      } else {
+        batch.complete(attempt, -1);
       }
     });
-    tagMetrics(hawkularMixedData.getJsonArray("gauges"), "gauges");
-    tagMetrics(hawkularMixedData.getJsonArray("counters"), "counters");
-    tagMetrics(hawkularMixedData.getJsonArray("availabilities"), "availability");
   }
 
-  private void getMetricsDataUri(Handler<AsyncResult<String>> handler) {
-    if (metricsDataUri != null) {
-      handler.handle(Future.succeededFuture(metricsDataUri));
-      return;
-    }
-    httpClient.get(metricsServiceUri + "/status", statusResponse -> {
-      statusResponse.bodyHandler(buffer -> {
-        String hawkularVersion = new JsonObject(buffer).getString("Implementation-Version");
-        if (hawkularVersion == null) {
-          handler.handle(Future.failedFuture("No version info in status data"));
-        } else {
-          Matcher matcher = HAWKULAR_VERSION.matcher(hawkularVersion);
-          if (!matcher.matches()) {
-            handler.handle(Future.failedFuture("Cannot parse version " + hawkularVersion));
-          } else if ("0".equals(matcher.group(1))) {
-            String minor = matcher.group(2);
-            if (minor.length() <= 2 && Integer.parseInt(minor) < 15) {
-              metricsDataUri = metricsServiceUri + "/metrics/data";
-            } else {
-              metricsDataUri = metricsServiceUri + "/metrics/raw";
-            }
-            handler.handle(Future.succeededFuture(metricsDataUri));
-          }
-        }
-      }).exceptionHandler(err -> handler.handle(Future.failedFuture(err)));
-    }).exceptionHandler(err -> handler.handle(Future.failedFuture(err)))
-      .putHeader(HttpHeaders.CONTENT_TYPE, MEDIA_TYPE_APPLICATION_JSON).end();
+  private void openSpool() {
+    context.<DiskSpool>executeBlocking(fut -> {
+      try {
+        fut.complete(new DiskSpool(spoolOptions, reporterMetrics));
+      } catch (IOException e) {
+        fut.fail(e);
+      }
+    }, true, ar -> {
+      if (ar.succeeded() && stopped) {
+        closeSpool(ar.result());
+      } else if (ar.succeeded()) {
+        spool = ar.result();
+        long replayDelay = Math.max(1, 1000 / Math.max(1, spoolOptions.getReplayRate()));
+        replayTimerId = vertx.setPeriodic(replayDelay, this::replay);
+      } else {
+        LOG.error("Could not open spool in " + spoolOptions.getDirectory(), ar.cause());
+      }
+    });
   }
 
-  private JsonObject toHawkularMixedData(List<DataPoint> dataPoints) {
-    Map<? extends Class<? extends DataPoint>, Map<String, List<DataPoint>>> mixedData;
-    mixedData = dataPoints.stream().collect(groupingBy(DataPoint::getClass, groupingBy(DataPoint::getName)));
-    JsonObject json = new JsonObject();
-    addMixedData(json, "gauges", mixedData.get(GaugePoint.class));
-    addMixedData(json, "counters", mixedData.get(CounterPoint.class));
-    addMixedData(json, "availabilities", mixedData.get(AvailabilityPoint.class));
-    return json;
+  private void spool(Buffer json) {
+    context.executeBlocking(fut -> {
+      try {
+        spool.append(json);
+        fut.complete();
+      } catch (IOException e) {
+        fut.fail(e);
+      }
+    }, true, ar -> {
+      if (ar.failed()) {
+        LOG.trace("Could not spool metrics", ar.cause());
+      }
+    });
   }
 
-  private void addMixedData(JsonObject json, String type, Map<String, List<DataPoint>> data) {
-    if (data == null) {
+  /**
+   * Replays at most one spooled batch at a time, in order, and only after the server has accepted data again.
+   */
+  private void replay(Long timerId) {
+    if (!reachable || replaying || inFlightBatches >= maxInFlightBatches || !allowRequest()) {
       return;
     }
-    JsonArray metrics = new JsonArray();
-    data.forEach((id, points) -> {
-      JsonArray jsonDataPoints = points.stream()
-        .map(this::toJsonDataPoint)
-        .collect(JsonArray::new, JsonArray::add, JsonArray::addAll);
-      metrics.add(new JsonObject().put("id", id).put("data", jsonDataPoints));
+    replaying = true;
+    context.<DiskSpool.Entry>executeBlocking(fut -> fut.complete(spool.peek()), true, ar -> {
+      if (ar.succeeded() && ar.result() != null) {
+        DiskSpool.Entry entry = ar.result();
+        inFlightBatches++;
+        dispatch(new InFlightBatch(entry.payload(), 0, entry));
+      } else {
+        if (ar.failed()) {
+          LOG.trace("Could not read spooled metrics", ar.cause());
+        }
+        replaying = false;
+      }
     });
-    json.put(type, metrics);
-  }
-
-  private JsonObject toJsonDataPoint(DataPoint dataPoint) {
-    return new JsonObject().put("timestamp", dataPoint.getTimestamp()).put("value", dataPoint.getValue());
   }
 
   private void onResponse(HttpClientResponse response) {
@@ -258,65 +407,263 @@ public class Sender implements Handler<List<DataPoint>> {
     }
   }
 
-  private void tagMetrics(JsonArray metrics, String type) {
-    if (metrics == null) {
+  private void tagMetrics(List<DataPoint> dataPoints) {
+    Set<TaggedMetricsCacheKey> tagging = null;
+    int hits = 0;
+    int misses = 0;
+    for (DataPoint dataPoint : dataPoints) {
+      String type = tagsType(dataPoint);
+      if (type == null) {
+        continue;
+      }
+      String name = dataPoint.getName();
+      if (taggedMetricsCache.isMetricTagged(type, name)) {
+        hits++;
+        continue;
+      }
+      misses++;
+      if (tagging == null) {
+        tagging = new HashSet<>();
+      }
+      if (tagging.add(new TaggedMetricsCacheKey(type, name))) {
+        tagMetric(type, name);
+      }
+    }
+    reporterMetrics.tagCacheLookups(hits, misses);
+  }
+
+  private static String tagsType(DataPoint dataPoint) {
+    if (dataPoint instanceof GaugePoint) {
+      return "gauges";
+    }
+    if (dataPoint instanceof CounterPoint) {
+      return "counters";
+    }
+    if (dataPoint instanceof AvailabilityPoint) {
+      return "availability";
+    }
+    return null;
+  }
+
+  private void tagMetric(String type, String name) {
+    JsonObject json = new JsonObject();
+    json.mergeIn(tags);
+    metricTagsMatchers.forEach(matcher -> {
+      if (matcher.matches(name)) {
+        json.mergeIn(matcher.getTags());
+      }
+    });
+    if (json.isEmpty()) {
       return;
     }
-    metrics.stream()
-      .map(JsonObject.class::cast)
-      .map(m -> m.getString("id"))
-      .filter(name -> !taggedMetricsCache.isMetricTagged(type, name))
-      .forEach(name -> {
-        JsonObject json = new JsonObject();
-        json.mergeIn(tags);
-        metricTagsMatchers.forEach(matcher -> {
-          if (matcher.matches(name)) {
-            json.mergeIn(matcher.getTags());
-          }
-        });
-        if (json.isEmpty()) {
-          return;
+    String uri;
+    try {
+      uri = metricsServiceUri + "/" + type + "/" + URLEncoder.encode(name, "UTF-8") + "/tags";
+    } catch (UnsupportedEncodingException e) {
+      LOG.trace("Could not encode metric name", e);
+      return;
+    }
+    Buffer body = json.toBuffer();
+    if (compressor == null) {
+      putTags(type, name, uri, body, false);
+    } else {
+      // Same ordered queue as batches, the compressor is not thread-safe
+      context.<Buffer>executeBlocking(fut -> fut.complete(compressor.compress(body)), true, ar -> {
+        if (ar.succeeded()) {
+          putTags(type, name, uri, ar.result(), true);
+        } else {
+          LOG.trace("Could not compress metric tags", ar.cause());
+          putTags(type, name, uri, body, false);
         }
-        try {
-          String uri = metricsServiceUri + "/" + type + "/" + URLEncoder.encode(name, "UTF-8") + "/tags";
-          HttpClientRequest request = httpClient.put(uri)
-            .handler(response -> {
-              if (response.statusCode() == 200) {
-                taggedMetricsCache.metricTagged(type, name);
-              } else if (LOG.isTraceEnabled()) {
-                response.bodyHandler(msg -> {
-                  LOG.trace("Could not send data: " + response.statusCode() + " : " + msg.toString());
-                });
-              }
-            })
-            .exceptionHandler(err -> LOG.trace("Could not send data", err))
-            .putHeader(HttpHeaders.CONTENT_TYPE, MEDIA_TYPE_APPLICATION_JSON);
-
-          if (tenant != null) {
-            request.putHeader(HTTP_HEADER_HAWKULAR_TENANT, tenant);
-          }
-          if (auth != null) {
-            request.putHeader(HttpHeaders.AUTHORIZATION, auth);
-          }
-          httpHeaders.forEach(request::putHeader);
+      });
+    }
+  }
 
-          request.end(json.toBuffer());
-        } catch (UnsupportedEncodingException e) {
-          LOG.trace("Could not encode metric name", e);
+  private void putTags(String type, String name, String uri, Buffer body, boolean gzipped) {
+    if (stopped) {
+      return;
+    }
+    HttpClientRequest request = httpClient.put(uri)
+      .handler(response -> {
+        if (response.statusCode() == 200) {
+          taggedMetricsCache.metricTagged(type, name);
+        } else if (LOG.isTraceEnabled()) {
+          response.bodyHandler(msg -> {
+            LOG.trace("Could not send data: " + response.statusCode() + " : " + msg.toString());
+          });
         }
-      });
+      })
+      .exceptionHandler(err -> LOG.trace("Could not send data", err))
+      .putHeader(HttpHeaders.CONTENT_TYPE, MEDIA_TYPE_APPLICATION_JSON);
+
+    if (gzipped) {
+      request.putHeader(HttpHeaders.CONTENT_ENCODING, CONTENT_ENCODING_GZIP);
+    }
+    if (tenant != null) {
+      request.putHeader(HTTP_HEADER_HAWKULAR_TENANT, tenant);
+    }
+    if (auth != null) {
+      request.putHeader(HttpHeaders.AUTHORIZATION, auth);
+    }
+    httpHeaders.forEach(request::putHeader);
+
+    request.end(body);
   }
 
   private void flushIfIdle(Long timerId) {
-    if (System.nanoTime() - sendTime > batchDelay && !queue.isEmpty()) {
-      List<DataPoint> dataPoints = new ArrayList<>(queue);
-      queue.clear();
-      send(dataPoints);
+    if (System.nanoTime() - sendTime > batchDelay) {
+      while (inFlightBatches < maxInFlightBatches && !queue.isEmpty() && allowRequest()) {
+        send(nextBatch());
+      }
+      reporterMetrics.queueSize(queue.size());
     }
   }
 
   public void stop() {
+    stopped = true;
     vertx.cancelTimer(timerId);
+    if (replayTimerId >= 0) {
+      vertx.cancelTimer(replayTimerId);
+    }
     httpClient.close();
+    if (spool != null) {
+      closeSpool(spool);
+    }
+  }
+
+  private void closeSpool(DiskSpool spool) {
+    // Queued after pending appends and reads, the spool must not be used concurrently
+    context.executeBlocking(fut -> {
+      spool.close();
+      fut.complete();
+    }, true, null);
+  }
+
+  /**
+   * A batch request occupying a slot in the in-flight window, until it succeeds or is given up.
+   */
+  private class InFlightBatch {
+    final Buffer json;
+    final int points;
+    final DiskSpool.Entry spooled;
+    Buffer compressed;
+    int attempts;
+    boolean attemptCompleted;
+    long retryStart;
+    // When the request of the current attempt was posted, 0 if it was not
+    long sentAt;
+
+    /**
+     * @param json    the uncompressed batch
+     * @param points  the number of points in the batch, {@code 0} if unknown
+     * @param spooled the spool entry if the batch is replayed, {@code null} otherwise
+     */
+    InFlightBatch(Buffer json, int points, DiskSpool.Entry spooled) {
+      this.json = json;
+      this.points = points;
+      this.spooled = spooled;
+    }
+
+    /**
+     * Handles the outcome of an attempt exactly once, whichever of the response, the exception or the discovery
+     * failure comes first.
+     *
+     * @param attempt    the attempt number
+     * @param statusCode the response status code, or {@code -1} if the request failed
+     */
+    void complete(int attempt, int statusCode) {
+      if (attempt != attempts || attemptCompleted) {
+        return;
+      }
+      attemptCompleted = true;
+      reporterMetrics.response(statusCode, System.nanoTime() - sentAt);
+      // Client errors are caused by the payload, sending it again would not help,
+      // except for 404 which means the endpoint must be discovered again
+      boolean failed = statusCode < 0 || statusCode >= 500 || statusCode == 404;
+      reachable = !failed;
+      if (circuitBreaker != null) {
+        if (failed) {
+          circuitBreaker.onFailure();
+        } else {
+          circuitBreaker.onSuccess();
+        }
+      }
+      // Failures to discover the endpoint say nothing about the batch size
+      if (sentAt != 0) {
+        if (failed) {
+          batchSizeController.failed();
+        } else if (statusCode < 300) {
+          batchSizeController.succeeded(points, System.nanoTime() - sentAt);
+        }
+      }
+      // Replayed batches stay in the spool until they are sent, they are not retried
+      if (failed && spooled == null && attempts < maxAttempts && !stopped) {
+        if (attempts == 1) {
+          retryStart = System.nanoTime();
+        }
+        reporterMetrics.retried();
+        scheduleRetry(retryDelay(attempts));
+        return;
+      }
+      inFlightBatches--;
+      if (attempts > 1) {
+        reporterMetrics.retryTime(System.nanoTime() - retryStart);
+      }
+      if (!failed && statusCode >= 400 && statusCode < 500) {
+        reporterMetrics.rejected();
+      }
+      if (spooled != null) {
+        replaying = false;
+        if (!failed) {
+          if (statusCode < 300) {
+            reporterMetrics.replayed();
+          }
+          context.executeBlocking(fut -> {
+            spool.remove(spooled);
+            fut.complete();
+          }, true, null);
+        }
+      } else if (failed) {
+        reporterMetrics.gaveUp();
+        if (spool != null && !stopped) {
+          spool(json);
+        }
+      }
+      drain();
+    }
+
+    void scheduleRetry(long delay) {
+      vertx.setTimer(delay, id -> {
+        if (stopped) {
+          return;
+        }
+        if (allowRequest()) {
+          dispatch(this);
+        } else {
+          // Wait for the circuit to close, without spending an attempt
+          scheduleRetry(Math.max(circuitBreaker.remainingOpenTime(), retryDelay(attempts)));
+        }
+      });
+    }
+  }
+
+  private boolean allowRequest() {
+    return circuitBreaker == null || circuitBreaker.allowRequest();
+  }
+
+  /**
+   * Exponential backoff, reduced by a random jitter so that instances do not retry all at once.
+   *
+   * @param attempts the number of failed attempts
+   * @return the delay before the next attempt, in ms
+   */
+  private long retryDelay(int attempts) {
+    long delay = retryBaseDelay;
+    for (int i = 1; i < attempts && delay < retryMaxDelay; i++) {
+      delay <<= 1;
+    }
+    delay = Math.min(delay, retryMaxDelay);
+    delay -= (long) (delay * retryJitter * ThreadLocalRandom.current().nextDouble());
+    return Math.max(1, delay);
   }
 }
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl;
+
+/**
+ * Size distribution, in bytes, for a single collection interval.
+ *
+ * @author Thomas Segismont
+ */
+class SizeHistogram extends IntervalHistogram {
+  // Larger than the maximum UDP payload
+  private static final long HIGHEST_TRACKABLE_VALUE = 1 << 20;
+
+  SizeHistogram() {
+    super(HIGHEST_TRACKABLE_VALUE);
+  }
+
+  /**
+   * @param size the size, in bytes
+   */
+  void record(long size) {
+    recordValue(size);
+  }
+
+  @Override
+  double report(long size) {
+    return size;
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts HTTP responses per status code class and, optionally, per exact status code.
+ * <p>
+ * Counters are {@link LongAdder}s, which are striped across cores, in arrays indexed by status code: recording a
+ * response is a single increment, without any map lookup.
+ *
+ * @author Thomas Segismont
+ */
+class StatusCodeCounters {
+  private static final int MIN_STATUS_CODE = 100;
+  private static final int MAX_STATUS_CODE = 599;
+
+  // Index n - 1 holds nxx status codes
+  private final LongAdder[] classes = new LongAdder[5];
+  // Created lazily, as only a few codes are ever used, null if exact codes are not counted
+  private final AtomicReferenceArray<LongAdder> codes;
+
+  /**
+   * @param exactCodes whether responses should also be counted per exact status code
+   */
+  StatusCodeCounters(boolean exactCodes) {
+    for (int i = 0; i < classes.length; i++) {
+      classes[i] = new LongAdder();
+    }
+    codes = exactCodes ? new AtomicReferenceArray<>(MAX_STATUS_CODE - MIN_STATUS_CODE + 1) : null;
+  }
+
+  /**
+   * @param statusCode the response status code, ignored if not in the {@code [100, 599]} range
+   */
+  void record(int statusCode) {
+    if (statusCode < MIN_STATUS_CODE || statusCode > MAX_STATUS_CODE) {
+      return;
+    }
+    classes[statusCode / 100 - 1].increment();
+    if (codes != null) {
+      int index = statusCode - MIN_STATUS_CODE;
+      LongAdder counter = codes.get(index);
+      if (counter == null) {
+        codes.compareAndSet(index, null, new LongAdder());
+        counter = codes.get(index);
+      }
+      counter.increment();
+    }
+  }
+
+  /**
+   * Adds a {@code responses.nxx} counter for each status code class, and a {@code responses.<code>} counter for each
+   * status code seen, if exact codes are counted.
+   */
+  void collect(String baseName, long timestamp, List<DataPoint> res) {
+    for (int i = 0; i < classes.length; i++) {
+      res.add(new CounterPoint(baseName + "responses." + (i + 1) + "xx", timestamp, classes[i].sum()));
+    }
+    if (codes != null) {
+      for (int i = 0; i < codes.length(); i++) {
+        LongAdder counter = codes.get(i);
+        if (counter != null) {
+          res.add(new CounterPoint(baseName + "responses." + (MIN_STATUS_CODE + i), timestamp, counter.sum()));
+        }
+      }
+    }
+  }
+}
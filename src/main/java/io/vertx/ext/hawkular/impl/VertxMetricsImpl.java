@@ -57,11 +57,14 @@ public class VertxMetricsImpl extends DummyVertxMetrics {
   private final Vertx vertx;
   private final VertxHawkularOptions options;
   private final Map<MetricsType, MetricSupplier> metricSuppliers;
+  private final ReporterMetricsSupplier reporterMetrics;
 
   private Future<Void> metricsReady = Future.future();
 
   private Sender sender;
   private Scheduler scheduler;
+  // Null unless bridge gauges are aggregated
+  private MetricsBridgeAggregator metricsBridgeAggregator;
 
   /**
    * @param vertx   the {@link Vertx} managed instance
@@ -73,34 +76,35 @@ public class VertxMetricsImpl extends DummyVertxMetrics {
     String prefix = options.getPrefix();
     Map<MetricsType, MetricSupplier> supplierMap = new EnumMap<>(MetricsType.class);
     if (!options.isMetricsTypeDisabled(HTTP_SERVER)) {
-      supplierMap.put(HTTP_SERVER, new HttpServerMetricsSupplier(prefix));
+      supplierMap.put(HTTP_SERVER, new HttpServerMetricsSupplier(prefix, options));
     }
     if (!options.isMetricsTypeDisabled(HTTP_CLIENT)) {
-      supplierMap.put(HTTP_CLIENT, new HttpClientMetricsSupplier(prefix));
+      supplierMap.put(HTTP_CLIENT, new HttpClientMetricsSupplier(prefix, options));
     }
     if (!options.isMetricsTypeDisabled(NET_SERVER)) {
       supplierMap.put(NET_SERVER, new NetServerMetricsSupplier(prefix));
     }
     if (!options.isMetricsTypeDisabled(NET_CLIENT)) {
-      supplierMap.put(NET_CLIENT, new NetClientMetricsSupplier(prefix));
+      supplierMap.put(NET_CLIENT, new NetClientMetricsSupplier(prefix, options));
     }
     if (!options.isMetricsTypeDisabled(DATAGRAM_SOCKET)) {
-      supplierMap.put(DATAGRAM_SOCKET, new DatagramSocketMetricsSupplier(prefix));
+      supplierMap.put(DATAGRAM_SOCKET, new DatagramSocketMetricsSupplier(prefix, options));
     }
     if (!options.isMetricsTypeDisabled(EVENT_BUS)) {
-      supplierMap.put(EVENT_BUS, new EventBusMetricsImpl(prefix));
+      supplierMap.put(EVENT_BUS, new EventBusMetricsImpl(prefix, options));
     }
     if (!options.isMetricsTypeDisabled(NAMED_POOLS)) {
-      supplierMap.put(NAMED_POOLS, new NamedPoolMetricsSupplier(prefix));
+      supplierMap.put(NAMED_POOLS, new NamedPoolMetricsSupplier(prefix, options));
     }
     if (!options.isMetricsTypeDisabled(VERTICLES)) {
       supplierMap.put(VERTICLES, new VerticleMetricsSupplier(prefix));
     }
     metricSuppliers = Collections.unmodifiableMap(supplierMap);
+    reporterMetrics = new ReporterMetricsSupplier(prefix);
   }
 
   @Override
-  public HttpServerMetrics<Long, Void, Void> createMetrics(HttpServer server, SocketAddress localAddress, HttpServerOptions options) {
+  public HttpServerMetrics<?, ?, ?> createMetrics(HttpServer server, SocketAddress localAddress, HttpServerOptions options) {
     HttpServerMetricsSupplier supplier = (HttpServerMetricsSupplier) metricSuppliers.get(HTTP_SERVER);
     return supplier != null ? new HttpServerMetricsImpl(localAddress, supplier) : super.createMetrics(server, localAddress, options);
   }
@@ -177,12 +181,17 @@ public class VertxMetricsImpl extends DummyVertxMetrics {
   public void eventBusInitialized(EventBus bus) {
     // Finish setup
     Context context = vertx.getOrCreateContext();
-    sender = new Sender(vertx, options, context);
-    scheduler = new Scheduler(vertx, options, context, sender);
+    sender = new Sender(vertx, options, context, reporterMetrics);
+    scheduler = new Scheduler(vertx, options, context, sender, reporterMetrics);
     metricSuppliers.values().forEach(scheduler::register);
 
-    //Configure the metrics bridge. It just transforms the received metrics (json) to a DataPoint to enqueue it.
+    //Configure the metrics bridge. It just transforms the received metrics (json) to a DataPoint to enqueue it, unless
+    //gauges are aggregated.
     if (options.isMetricsBridgeEnabled() && options.getMetricsBridgeAddress() != null) {
+      if (options.isMetricsBridgeAggregation()) {
+        metricsBridgeAggregator = new MetricsBridgeAggregator();
+        scheduler.register(metricsBridgeAggregator);
+      }
       context.runOnContext(v -> {
         bus.consumer(options.getMetricsBridgeAddress(), message -> {
           // By spec, it is a json object.
@@ -209,6 +218,11 @@ public class VertxMetricsImpl extends DummyVertxMetrics {
               dataPoint = new AvailabilityPoint(name, timestamp, json.getString("value"));
               break;
             default:
+              if (metricsBridgeAggregator != null) {
+                // Sent once per collection, the sample timestamp is not relevant
+                metricsBridgeAggregator.record(name, json.getDouble("value"));
+                return;
+              }
               dataPoint = new GaugePoint(name, timestamp, json.getDouble("value"));
           }
           sender.handle(Collections.singletonList(dataPoint));
@@ -222,6 +236,9 @@ public class VertxMetricsImpl extends DummyVertxMetrics {
   @Override
   public void close() {
     metricSuppliers.values().forEach(scheduler::unregister);
+    if (metricsBridgeAggregator != null) {
+      scheduler.unregister(metricsBridgeAggregator);
+    }
     scheduler.stop();
     sender.stop();
   }
@@ -73,6 +73,10 @@
  * {@link examples.MetricsExamples#setupRemote()}
  * ----
  *
+ * The metrics endpoint depends on the Hawkular server version. It is determined with a single `/status` request, shared
+ * by all pending batches. If the server cannot be reached, the next attempt is delayed with an exponential backoff.
+ * Once determined, the server version is checked again every five minutes.
+ *
  * === Tenant selection
  *
  * Hawkular Metrics is a multi-tenant solution, and _${maven.artifactId}_ can send metrics for a tenant other than `default`:
@@ -137,6 +141,140 @@
  * NOTE: When evaluating tags to apply, metric specific tags have higher priority than global tags.
  * In other words, a metric specific tag may overwrite a global tag.
  *
+ * === Request compression
+ *
+ * Request bodies can be compressed with gzip before they are sent to the Hawkular server:
+ *
+ * [source,$lang]
+ * ----
+ * {@link examples.MetricsExamples#setupCompression()}
+ * ----
+ *
+ * This reduces upload bandwidth at the expense of some CPU time. Compression is performed on a worker thread, so it
+ * never blocks the metrics context.
+ *
+ * === Backpressure
+ *
+ * At most `maxInFlightBatches` batch requests (defaults to `16`) can wait for a response from the Hawkular server.
+ * When the limit is reached, data points are queued, up to `maxInFlightBatches * batchSize` points
+ * (`maxInFlightBatches * maxBatchSize` when adaptive batching is enabled). Beyond that, the
+ * {@link io.vertx.ext.hawkular.OverflowPolicy} applies:
+ *
+ * - `COALESCE` (default): only the latest queued point of each metric is kept
+ * - `DROP_OLDEST`: the oldest queued points are dropped
+ * - `DROP_NEWEST`: the newest points are dropped
+ *
+ * Dropped and coalesced points are counted by the reporter metrics.
+ *
+ * === Adaptive batching
+ *
+ * With many metrics, a fixed batch size may result in a lot of small requests, or in requests the server is slow to
+ * process. With adaptive batching, the batch size changes with the observed server latency:
+ *
+ * [source,$lang]
+ * ----
+ * {@link examples.MetricsExamples#setupAdaptiveBatching()}
+ * ----
+ *
+ * Starting from `batchSize`, the size grows by `minBatchSize` points after each successful request, as long as the
+ * latency extrapolated to the larger size meets `batchLatencyTarget`. It is halved after a slower request or a failed
+ * request, but never goes below `minBatchSize` nor above `maxBatchSize`.
+ *
+ * The effective batch size is reported as the `vertx.hawkular.reporter.batchSize` gauge.
+ *
+ * === Retries
+ *
+ * Batch requests which fail because of a connection error or a server error (`5xx`) are retried with an exponential
+ * backoff. Batches rejected with a client error (`4xx`) are not retried, as the payload itself is the problem.
+ *
+ * [source,$lang]
+ * ----
+ * {@link examples.MetricsExamples#setupRetries()}
+ * ----
+ *
+ * A batch being retried keeps its slot in the in-flight window, so retries slow down the sender instead of piling up
+ * requests. Please refer to {@link io.vertx.ext.hawkular.RetryOptions} for the list of retry options.
+ *
+ * === Circuit breaker
+ *
+ * When the Hawkular server is down, a circuit breaker can stop the sender from building and sending requests:
+ *
+ * [source,$lang]
+ * ----
+ * {@link examples.MetricsExamples#setupCircuitBreaker()}
+ * ----
+ *
+ * After `failureThreshold` consecutive failed requests, the circuit opens: data points stay in the sender queue
+ * (subject to the overflow policy) and nothing is serialized nor sent. Once `probeInterval` has elapsed, the circuit
+ * is half-open and a single request is sent. If it succeeds, the circuit is closed, otherwise it opens again.
+ *
+ * The circuit breaker state is reported as the `vertx.hawkular.reporter.circuitBreaker` availability metric: `up` when
+ * closed, `down` when open and `unknown` when half-open.
+ *
+ * === Disk spool
+ *
+ * Batches which could not be sent because the Hawkular server was unavailable, even after retries, or which
+ * overflowed the sender queue, can be written to disk and replayed later:
+ *
+ * [source,$lang]
+ * ----
+ * {@link examples.MetricsExamples#setupSpool()}
+ * ----
+ *
+ * The spool is an append-only log made of memory-mapped segment files. Spooled batches are replayed in order, at a
+ * bounded rate, once the server has accepted data again. When the spool reaches its maximum size, the oldest segment
+ * is deleted. Batches older than the maximum age are discarded instead of being replayed.
+ *
+ * NOTE: Batches rejected by the server with a client error (`4xx`) status code are not spooled: sending them again
+ * would not help.
+ *
+ * Please refer to {@link io.vertx.ext.hawkular.SpoolOptions} for the list of spool options.
+ *
+ * === Event bus address metrics
+ *
+ * Event bus metrics are global, except for the handlers processing time. You can also get message counts, bytes and
+ * handler processing time percentiles per address:
+ *
+ * [source,$lang]
+ * ----
+ * {@link examples.MetricsExamples#setupAddressMetrics()}
+ * ----
+ *
+ * Only the addresses of the `addresses` list, or starting with one of the `prefixes`, are reported individually, up to
+ * `maxAddresses`. Other addresses, in particular reply addresses, are reported with the same metrics under
+ * `vertx.eventbus.otherAddresses`, which cannot be mistaken for a real address.
+ *
+ * === Route metrics
+ *
+ * HTTP server metrics are aggregated per server address. To find out which endpoints are slow or failing, you can
+ * also enable metrics per method and route:
+ *
+ * [source,$lang]
+ * ----
+ * {@link examples.MetricsExamples#setupRouteMetrics()}
+ * ----
+ *
+ * Routes are URI templates, in which path parameters are written `:name` or `{name}`, or named regular expressions.
+ * The first matching route is used, and requests which do not match any route are reported in the `other` bucket. So
+ * are requests which would create a method and route series beyond `maxSeries`: probing random URLs cannot increase
+ * the number of metrics.
+ *
+ * === Change detection
+ *
+ * Many metrics, like the counters of idle servers or the gauges of unused pools, keep the same value for long
+ * periods. With change detection, such values are not sent again at every collection:
+ *
+ * [source,$lang]
+ * ----
+ * {@link examples.MetricsExamples#setupChangeDetection()}
+ * ----
+ *
+ * Counter and gauge values equal to the last value sent for the same metric are skipped, except every
+ * `changeDetectionHeartbeat` collections (defaults to `60`), so that dashboards and alerts can tell an unchanged
+ * metric from a missing one. Availabilities are always sent.
+ *
+ * Skipped points are counted by the reporter metrics.
+ *
  * Please refer to {@link io.vertx.ext.hawkular.VertxHawkularOptions} for an exhaustive list of options.
  *
  * == Vert.x core tools metrics
@@ -167,6 +305,10 @@
  * |{@code vertx.net.client.<host>:<port>.errorCount}
  * |Total number of errors.
  *
+ * |Counter
+ * |{@code vertx.net.client.evictions}
+ * |Total number of remote hosts whose metrics were removed after being idle for `remoteIdleTimeout`.
+ *
  * |===
  *
  * === HTTP Client
@@ -209,8 +351,52 @@
  * |{@code vertx.http.client.<host>:<port>.wsConnections}
  * |Number of websockets currently opened.
  *
+ * |Counter
+ * |{@code vertx.http.client.<host>:<port>.responses.<class>}
+ * |Number of responses received from the {@code <host>:<port>} remote address, per status code class (`1xx` to `5xx`).
+ *
+ * |Counter
+ * |{@code vertx.http.client.<host>:<port>.responses.<code>}
+ * |Number of responses received from the {@code <host>:<port>} remote address, per exact status code, only present if `exactStatusCodes` is enabled.
+ *
+ * |Gauge
+ * |{@code vertx.http.client.<host>:<port>.requestWriteTime.<stat>}
+ * |Statistics of the time spent writing requests to the {@code <host>:<port>} remote address, during the last collection interval: `count`, `min`, `max` and percentiles (e.g. `p99`), in ms.
+ *
+ * |Gauge
+ * |{@code vertx.http.client.<host>:<port>.timeToFirstByte.<stat>}
+ * |Statistics of the time elapsed between the end of requests and the beginning of responses to the {@code <host>:<port>} remote address, during the last collection interval: `count`, `min`, `max` and percentiles (e.g. `p99`), in ms.
+ *
+ * |Gauge
+ * |{@code vertx.http.client.<host>:<port>.downloadTime.<stat>}
+ * |Statistics of the time spent reading response bodies to the {@code <host>:<port>} remote address, during the last collection interval: `count`, `min`, `max` and percentiles (e.g. `p99`), in ms.
+ *
+ * |Gauge
+ * |{@code vertx.http.client.<host>:<port>.maxPoolSize}
+ * |Maximum number of connections to the {@code <host>:<port>} endpoint, summed over all clients.
+ *
+ * |Gauge
+ * |{@code vertx.http.client.<host>:<port>.queueSize}
+ * |Number of requests waiting for a connection to the {@code <host>:<port>} endpoint.
+ *
+ * |Gauge
+ * |{@code vertx.http.client.<host>:<port>.poolUsage}
+ * |Ratio of pooled connections to the maximum pool size. A value close to 1, along with a growing `queueSize`, means `maxPoolSize` is too small.
+ *
+ * |Gauge
+ * |{@code vertx.http.client.<host>:<port>.queueWaitTime.<stat>}
+ * |Statistics of the time requests waited for a connection, during the last collection interval: `count`, `min`, `max` and percentiles (e.g. `p99`), in ms.
+ *
+ * |Counter
+ * |{@code vertx.http.client.evictions}
+ * |Total number of remote hosts whose metrics were removed after being idle for `remoteIdleTimeout`, and of endpoints
+ * whose connection pool metrics were removed after all their pools were closed.
+ *
  * |===
  *
+ * NOTE: The metrics of a remote host without connections for `remoteIdleTimeout` seconds (5 minutes by default) are
+ * removed, after a final value has been reported. This applies to the Net and HTTP clients.
+ *
  * === Datagram socket
  *
  * [cols="15,50,35", options="header"]
@@ -224,8 +410,28 @@
  * |Total number of bytes received on the {@code <host>:<port>} listening address.
  *
  * |Counter
+ * |{@code vertx.datagram.<host>:<port>.packetsReceived}
+ * |Total number of packets received on the {@code <host>:<port>} listening address.
+ *
+ * |Gauge
+ * |{@code vertx.datagram.<host>:<port>.receivedPacketSize.<stat>}
+ * |Statistics of the size of packets received on the {@code <host>:<port>} listening address, during the last collection interval: `count`, `min`, `max` and percentiles (e.g. `p99`), in bytes.
+ *
+ * |Counter
  * |{@code vertx.datagram.<host>:<port>.bytesSent}
- * |Total number of bytes sent to the remote host.
+ * |Total number of bytes sent to the remote host. Only reported for the first `maxDatagramRemoteAddresses` remote addresses (100 by default).
+ *
+ * |Counter
+ * |{@code vertx.datagram.bytesSent}
+ * |Total number of bytes sent.
+ *
+ * |Counter
+ * |{@code vertx.datagram.packetsSent}
+ * |Total number of packets sent.
+ *
+ * |Gauge
+ * |{@code vertx.datagram.sentPacketSize.<stat>}
+ * |Statistics of the size of packets sent, during the last collection interval: `count`, `min`, `max` and percentiles (e.g. `p99`), in bytes.
  *
  * |Counter
  * |{@code vertx.datagram.errorCount}
@@ -296,6 +502,51 @@
  * |Cumulated request processing time.
  *
  * |Gauge
+ * |{@code vertx.http.server.<host>:<port>.responseTime.count}
+ * |Number of requests processed during the last collection interval.
+ *
+ * |Gauge
+ * |{@code vertx.http.server.<host>:<port>.responseTime.min}
+ * |Minimum request processing time during the last collection interval, in ms.
+ *
+ * |Gauge
+ * |{@code vertx.http.server.<host>:<port>.responseTime.max}
+ * |Maximum request processing time during the last collection interval, in ms.
+ *
+ * |Gauge
+ * |{@code vertx.http.server.<host>:<port>.responseTime.p<percentile>}
+ * |Request processing time percentiles during the last collection interval, in ms (e.g. {@code p99}, {@code p999}
+ * for the 99th and 99.9th percentiles). See the `latencyPercentiles` option.
+ *
+ * |Counter
+ * |{@code vertx.http.server.<host>:<port>.responses.<class>}
+ * |Number of responses sent by the HTTP Server listening on the {@code <host>:<port>} address, per status code class (`1xx` to `5xx`).
+ *
+ * |Counter
+ * |{@code vertx.http.server.<host>:<port>.responses.<code>}
+ * |Number of responses sent by the HTTP Server listening on the {@code <host>:<port>} address, per exact status code, only present if `exactStatusCodes` is enabled.
+ *
+ * |Counter
+ * |{@code vertx.http.server.<host>:<port>.routes.<method>.<route>.requestCount}
+ * |Total number of requests processed. Only present if route metrics are enabled.
+ *
+ * |Counter
+ * |{@code vertx.http.server.<host>:<port>.routes.<method>.<route>.processingTime}
+ * |Cumulated request processing time, in ms. Only present if route metrics are enabled.
+ *
+ * |Counter
+ * |{@code vertx.http.server.<host>:<port>.routes.<method>.<route>.responses.<class>}
+ * |Number of responses per status code class (`1xx` to `5xx`). Only present if route metrics are enabled.
+ *
+ * |Counter
+ * |{@code vertx.http.server.<host>:<port>.routes.<method>.<route>.bytesReceived}
+ * |Total size of request bodies, if declared in the `Content-Length` header. Only present if route metrics are enabled.
+ *
+ * |Counter
+ * |{@code vertx.http.server.<host>:<port>.routes.<method>.<route>.bytesSent}
+ * |Total number of bytes written in responses. Only present if route metrics are enabled.
+ *
+ * |Gauge
  * |{@code vertx.http.client.<host>:<port>.wsConnections}
  * |Number of websockets currently opened.
  *
@@ -390,10 +641,42 @@
  * |{@code vertx.eventbus.replyFailures}
  * |Total number of message reply failures.
  *
+ * |Gauge
+ * |{@code vertx.eventbus.queueTime.<stat>}
+ * |Statistics of the time messages waited between being scheduled on the handler context and being handled, during the last collection interval: `count`, `min`, `max` and percentiles (e.g. `p99`), in ms.
+ *
  * |Counter
  * |{@code vertx.eventbus.<address>.processingTime}
  * |Cumulated processing time for handlers listening to the {@code address}.
  *
+ * |Counter
+ * |{@code vertx.eventbus.addresses.<address>.sentMessages}
+ * |Number of messages sent to the {@code address}. Only present if address metrics are enabled.
+ *
+ * |Counter
+ * |{@code vertx.eventbus.addresses.<address>.publishedMessages}
+ * |Number of messages published to the {@code address}. Only present if address metrics are enabled.
+ *
+ * |Counter
+ * |{@code vertx.eventbus.addresses.<address>.receivedMessages}
+ * |Number of messages received on the {@code address}. Only present if address metrics are enabled.
+ *
+ * |Counter
+ * |{@code vertx.eventbus.addresses.<address>.bytesWritten}
+ * |Total number of bytes sent to the {@code address}, for remote messages. Only present if address metrics are enabled.
+ *
+ * |Counter
+ * |{@code vertx.eventbus.addresses.<address>.bytesRead}
+ * |Total number of bytes received on the {@code address}, for remote messages. Only present if address metrics are enabled.
+ *
+ * |Gauge
+ * |{@code vertx.eventbus.addresses.<address>.queueTime.<stat>}
+ * |Statistics of the time messages sent to the {@code address} waited between being scheduled on the handler context and being handled, during the last collection interval: `count`, `min`, `max` and percentiles (e.g. `p99`), in ms. Only present if address metrics are enabled.
+ *
+ * |Gauge
+ * |{@code vertx.eventbus.addresses.<address>.processingLatency.<stat>}
+ * |Statistics of the processing time of handlers listening to the {@code address}, during the last collection interval: `count`, `min`, `max` and percentiles (e.g. `p99`), in ms. Only present if address metrics are enabled.
+ *
  * |===
  *
  * == Vert.x pool metrics
@@ -423,6 +706,10 @@
  * |{@code vertx.pool.<type>.<name>.queued}
  * |Current number of elements waiting for a resource.
  *
+ * |Gauge
+ * |{@code vertx.pool.<type>.<name>.queuedMax}
+ * |Maximum number of elements waiting for a resource during the last collection interval.
+ *
  * |Counter
  * |{@code vertx.pool.<type>.<name>.queueCount}
  * |Total number of elements queued.
@@ -435,18 +722,34 @@
  * |{@code vertx.pool.<type>.<name>.inUse}
  * |Current number of resources used.
  *
+ * |Gauge
+ * |{@code vertx.pool.<type>.<name>.inUseMax}
+ * |Maximum number of resources used during the last collection interval.
+ *
  * |Counter
  * |{@code vertx.pool.<type>.<name>.completed}
  * |Total number of elements done with the resource (i.e. total number of tasks executed for worker pools).
  *
  * |Gauge
+ * |{@code vertx.pool.<type>.<name>.delayTime.<stat>}
+ * |Statistics of the time waiting for a resource, during the last collection interval: `count`, `min`, `max` and percentiles (e.g. `p99`), in ms.
+ *
+ * |Gauge
+ * |{@code vertx.pool.<type>.<name>.usageTime.<stat>}
+ * |Statistics of the time using a resource, during the last collection interval: `count`, `min`, `max` and percentiles (e.g. `p99`), in ms.
+ *
+ * |Gauge
  * |{@code vertx.pool.<type>.<name>.maxPoolSize}
  * |Maximum pool size, only present if it could be determined.
  *
  * |Gauge
- * |{@code vertx.pool.<type>.<name>.inUse}
+ * |{@code vertx.pool.<type>.<name>.poolRatio}
  * |Pool usage ratio, only present if maximum pool size could be determined.
  *
+ * |Gauge
+ * |{@code vertx.pool.<type>.<name>.poolRatioMax}
+ * |Maximum pool usage ratio during the last collection interval, only present if maximum pool size could be determined. A value of `1` means the pool was saturated.
+ *
  * |===
  *
  * == Verticle metrics
@@ -463,6 +766,130 @@
  *
  * |===
  *
+ * == Reporter metrics
+ *
+ * _${maven.artifactId}_ also reports metrics about itself.
+ *
+ * [cols="15,50,35", options="header"]
+ * |===
+ * |Metric type
+ * |Metric name
+ * |Description
+ *
+ * |Counter
+ * |{@code vertx.hawkular.reporter.collectionTime.<supplier>}
+ * |Cumulated time spent collecting metrics from a supplier (e.g. `httpServer`, `eventBus`), in ms.
+ *
+ * |Counter
+ * |{@code vertx.hawkular.reporter.serializationTime}
+ * |Cumulated time spent serializing batches to JSON, in ms.
+ *
+ * |Counter
+ * |{@code vertx.hawkular.reporter.payloadBytes}
+ * |Total size of batch request bodies sent, in bytes (after compression, if enabled).
+ *
+ * |Counter
+ * |{@code vertx.hawkular.reporter.batches}
+ * |Number of batches sent.
+ *
+ * |Gauge
+ * |{@code vertx.hawkular.reporter.pointsPerBatch}
+ * |Average number of data points per batch.
+ *
+ * |Counter
+ * |{@code vertx.hawkular.reporter.sendTime}
+ * |Cumulated time elapsed between batch requests and their responses, in ms.
+ *
+ * |Gauge
+ * |{@code vertx.hawkular.reporter.sendLatency}
+ * |Average time elapsed between a batch request and its response, in ms.
+ *
+ * |Counter
+ * |{@code vertx.hawkular.reporter.responses.<class>}
+ * |Number of batch responses per status code class (`2xx`, `3xx`, `4xx`, `5xx`), or `error` for requests that failed without a response.
+ *
+ * |Gauge
+ * |{@code vertx.hawkular.reporter.queueSize}
+ * |Number of data points waiting in the sender queue.
+ *
+ * |Gauge
+ * |{@code vertx.hawkular.reporter.tagCacheHitRatio}
+ * |Ratio of data points whose metric was found in the tagged metrics cache.
+ *
+ * |Counter
+ * |{@code vertx.hawkular.reporter.uncompressedBytes}
+ * |Total size of request bodies before compression, in bytes.
+ *
+ * |Counter
+ * |{@code vertx.hawkular.reporter.compressedBytes}
+ * |Total size of request bodies after compression, in bytes.
+ *
+ * |Gauge
+ * |{@code vertx.hawkular.reporter.compressionRatio}
+ * |Ratio of compressed to uncompressed bytes, only present if compression is enabled.
+ *
+ * |Counter
+ * |{@code vertx.hawkular.reporter.compressionTime}
+ * |Cumulated CPU time spent compressing request bodies, in ms.
+ *
+ * |Counter
+ * |{@code vertx.hawkular.reporter.droppedPoints}
+ * |Number of data points dropped because the sender queue was full.
+ *
+ * |Counter
+ * |{@code vertx.hawkular.reporter.coalescedPoints}
+ * |Number of data points coalesced because the sender queue was full.
+ *
+ * |Counter
+ * |{@code vertx.hawkular.reporter.suppressedPoints}
+ * |Number of data points skipped by change detection because their value has not changed.
+ *
+ * |Gauge
+ * |{@code vertx.hawkular.reporter.suppressedBytes}
+ * |Estimated upload volume saved by change detection, in bytes, based on the average size of a point sent.
+ *
+ * |Counter
+ * |{@code vertx.hawkular.reporter.spooledBatches}
+ * |Number of batches written to the disk spool.
+ *
+ * |Counter
+ * |{@code vertx.hawkular.reporter.replayedBatches}
+ * |Number of spooled batches successfully replayed.
+ *
+ * |Counter
+ * |{@code vertx.hawkular.reporter.spoolDiscardedBatches}
+ * |Number of spooled batches discarded because they were too large or too old, or because the spool was full.
+ *
+ * |Gauge
+ * |{@code vertx.hawkular.reporter.spoolSize}
+ * |Size of the unconsumed spooled data, in bytes.
+ *
+ * |Counter
+ * |{@code vertx.hawkular.reporter.retries}
+ * |Number of batch request retries.
+ *
+ * |Counter
+ * |{@code vertx.hawkular.reporter.retryGiveUps}
+ * |Number of batch requests given up after the last attempt failed.
+ *
+ * |Counter
+ * |{@code vertx.hawkular.reporter.retryTime}
+ * |Cumulated time spent retrying batch requests, in ms.
+ *
+ * |Counter
+ * |{@code vertx.hawkular.reporter.rejectedBatches}
+ * |Number of batches rejected by the server with a client error status code.
+ *
+ * |Gauge
+ * |{@code vertx.hawkular.reporter.batchSize}
+ * |Effective batch size.
+ *
+ * |Availability
+ * |{@code vertx.hawkular.reporter.circuitBreaker}
+ * |Circuit breaker state, only present if the circuit breaker is enabled.
+ *
+ * |===
+ *
  * == User defined metrics
  *
  * Users can send their own metrics to the Hawkular server. In order to do so, the event bus metrics bridge must be
@@ -499,6 +926,39 @@
  *
  * NOTE: Hawkular understands all timestamps as milliseconds since January 1, 1970, 00:00:00 UTC.
  *
+ * If gauges are published at a high rate, you can let the bridge aggregate them instead of sending every sample:
+ *
+ * [source,$lang]
+ * ----
+ * {@link examples.MetricsExamples#aggregateMetricsBridge()}
+ * ----
+ *
+ * Then, at every collection, the samples of each gauge received during the interval are reported as:
+ *
+ * [cols="15,50", options="header"]
+ * |===
+ * |Metric name
+ * |Description
+ *
+ * |{@code <id>.min}
+ * |Smallest sample value.
+ *
+ * |{@code <id>.max}
+ * |Largest sample value.
+ *
+ * |{@code <id>.avg}
+ * |Mean of the sample values.
+ *
+ * |{@code <id>.count}
+ * |Number of samples.
+ *
+ * |{@code <id>.last}
+ * |Value of the latest sample.
+ *
+ * |===
+ *
+ * The {@code timestamp} of the samples is ignored. Counters and availabilities are always sent as they come.
+ *
  */
 @ModuleGen(name = "vertx-hawkular", groupPackage = "io.vertx")
 @Document(fileName = "index.adoc") package io.vertx.ext.hawkular;
@@ -0,0 +1,37 @@
+package io.vertx.kotlin.ext.hawkular
+
+import io.vertx.ext.hawkular.AddressMetricsOptions
+
+/**
+ * A function providing a DSL for building [io.vertx.ext.hawkular.AddressMetricsOptions] objects.
+ *
+ * Configuration of the per-address event bus metrics.
+ *
+ * @param addresses  Set the addresses reported individually.
+ * @param enabled  Set whether event bus metrics should also be reported per address. Defaults to <code>false</code>.
+ * @param maxAddresses  Set the maximum number of addresses reported individually. Beyond that, messages are reported in the <code>other</code> bucket. Defaults to <code>100</code>.
+ * @param prefixes  Set the prefixes of the addresses reported individually.
+ *
+ * <p/>
+ * NOTE: This function has been automatically generated from the [io.vertx.ext.hawkular.AddressMetricsOptions original] using Vert.x codegen.
+ */
+fun AddressMetricsOptions(
+  addresses: Iterable<String>? = null,
+  enabled: Boolean? = null,
+  maxAddresses: Int? = null,
+  prefixes: Iterable<String>? = null): AddressMetricsOptions = io.vertx.ext.hawkular.AddressMetricsOptions().apply {
+
+  if (addresses != null) {
+    this.setAddresses(addresses.toList())
+  }
+  if (enabled != null) {
+    this.setEnabled(enabled)
+  }
+  if (maxAddresses != null) {
+    this.setMaxAddresses(maxAddresses)
+  }
+  if (prefixes != null) {
+    this.setPrefixes(prefixes.toList())
+  }
+}
+
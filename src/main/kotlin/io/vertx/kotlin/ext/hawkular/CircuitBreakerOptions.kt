@@ -0,0 +1,32 @@
+package io.vertx.kotlin.ext.hawkular
+
+import io.vertx.ext.hawkular.CircuitBreakerOptions
+
+/**
+ * A function providing a DSL for building [io.vertx.ext.hawkular.CircuitBreakerOptions] objects.
+ *
+ * Options for the circuit breaker which stops sending requests to the Hawkular server while it is unavailable.
+ *
+ * @param enabled  Set whether the circuit breaker is enabled. Defaults to <code>false</code>.
+ * @param failureThreshold  Set the number of consecutive failed requests which opens the circuit. Defaults to <code>5</code>.
+ * @param probeInterval  Set the delay before a probe request is sent when the circuit is open (in ms). If the probe succeeds, the circuit is closed, otherwise it stays open for another interval. Defaults to <code>10000</code>.
+ *
+ * <p/>
+ * NOTE: This function has been automatically generated from the [io.vertx.ext.hawkular.CircuitBreakerOptions original] using Vert.x codegen.
+ */
+fun CircuitBreakerOptions(
+  enabled: Boolean? = null,
+  failureThreshold: Int? = null,
+  probeInterval: Long? = null): CircuitBreakerOptions = io.vertx.ext.hawkular.CircuitBreakerOptions().apply {
+
+  if (enabled != null) {
+    this.setEnabled(enabled)
+  }
+  if (failureThreshold != null) {
+    this.setFailureThreshold(failureThreshold)
+  }
+  if (probeInterval != null) {
+    this.setProbeInterval(probeInterval)
+  }
+}
+
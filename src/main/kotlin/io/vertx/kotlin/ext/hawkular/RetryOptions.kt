@@ -0,0 +1,37 @@
+package io.vertx.kotlin.ext.hawkular
+
+import io.vertx.ext.hawkular.RetryOptions
+
+/**
+ * A function providing a DSL for building [io.vertx.ext.hawkular.RetryOptions] objects.
+ *
+ * Options for retrying batch requests which failed because of a connection error or a server error.
+ *
+ * @param baseDelay  Set the delay before the first retry (in ms). The delay doubles after each failed attempt. Defaults to <code>500</code>.
+ * @param jitter  Set the jitter ratio applied to retry delays, between <code>0</code> and <code>1</code>. Each delay is reduced by a random fraction of itself, up to this ratio, so that instances do not retry all at once. Defaults to <code>0.2</code>.
+ * @param maxAttempts  Set the maximum number of attempts to send a batch, including the first one. Set to <code>1</code> to disable retries. Defaults to <code>3</code>.
+ * @param maxDelay  Set the maximum delay between two attempts (in ms). Defaults to <code>10000</code>.
+ *
+ * <p/>
+ * NOTE: This function has been automatically generated from the [io.vertx.ext.hawkular.RetryOptions original] using Vert.x codegen.
+ */
+fun RetryOptions(
+  baseDelay: Long? = null,
+  jitter: Double? = null,
+  maxAttempts: Int? = null,
+  maxDelay: Long? = null): RetryOptions = io.vertx.ext.hawkular.RetryOptions().apply {
+
+  if (baseDelay != null) {
+    this.setBaseDelay(baseDelay)
+  }
+  if (jitter != null) {
+    this.setJitter(jitter)
+  }
+  if (maxAttempts != null) {
+    this.setMaxAttempts(maxAttempts)
+  }
+  if (maxDelay != null) {
+    this.setMaxDelay(maxDelay)
+  }
+}
+
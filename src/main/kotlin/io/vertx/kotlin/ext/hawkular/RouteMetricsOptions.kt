@@ -0,0 +1,37 @@
+package io.vertx.kotlin.ext.hawkular
+
+import io.vertx.ext.hawkular.RouteMetricsOptions
+
+/**
+ * A function providing a DSL for building [io.vertx.ext.hawkular.RouteMetricsOptions] objects.
+ *
+ * Configuration of the per-route HTTP server metrics.
+ *
+ * @param enabled  Set whether HTTP server metrics should also be reported per method and route. Defaults to <code>false</code>.
+ * @param maxSeries  Set the maximum number of method and route combinations reported per server. Beyond that, requests are reported in the <code>other</code> bucket. Defaults to <code>100</code>.
+ * @param patterns  Set routes defined by a regular expression, keyed by route name, for example <code>{"users": "/users/[0-9]+"}</code>. Patterns are tried after URI templates.
+ * @param routes  Set the URI templates of the routes, for example <code>/users/:id</code>. Path parameters are written <code>:name</code> or <code>{name}</code>, and a trailing <code>*</code> matches any remainder of the path.
+ *
+ * <p/>
+ * NOTE: This function has been automatically generated from the [io.vertx.ext.hawkular.RouteMetricsOptions original] using Vert.x codegen.
+ */
+fun RouteMetricsOptions(
+  enabled: Boolean? = null,
+  maxSeries: Int? = null,
+  patterns: io.vertx.core.json.JsonObject? = null,
+  routes: Iterable<String>? = null): RouteMetricsOptions = io.vertx.ext.hawkular.RouteMetricsOptions().apply {
+
+  if (enabled != null) {
+    this.setEnabled(enabled)
+  }
+  if (maxSeries != null) {
+    this.setMaxSeries(maxSeries)
+  }
+  if (patterns != null) {
+    this.setPatterns(patterns)
+  }
+  if (routes != null) {
+    this.setRoutes(routes.toList())
+  }
+}
+
@@ -0,0 +1,47 @@
+package io.vertx.kotlin.ext.hawkular
+
+import io.vertx.ext.hawkular.SpoolOptions
+
+/**
+ * A function providing a DSL for building [io.vertx.ext.hawkular.SpoolOptions] objects.
+ *
+ * Disk spool options. When enabled, batches which could not be sent to the Hawkular server, or which overflowed the sender queue, are written to disk and replayed once the server is reachable again.
+ *
+ * @param directory  Set the directory where spool segments are stored. It must not be shared with another Vert.x instance. Defaults to <code>vertx-hawkular-spool</code>.
+ * @param enabled  Set whether the disk spool is enabled. Defaults to <code>false</code>.
+ * @param maxAge  Set the maximum age of spooled batches (in seconds). Older batches are discarded instead of being replayed. Defaults to <code>86400</code> (one day).
+ * @param maxSize  Set the maximum size of the spool, in bytes. When the limit is reached, the oldest segment is deleted. Defaults to 64 MiB.
+ * @param replayRate  Set the maximum number of spooled batches replayed per second. Defaults to <code>10</code>.
+ * @param segmentSize  Set the size of a spool segment file, in bytes. Batches larger than a segment are not spooled, so it should be well above the size of an encoded batch. Must be at least 1 KiB. Defaults to 4 MiB.
+ *
+ * <p/>
+ * NOTE: This function has been automatically generated from the [io.vertx.ext.hawkular.SpoolOptions original] using Vert.x codegen.
+ */
+fun SpoolOptions(
+  directory: String? = null,
+  enabled: Boolean? = null,
+  maxAge: Int? = null,
+  maxSize: Long? = null,
+  replayRate: Int? = null,
+  segmentSize: Int? = null): SpoolOptions = io.vertx.ext.hawkular.SpoolOptions().apply {
+
+  if (directory != null) {
+    this.setDirectory(directory)
+  }
+  if (enabled != null) {
+    this.setEnabled(enabled)
+  }
+  if (maxAge != null) {
+    this.setMaxAge(maxAge)
+  }
+  if (maxSize != null) {
+    this.setMaxSize(maxSize)
+  }
+  if (replayRate != null) {
+    this.setReplayRate(replayRate)
+  }
+  if (segmentSize != null) {
+    this.setSegmentSize(segmentSize)
+  }
+}
+
@@ -1,32 +1,57 @@
 package io.vertx.kotlin.ext.hawkular
 
-import io.vertx.ext.hawkular.VertxHawkularOptions
 import io.vertx.core.http.HttpClientOptions
+import io.vertx.ext.hawkular.AddressMetricsOptions
 import io.vertx.ext.hawkular.AuthenticationOptions
+import io.vertx.ext.hawkular.CircuitBreakerOptions
 import io.vertx.ext.hawkular.MetricTagsMatch
 import io.vertx.ext.hawkular.MetricsType
+import io.vertx.ext.hawkular.OverflowPolicy
+import io.vertx.ext.hawkular.RetryOptions
+import io.vertx.ext.hawkular.RouteMetricsOptions
+import io.vertx.ext.hawkular.SpoolOptions
+import io.vertx.ext.hawkular.VertxHawkularOptions
 
 /**
  * A function providing a DSL for building [io.vertx.ext.hawkular.VertxHawkularOptions] objects.
  *
  * Vert.x Hawkular monitoring configuration.
  *
+ * @param adaptiveBatching  Set whether the batch size should adapt to the observed server latency. When enabled, the batch size grows as long as requests complete within <code>batchLatencyTarget</code>, and is halved when they do not, or when they fail. It always stays between <code>minBatchSize</code> and <code>maxBatchSize</code>, and starts at <code>batchSize</code>. Defaults to <code>false</code>.
+ * @param addressMetricsOptions  Set the options for the per-address event bus metrics.
  * @param authenticationOptions  Set the options for authentication.
  * @param batchDelay  Set the maximum delay between two consecutive batches (in seconds). To reduce the number of HTTP exchanges, metric data is sent to the Hawkular server in batches. A batch is sent as soon as the number of metrics collected reaches the configured <code>batchSize</code>, or after the <code>batchDelay</code> expires. Defaults to <code>1</code> second.
+ * @param batchLatencyTarget  Set the target for batch request latency (in ms), when adaptive batching is enabled. Defaults to <code>500</code>.
  * @param batchSize  Set the maximum number of metrics in a batch. To reduce the number of HTTP exchanges, metric data is sent to the Hawkular server in batches. A batch is sent as soon as the number of metrics collected reaches the configured <code>batchSize</code>, or after the <code>batchDelay</code> expires. Defaults to <code>50</code>.
+ * @param changeDetectionEnabled  Set whether values which have not changed since they were last sent should be skipped, except every <code>changeDetectionHeartbeat</code> collections. Defaults to <code>false</code>.
+ * @param changeDetectionHeartbeat  Set the number of collections after which an unchanged value is sent again, when change detection is enabled. Defaults to <code>60</code>.
+ * @param circuitBreakerOptions  Set the options for the circuit breaker.
+ * @param compressionEnabled  Set whether request bodies sent to the Hawkular server should be compressed with gzip. This reduces upload bandwidth at the expense of some CPU time, which is spent on a worker thread. Defaults to <code>false</code>.
  * @param disabledMetricsTypes  Sets metrics types that are disabled.
  * @param enabled  Set whether metrics will be enabled on the Vert.x instance. Metrics are not enabled by default.
+ * @param exactStatusCodes  Set whether HTTP server and client responses should also be counted per exact status code, in addition to status code classes. Defaults to <code>false</code>.
  * @param host  Set the Hawkular Metrics service host. Defaults to <code>localhost</code>.
  * @param httpHeaders  Set specific headers to include in HTTP requests.
  * @param httpOptions  Set the configuration of the Hawkular Metrics HTTP client.
+ * @param latencyPercentiles  Set the latency percentiles reported for each collection interval, for example <code>99.9</code> for the 99.9th percentile. Defaults to <code>[50, 95, 99, 99.9]</code>.
+ * @param maxBatchSize  Set the maximum number of metrics in a batch, when adaptive batching is enabled. Defaults to <code>2000</code>.
+ * @param maxDatagramRemoteAddresses  Set the maximum number of remote addresses for which datagram socket sent bytes are reported individually. Datagrams sent to other addresses are only counted in the totals. Set to <code>0</code> to disable per remote address metrics. Defaults to <code>100</code>.
+ * @param maxInFlightBatches  Set the maximum number of batch requests waiting for a response from the Hawkular server. When the limit is reached, data points are queued, up to <code>maxInFlightBatches * batchSize</code> points. Beyond that, the <code>overflowPolicy</code> applies. Defaults to <code>16</code>.
  * @param metricTagsMatches  Sets a list of [io.vertx.ext.hawkular.MetricTagsMatch].
  * @param metricsBridgeAddress  Sets the metric bridge address on which the application is sending the custom metrics. Application can send metrics to this event bus address. The message is a JSON object specifying at least the <code>id</code> and <code>value</code> fields. <p/> Don't forget to also enable the bridge with <code>metricsBridgeEnabled</code>.
+ * @param metricsBridgeAggregation  Set whether gauges received by the metrics bridge should be aggregated, instead of being sent as they come. Samples of the same metric are folded into min, max, avg, count and last values, sent once per collection. Defaults to <code>false</code>.
  * @param metricsBridgeEnabled  Sets whether or not the metrics bridge should be enabled. The metrics bridge is disabled by default.
  * @param metricsServiceUri  Set the Hawkular Metrics service URI. Defaults to <code>/hawkular/metrics</code>. This can be useful if you host the Hawkular server behind a proxy and manipulate the default service URI.
+ * @param minBatchSize  Set the minimum number of metrics in a batch, when adaptive batching is enabled. Defaults to <code>10</code>.
+ * @param overflowPolicy  Set the policy applied when the sender queue is full. Defaults to <code>COALESCE</code>.
  * @param port  Set the Hawkular Metrics service port.  Defaults to <code>8080</code>.
  * @param prefix  Set the metric name prefix. Metric names are not prefixed by default. Prefixing metric names is required to distinguish data sent by different Vert.x instances.
+ * @param remoteIdleTimeout  Set the time (in seconds) after which the metrics of a client remote address without connections are removed. A final value is reported before removal. Counters are summed over all clients, and keep increasing when a client closes or connects again. Set to <code>0</code> to keep them forever. Defaults to <code>300</code>.
+ * @param retryOptions  Set the options for retrying failed batch requests.
+ * @param routeMetricsOptions  Set the options for the per-route HTTP server metrics.
  * @param schedule  Set the metric collection interval (in seconds). Defaults to <code>1</code>.
  * @param sendTenantHeader  Set whether Hawkular tenant header should be sent. Defaults to <code>true</code>. Must be set to <code>false</code> when working with pre-Alpha13 Hawkular servers.
+ * @param spoolOptions  Set the options for the disk spool.
  * @param taggedMetricsCacheSize  Set the number of metric names to cache in order to avoid repeated tagging requests.
  * @param tags  Set tags applied to all metrics.
  * @param tenant  Set the Hawkular tenant. Defaults to <code>default</code>.
@@ -35,41 +60,84 @@ import io.vertx.ext.hawkular.MetricsType
  * NOTE: This function has been automatically generated from the [io.vertx.ext.hawkular.VertxHawkularOptions original] using Vert.x codegen.
  */
 fun VertxHawkularOptions(
+  adaptiveBatching: Boolean? = null,
+  addressMetricsOptions: io.vertx.ext.hawkular.AddressMetricsOptions? = null,
   authenticationOptions: io.vertx.ext.hawkular.AuthenticationOptions? = null,
   batchDelay: Int? = null,
+  batchLatencyTarget: Long? = null,
   batchSize: Int? = null,
+  changeDetectionEnabled: Boolean? = null,
+  changeDetectionHeartbeat: Int? = null,
+  circuitBreakerOptions: io.vertx.ext.hawkular.CircuitBreakerOptions? = null,
+  compressionEnabled: Boolean? = null,
   disabledMetricsTypes: Iterable<MetricsType>? = null,
   enabled: Boolean? = null,
+  exactStatusCodes: Boolean? = null,
   host: String? = null,
   httpHeaders: io.vertx.core.json.JsonObject? = null,
   httpOptions: io.vertx.core.http.HttpClientOptions? = null,
+  latencyPercentiles: Iterable<Double>? = null,
+  maxBatchSize: Int? = null,
+  maxDatagramRemoteAddresses: Int? = null,
+  maxInFlightBatches: Int? = null,
   metricTagsMatches: Iterable<io.vertx.ext.hawkular.MetricTagsMatch>? = null,
   metricsBridgeAddress: String? = null,
+  metricsBridgeAggregation: Boolean? = null,
   metricsBridgeEnabled: Boolean? = null,
   metricsServiceUri: String? = null,
+  minBatchSize: Int? = null,
+  overflowPolicy: OverflowPolicy? = null,
   port: Int? = null,
   prefix: String? = null,
+  remoteIdleTimeout: Int? = null,
+  retryOptions: io.vertx.ext.hawkular.RetryOptions? = null,
+  routeMetricsOptions: io.vertx.ext.hawkular.RouteMetricsOptions? = null,
   schedule: Int? = null,
   sendTenantHeader: Boolean? = null,
+  spoolOptions: io.vertx.ext.hawkular.SpoolOptions? = null,
   taggedMetricsCacheSize: Int? = null,
   tags: io.vertx.core.json.JsonObject? = null,
   tenant: String? = null): VertxHawkularOptions = io.vertx.ext.hawkular.VertxHawkularOptions().apply {
 
+  if (adaptiveBatching != null) {
+    this.setAdaptiveBatching(adaptiveBatching)
+  }
+  if (addressMetricsOptions != null) {
+    this.setAddressMetricsOptions(addressMetricsOptions)
+  }
   if (authenticationOptions != null) {
     this.setAuthenticationOptions(authenticationOptions)
   }
   if (batchDelay != null) {
     this.setBatchDelay(batchDelay)
   }
+  if (batchLatencyTarget != null) {
+    this.setBatchLatencyTarget(batchLatencyTarget)
+  }
   if (batchSize != null) {
     this.setBatchSize(batchSize)
   }
+  if (changeDetectionEnabled != null) {
+    this.setChangeDetectionEnabled(changeDetectionEnabled)
+  }
+  if (changeDetectionHeartbeat != null) {
+    this.setChangeDetectionHeartbeat(changeDetectionHeartbeat)
+  }
+  if (circuitBreakerOptions != null) {
+    this.setCircuitBreakerOptions(circuitBreakerOptions)
+  }
+  if (compressionEnabled != null) {
+    this.setCompressionEnabled(compressionEnabled)
+  }
   if (disabledMetricsTypes != null) {
     this.setDisabledMetricsTypes(disabledMetricsTypes.toSet())
   }
   if (enabled != null) {
     this.setEnabled(enabled)
   }
+  if (exactStatusCodes != null) {
+    this.setExactStatusCodes(exactStatusCodes)
+  }
   if (host != null) {
     this.setHost(host)
   }
@@ -79,30 +147,63 @@ fun VertxHawkularOptions(
   if (httpOptions != null) {
     this.setHttpOptions(httpOptions)
   }
+  if (latencyPercentiles != null) {
+    this.setLatencyPercentiles(latencyPercentiles.toList())
+  }
+  if (maxBatchSize != null) {
+    this.setMaxBatchSize(maxBatchSize)
+  }
+  if (maxDatagramRemoteAddresses != null) {
+    this.setMaxDatagramRemoteAddresses(maxDatagramRemoteAddresses)
+  }
+  if (maxInFlightBatches != null) {
+    this.setMaxInFlightBatches(maxInFlightBatches)
+  }
   if (metricTagsMatches != null) {
     this.setMetricTagsMatches(metricTagsMatches.toList())
   }
   if (metricsBridgeAddress != null) {
     this.setMetricsBridgeAddress(metricsBridgeAddress)
   }
+  if (metricsBridgeAggregation != null) {
+    this.setMetricsBridgeAggregation(metricsBridgeAggregation)
+  }
   if (metricsBridgeEnabled != null) {
     this.setMetricsBridgeEnabled(metricsBridgeEnabled)
   }
   if (metricsServiceUri != null) {
     this.setMetricsServiceUri(metricsServiceUri)
   }
+  if (minBatchSize != null) {
+    this.setMinBatchSize(minBatchSize)
+  }
+  if (overflowPolicy != null) {
+    this.setOverflowPolicy(overflowPolicy)
+  }
   if (port != null) {
     this.setPort(port)
   }
   if (prefix != null) {
     this.setPrefix(prefix)
   }
+  if (remoteIdleTimeout != null) {
+    this.setRemoteIdleTimeout(remoteIdleTimeout)
+  }
+  if (retryOptions != null) {
+    this.setRetryOptions(retryOptions)
+  }
+  if (routeMetricsOptions != null) {
+    this.setRouteMetricsOptions(routeMetricsOptions)
+  }
   if (schedule != null) {
     this.setSchedule(schedule)
   }
   if (sendTenantHeader != null) {
     this.setSendTenantHeader(sendTenantHeader)
   }
+  if (spoolOptions != null) {
+    this.setSpoolOptions(spoolOptions)
+  }
   if (taggedMetricsCacheSize != null) {
     this.setTaggedMetricsCacheSize(taggedMetricsCacheSize)
   }
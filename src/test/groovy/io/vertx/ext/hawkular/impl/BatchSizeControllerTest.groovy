@@ -0,0 +1,79 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl
+
+import io.vertx.ext.hawkular.VertxHawkularOptions
+import org.junit.Test
+
+import static java.util.concurrent.TimeUnit.*
+import static org.junit.Assert.*
+
+/**
+ * @author Thomas Segismont
+ */
+class BatchSizeControllerTest {
+
+  def reporterMetrics = new ReporterMetricsSupplier('')
+
+  def options = new VertxHawkularOptions()
+    .setAdaptiveBatching(true)
+    .setBatchSize(50)
+    .setMinBatchSize(10)
+    .setMaxBatchSize(100)
+    .setBatchLatencyTarget(100)
+
+  @Test
+  void testFixedSize() {
+    def controller = new BatchSizeController(options.setAdaptiveBatching(false), reporterMetrics)
+    controller.succeeded(50, 1)
+    controller.failed()
+    assertEquals(50, controller.batchSize())
+    assertEquals(50, controller.maxBatchSize())
+  }
+
+  @Test
+  void testAdditiveIncrease() {
+    def controller = new BatchSizeController(options, reporterMetrics)
+    controller.succeeded(50, NANOSECONDS.convert(10, MILLISECONDS))
+    assertEquals(60, controller.batchSize())
+    // Partial batches are ignored
+    controller.succeeded(20, NANOSECONDS.convert(10, MILLISECONDS))
+    assertEquals(60, controller.batchSize())
+    10.times { controller.succeeded(controller.batchSize(), NANOSECONDS.convert(10, MILLISECONDS)) }
+    assertEquals(100, controller.batchSize())
+    assertEquals(100D, reporterMetrics.collect().find { it.name == 'vertx.hawkular.reporter.batchSize' }.value, 0D)
+  }
+
+  @Test
+  void testNoIncreaseIfTargetWouldBeMissed() {
+    def controller = new BatchSizeController(options, reporterMetrics)
+    // 1.9 ms per point, 60 points would take 114 ms
+    controller.succeeded(50, NANOSECONDS.convert(95, MILLISECONDS))
+    assertEquals(50, controller.batchSize())
+  }
+
+  @Test
+  void testMultiplicativeDecrease() {
+    def controller = new BatchSizeController(options, reporterMetrics)
+    controller.succeeded(50, NANOSECONDS.convert(200, MILLISECONDS))
+    assertEquals(25, controller.batchSize())
+    controller.failed()
+    assertEquals(12, controller.batchSize())
+    controller.failed()
+    assertEquals(10, controller.batchSize())
+  }
+}
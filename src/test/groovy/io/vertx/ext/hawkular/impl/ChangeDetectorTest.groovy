@@ -0,0 +1,95 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl
+
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+/**
+ * @author Thomas Segismont
+ */
+class ChangeDetectorTest {
+
+  def reporterMetrics = new ReporterMetricsSupplier('')
+
+  @Test
+  void testSkipUnchangedValues() {
+    def detector = new ChangeDetector(60, reporterMetrics)
+    detector.tick()
+    assertEquals(['a', 'b', 'c'], detector.filter(points(1, 2.5d, 'up'))*.name)
+    detector.tick()
+    assertEquals(['c'], detector.filter(points(1, 2.5d, 'up'))*.name)
+    detector.tick()
+    assertEquals(['a', 'c'], detector.filter(points(2, 2.5d, 'up'))*.name)
+    detector.tick()
+    assertEquals(['b', 'c'], detector.filter(points(2, 3d, 'up'))*.name)
+    assertEquals(4, suppressedPoints())
+  }
+
+  @Test
+  void testHeartbeat() {
+    def detector = new ChangeDetector(3, reporterMetrics)
+    def sent = (1..7).collect {
+      detector.tick()
+      detector.filter([new CounterPoint('a', it, 5L)]).size()
+    }
+    assertEquals([1, 0, 0, 1, 0, 0, 1], sent)
+  }
+
+  @Test
+  void testUnchangedListWhenNothingSkipped() {
+    def detector = new ChangeDetector(60, reporterMetrics)
+    detector.tick()
+    def dataPoints = points(1, 1d, 'up')
+    assertSame(dataPoints, detector.filter(dataPoints))
+  }
+
+  @Test
+  void testPurgeStaleMetrics() {
+    def detector = new ChangeDetector(2, reporterMetrics)
+    detector.tick()
+    detector.filter((0..<100).collect { new CounterPoint("old.${it}", 0, 0L) })
+    3.times { detector.tick() }
+    // Growing the map drops the metrics not seen for a heartbeat
+    detector.filter((0..<100).collect { new CounterPoint("new.${it}", 0, 0L) })
+    assertTrue(detector.size() < 200)
+    detector.tick()
+    assertTrue(detector.filter((0..<100).collect { new CounterPoint("new.${it}", 0, 0L) }).isEmpty())
+  }
+
+  @Test
+  void testSuppressedBytes() {
+    def detector = new ChangeDetector(60, reporterMetrics)
+    reporterMetrics.batch(10)
+    reporterMetrics.sent(1000)
+    2.times {
+      detector.tick()
+      detector.filter(points(1, 1d, 'up'))
+    }
+    def suppressedBytes = reporterMetrics.collect().find { it.name == 'vertx.hawkular.reporter.suppressedBytes' }
+    assertEquals(200, suppressedBytes.value as long)
+  }
+
+  private static List<DataPoint> points(long counter, double gauge, String availability) {
+    [new CounterPoint('a', 0, counter), new GaugePoint('b', 0, gauge), new AvailabilityPoint('c', 0, availability)]
+  }
+
+  private long suppressedPoints() {
+    reporterMetrics.collect().find { it.name == 'vertx.hawkular.reporter.suppressedPoints' }.value
+  }
+}
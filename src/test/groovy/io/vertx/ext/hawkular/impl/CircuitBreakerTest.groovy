@@ -0,0 +1,75 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl
+
+import io.vertx.ext.hawkular.CircuitBreakerOptions
+import org.junit.Test
+
+import static io.vertx.ext.hawkular.impl.CircuitBreaker.State.*
+import static org.junit.Assert.*
+
+/**
+ * @author Thomas Segismont
+ */
+class CircuitBreakerTest {
+
+  def reporterMetrics = new ReporterMetricsSupplier('')
+
+  @Test
+  void testOpensAfterConsecutiveFailures() {
+    def breaker = new CircuitBreaker(new CircuitBreakerOptions().setFailureThreshold(3).setProbeInterval(60000), reporterMetrics)
+    2.times {
+      assertTrue(breaker.allowRequest())
+      breaker.onFailure()
+    }
+    breaker.onSuccess()
+    3.times {
+      assertTrue(breaker.allowRequest())
+      breaker.onFailure()
+    }
+    assertEquals(OPEN, breaker.state())
+    assertFalse(breaker.allowRequest())
+    assertTrue(breaker.remainingOpenTime() > 0)
+    assertEquals('down', state())
+  }
+
+  @Test
+  void testHalfOpenProbe() {
+    def breaker = new CircuitBreaker(new CircuitBreakerOptions().setFailureThreshold(1).setProbeInterval(0), reporterMetrics)
+    breaker.onFailure()
+    assertEquals(OPEN, breaker.state())
+
+    assertTrue(breaker.allowRequest())
+    assertEquals(HALF_OPEN, breaker.state())
+    assertEquals('unknown', state())
+    // Only one probe at a time
+    assertFalse(breaker.allowRequest())
+    breaker.onFailure()
+    assertEquals(OPEN, breaker.state())
+
+    assertTrue(breaker.allowRequest())
+    breaker.onSuccess()
+    assertEquals(CLOSED, breaker.state())
+    assertEquals('up', state())
+    assertTrue(breaker.allowRequest())
+    assertTrue(breaker.allowRequest())
+  }
+
+  private String state() {
+    reporterMetrics.collect().find { it.name == 'vertx.hawkular.reporter.circuitBreaker' }.value
+  }
+}
@@ -25,7 +25,12 @@ import org.junit.Test
  */
 class DatagramITest extends BaseITest {
   static final CONTENT = 'some text'
-  static final DATAGRAM_METRICS = ['bytesReceived', 'bytesSent', 'errorCount']
+  static final DATAGRAM_METRICS = ['bytesReceived', 'packetsReceived', 'bytesSent', 'packetsSent', 'errorCount',
+                                   'receivedPacketSize.count', 'receivedPacketSize.min', 'receivedPacketSize.max',
+                                   'receivedPacketSize.p50', 'receivedPacketSize.p95', 'receivedPacketSize.p99',
+                                   'receivedPacketSize.p999', 'sentPacketSize.count', 'sentPacketSize.min',
+                                   'sentPacketSize.max', 'sentPacketSize.p50', 'sentPacketSize.p95',
+                                   'sentPacketSize.p99', 'sentPacketSize.p999']
 
   def testHost = 'localhost'
   def testPort = getPort(9192)
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl
+
+import io.vertx.core.net.SocketAddress
+import io.vertx.ext.hawkular.VertxHawkularOptions
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+/**
+ * @author Thomas Segismont
+ */
+class DatagramSocketMetricsSupplierTest {
+
+  @Test
+  void testReceived() {
+    def supplier = new DatagramSocketMetricsSupplier('', new VertxHawkularOptions().setLatencyPercentiles([50d]))
+    def socketMetrics = new DatagramSocketMetricsImpl(supplier)
+    // Packets received before listening are ignored
+    socketMetrics.bytesRead(null, remote(1), 10)
+    socketMetrics.listening('localhost', SocketAddress.inetSocketAddress(9000, '127.0.0.1'))
+    [100, 200, 300].each { socketMetrics.bytesRead(null, remote(it), it) }
+
+    def values = collect(supplier)
+    assertEquals(600L, values['vertx.datagram.localhost:9000.bytesReceived'])
+    assertEquals(3L, values['vertx.datagram.localhost:9000.packetsReceived'])
+    assertEquals(3L, values['vertx.datagram.localhost:9000.receivedPacketSize.count'] as long)
+    assertEquals(300L, values['vertx.datagram.localhost:9000.receivedPacketSize.max'] as long)
+    assertEquals(200L, values['vertx.datagram.localhost:9000.receivedPacketSize.p50'] as long)
+  }
+
+  @Test
+  void testMaxRemoteAddresses() {
+    def supplier = new DatagramSocketMetricsSupplier('', new VertxHawkularOptions().setMaxDatagramRemoteAddresses(2))
+    def socketMetrics = new DatagramSocketMetricsImpl(supplier)
+    (1..4).each { socketMetrics.bytesWritten(null, remote(it), 10) }
+    socketMetrics.bytesWritten(null, remote(1), 10)
+
+    def values = collect(supplier)
+    assertEquals(20L, values['vertx.datagram.peer:1.bytesSent'])
+    assertEquals(10L, values['vertx.datagram.peer:2.bytesSent'])
+    assertFalse(values.containsKey('vertx.datagram.peer:3.bytesSent'))
+    assertEquals(50L, values['vertx.datagram.bytesSent'])
+    assertEquals(5L, values['vertx.datagram.packetsSent'])
+  }
+
+  @Test
+  void testRemoteAddressesDisabled() {
+    def supplier = new DatagramSocketMetricsSupplier('', new VertxHawkularOptions().setMaxDatagramRemoteAddresses(0))
+    new DatagramSocketMetricsImpl(supplier).bytesWritten(null, remote(1), 10)
+
+    def values = collect(supplier)
+    assertFalse(values.containsKey('vertx.datagram.peer:1.bytesSent'))
+    assertEquals(10L, values['vertx.datagram.bytesSent'])
+  }
+
+  private static SocketAddress remote(int port) {
+    SocketAddress.inetSocketAddress(port, 'peer')
+  }
+
+  private static Map<String, Object> collect(DatagramSocketMetricsSupplier supplier) {
+    supplier.collect().collectEntries { [(it.name): it.value] }
+  }
+}
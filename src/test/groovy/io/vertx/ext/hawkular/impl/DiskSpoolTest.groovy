@@ -0,0 +1,158 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl
+
+import io.vertx.core.buffer.Buffer
+import io.vertx.ext.hawkular.SpoolOptions
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+
+import static org.junit.Assert.*
+
+/**
+ * @author Thomas Segismont
+ */
+class DiskSpoolTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder()
+
+  def reporterMetrics = new ReporterMetricsSupplier('')
+
+  private SpoolOptions spoolOptions() {
+    new SpoolOptions().setEnabled(true).setDirectory(folder.root.absolutePath).setSegmentSize(1024).setMaxSize(4096)
+  }
+
+  @Test
+  void testReplayInOrder() {
+    def spool = new DiskSpool(spoolOptions(), reporterMetrics)
+    assertNull(spool.peek())
+    100.times { spool.append(Buffer.buffer("batch-${it}")) }
+    100.times {
+      def entry = spool.peek()
+      assertEquals("batch-${it}".toString(), entry.payload().toString())
+      spool.remove(entry)
+    }
+    assertNull(spool.peek())
+    assertEquals(1, segmentFiles().size())
+    assertEquals(0D, metric('spoolSize'), 0D)
+  }
+
+  @Test
+  void testRecovery() {
+    def spool = new DiskSpool(spoolOptions(), reporterMetrics)
+    10.times { spool.append(Buffer.buffer("batch-${it}")) }
+    4.times { spool.remove(spool.peek()) }
+    spool.close()
+
+    spool = new DiskSpool(spoolOptions(), new ReporterMetricsSupplier(''))
+    (4..<10).each {
+      def entry = spool.peek()
+      assertEquals("batch-${it}".toString(), entry.payload().toString())
+      spool.remove(entry)
+    }
+    assertNull(spool.peek())
+  }
+
+  @Test
+  void testSizeCap() {
+    def spool = new DiskSpool(spoolOptions(), reporterMetrics)
+    def payload = Buffer.buffer('x' * 500)
+    10.times { spool.append(payload) }
+    assertEquals(4, segmentFiles().size())
+    // Two records per segment, the oldest segment has been evicted
+    assertEquals(2L, metric('spoolDiscardedBatches'))
+    def count = 0
+    for (def entry = spool.peek(); entry != null; entry = spool.peek()) {
+      spool.remove(entry)
+      count++
+    }
+    assertEquals(8, count)
+  }
+
+  @Test
+  void testTooLarge() {
+    def spool = new DiskSpool(spoolOptions(), reporterMetrics)
+    spool.append(Buffer.buffer('x' * 2000))
+    assertNull(spool.peek())
+    assertEquals(1L, metric('spoolDiscardedBatches'))
+  }
+
+  @Test
+  void testMaxAge() {
+    def spool = new DiskSpool(spoolOptions().setMaxAge(0), reporterMetrics)
+    spool.append(Buffer.buffer('old'))
+    sleep(10)
+    assertNull(spool.peek())
+    assertEquals(1L, metric('spoolDiscardedBatches'))
+  }
+
+  @Test
+  void testStaleEntryIsNotRemoved() {
+    def spool = new DiskSpool(spoolOptions(), reporterMetrics)
+    spool.append(Buffer.buffer('x' * 500))
+    def stale = spool.peek()
+    10.times { spool.append(Buffer.buffer("${it}".padRight(500, 'y'))) }
+    def head = spool.peek()
+    spool.remove(stale)
+    assertEquals(head.payload().toString(), spool.peek().payload().toString())
+  }
+
+  @Test
+  void testSegmentSizeTooSmall() {
+    [0, -1, SpoolOptions.MIN_SEGMENT_SIZE - 1].each { size ->
+      try {
+        new SpoolOptions().setSegmentSize(size)
+        fail()
+      } catch (IllegalArgumentException expected) {
+      }
+    }
+    def spool = new DiskSpool(spoolOptions().setSegmentSize(SpoolOptions.MIN_SEGMENT_SIZE).setMaxSize(0), reporterMetrics)
+    spool.append(Buffer.buffer('batch'))
+    assertEquals('batch', spool.peek().payload().toString())
+  }
+
+  @Test
+  void testRejectAfterClose() {
+    def spool = new DiskSpool(spoolOptions(), reporterMetrics)
+    spool.append(Buffer.buffer('first'))
+    spool.close()
+    spool.close()
+    try {
+      spool.append(Buffer.buffer('late'))
+      fail()
+    } catch (IllegalStateException expected) {
+    }
+    try {
+      spool.peek()
+      fail()
+    } catch (IllegalStateException expected) {
+    }
+    // The existing segment has not been overwritten
+    spool = new DiskSpool(spoolOptions(), new ReporterMetricsSupplier(''))
+    assertEquals('first', spool.peek().payload().toString())
+  }
+
+  private List<File> segmentFiles() {
+    folder.root.listFiles().findAll { it.name.endsWith('.spool') }
+  }
+
+  private def metric(String name) {
+    reporterMetrics.collect().find { it.name == "vertx.hawkular.reporter.${name}".toString() }.value
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl
+
+import io.vertx.core.Vertx
+import io.vertx.core.http.HttpClient
+import io.vertx.core.http.HttpClientOptions
+import io.vertx.core.json.JsonObject
+import io.vertx.ext.unit.TestContext
+import io.vertx.ext.unit.junit.VertxUnitRunner
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * @author Thomas Segismont
+ */
+@RunWith(VertxUnitRunner.class)
+class EndpointDiscoveryTest {
+
+  Vertx vertx
+  HttpClient httpClient
+  AtomicInteger statusRequests = new AtomicInteger()
+  volatile String version
+  volatile boolean unresponsive
+
+  @Before
+  void setUp(TestContext context) {
+    vertx = Vertx.vertx()
+    vertx.createHttpServer().requestHandler { req ->
+      statusRequests.incrementAndGet()
+      if (unresponsive) {
+        return
+      }
+      if (version == null) {
+        req.response().setStatusCode(503).end()
+      } else {
+        req.response().end(new JsonObject().put('Implementation-Version', version).toBuffer())
+      }
+    }.listen(0, context.asyncAssertSuccess { server ->
+      httpClient = vertx.createHttpClient(new HttpClientOptions().setDefaultPort(server.actualPort()))
+    })
+  }
+
+  @After
+  void tearDown(TestContext context) {
+    vertx.close(context.asyncAssertSuccess())
+  }
+
+  @Test
+  void testLegacyVersion(TestContext context) {
+    version = '0.14.0.Final'
+    assertDiscovered(context, '/hawkular/metrics/metrics/data')
+  }
+
+  @Test
+  void testRecentVersion(TestContext context) {
+    version = '0.27.1.Final'
+    assertDiscovered(context, '/hawkular/metrics/metrics/raw')
+  }
+
+  @Test
+  void testMajorVersion(TestContext context) {
+    version = '1.0.0.Final'
+    assertDiscovered(context, '/hawkular/metrics/metrics/raw')
+  }
+
+  @Test
+  void testSingleProbe(TestContext context) {
+    version = '0.27.1.Final'
+    def async = context.async(10)
+    vertx.runOnContext {
+      def discovery = new EndpointDiscovery(httpClient, '/hawkular/metrics')
+      10.times {
+        discovery.getMetricsDataUri(context.asyncAssertSuccess { uri ->
+          context.assertEquals('/hawkular/metrics/metrics/raw', uri)
+          context.assertEquals(1, statusRequests.get())
+          async.countDown()
+        })
+      }
+    }
+  }
+
+  @Test
+  void testFailFastAfterFailure(TestContext context) {
+    def async = context.async(5)
+    vertx.runOnContext {
+      def discovery = new EndpointDiscovery(httpClient, '/hawkular/metrics')
+      discovery.getMetricsDataUri(context.asyncAssertFailure {
+        async.countDown()
+        // Within the retry delay, no new probe is sent
+        4.times {
+          discovery.getMetricsDataUri(context.asyncAssertFailure {
+            context.assertEquals(1, statusRequests.get())
+            async.countDown()
+          })
+        }
+      })
+    }
+  }
+
+  @Test
+  void testProbeTimeout(TestContext context) {
+    unresponsive = true
+    def async = context.async(2)
+    vertx.runOnContext {
+      def discovery = new EndpointDiscovery(httpClient, '/hawkular/metrics', 100)
+      // Both the caller and the waiter are called back
+      2.times {
+        discovery.getMetricsDataUri(context.asyncAssertFailure {
+          async.countDown()
+        })
+      }
+    }
+  }
+
+  private void assertDiscovered(TestContext context, String expected) {
+    vertx.runOnContext {
+      new EndpointDiscovery(httpClient, '/hawkular/metrics').getMetricsDataUri(context.asyncAssertSuccess { uri ->
+        context.assertEquals(expected, uri)
+      })
+    }
+  }
+}
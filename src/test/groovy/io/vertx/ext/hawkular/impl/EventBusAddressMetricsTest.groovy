@@ -0,0 +1,88 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl
+
+import io.vertx.ext.hawkular.AddressMetricsOptions
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+/**
+ * @author Thomas Segismont
+ */
+class EventBusAddressMetricsTest {
+
+  @Test
+  void testAllowListAndPrefixes() {
+    def metrics = new EventBusAddressMetrics(new AddressMetricsOptions()
+      .setAddresses(['orders'])
+      .setPrefixes(['inventory.']))
+    metrics.series('orders').messageSent(false)
+    metrics.series('orders').messageSent(true)
+    metrics.series('inventory.stock').messageReceived()
+    metrics.series('__vertx.reply.1').messageReceived()
+    metrics.series('__vertx.reply.2').messageReceived()
+
+    assertSame(metrics.series('orders'), metrics.series('orders'))
+    assertSame(metrics.series('__vertx.reply.1'), metrics.series('payments'))
+
+    def values = collect(metrics)
+    assertEquals(1L, values['addresses.orders.sentMessages'])
+    assertEquals(1L, values['addresses.orders.publishedMessages'])
+    assertEquals(1L, values['addresses.inventory.stock.receivedMessages'])
+    assertEquals(2L, values['otherAddresses.receivedMessages'])
+    assertFalse(values.keySet().any { it.startsWith('addresses.__vertx') || it.startsWith('addresses.payments') })
+  }
+
+  @Test
+  void testAddressNamedOther() {
+    def metrics = new EventBusAddressMetrics(new AddressMetricsOptions().setAddresses(['other']))
+    metrics.series('other').messageReceived()
+    metrics.series('__vertx.reply.1').messageReceived()
+    metrics.series('__vertx.reply.2').messageReceived()
+    def values = collect(metrics)
+    assertEquals(1L, values['addresses.other.receivedMessages'])
+    assertEquals(2L, values['otherAddresses.receivedMessages'])
+  }
+
+  @Test
+  void testMaxAddresses() {
+    def metrics = new EventBusAddressMetrics(new AddressMetricsOptions()
+      .setPrefixes(['a'])
+      .setMaxAddresses(2))
+    ['a1', 'a2', 'a3', 'a4'].each { metrics.series(it).messageWritten(10) }
+    def values = collect(metrics)
+    assertEquals(10L, values['addresses.a1.bytesWritten'])
+    assertEquals(10L, values['addresses.a2.bytesWritten'])
+    assertEquals(20L, values['otherAddresses.bytesWritten'])
+    assertFalse(values.containsKey('addresses.a3.bytesWritten'))
+  }
+
+  @Test
+  void testProcessingLatency() {
+    def metrics = new EventBusAddressMetrics(new AddressMetricsOptions().setAddresses(['orders']))
+    metrics.series('orders').messageHandled(2_000_000)
+    def values = collect(metrics)
+    assertEquals(1L, values['addresses.orders.processingLatency.count'] as long)
+    assertEquals(0L, values['otherAddresses.processingLatency.count'] as long)
+  }
+
+  private static Map<String, Object> collect(EventBusAddressMetrics metrics) {
+    double[] percentiles = [50]
+    metrics.collect('', 0, percentiles, IntervalHistogram.percentileIds(percentiles)).collectEntries { [(it.name): it.value] }
+  }
+}
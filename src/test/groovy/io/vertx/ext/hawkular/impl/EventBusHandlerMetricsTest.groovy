@@ -0,0 +1,114 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl
+
+import org.junit.Test
+
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ThreadLocalRandom
+
+import static java.util.concurrent.TimeUnit.*
+import static org.junit.Assert.*
+
+/**
+ * @author Thomas Segismont
+ */
+class EventBusHandlerMetricsTest {
+
+  @Test
+  void testNestedTimers() {
+    def handlerMetrics = new EventBusHandlerMetrics('foo')
+    handlerMetrics.resetTimer()
+    Thread.sleep(20)
+    def before = System.nanoTime()
+    handlerMetrics.resetTimer()
+    def inner = handlerMetrics.elapsed()
+    def outer = handlerMetrics.elapsed()
+    assertTrue(inner <= System.nanoTime() - before)
+    assertTrue(outer >= NANOSECONDS.convert(20, MILLISECONDS))
+    assertEquals(0L, handlerMetrics.elapsed())
+  }
+
+  @Test
+  void testConcurrentTimers() {
+    def handlerMetrics = new EventBusHandlerMetrics('foo')
+    def threads = 8
+    def iterations = 2000
+    def errors = new ConcurrentLinkedQueue<String>()
+    def start = new CountDownLatch(1)
+    def workers = (1..threads).collect {
+      Thread.start {
+        start.await()
+        def random = ThreadLocalRandom.current()
+        iterations.times {
+          def work = random.nextLong(0, NANOSECONDS.convert(50, MICROSECONDS))
+          def outerStart = System.nanoTime()
+          handlerMetrics.resetTimer()
+          def innerStart = System.nanoTime()
+          while (System.nanoTime() - innerStart < work) {
+            // Busy spin, overlapping with other threads
+          }
+          def innerEnd = System.nanoTime()
+          def elapsed = handlerMetrics.elapsed()
+          def outerEnd = System.nanoTime()
+          if (elapsed < innerEnd - innerStart || elapsed > outerEnd - outerStart) {
+            errors << "${elapsed} not in [${innerEnd - innerStart}, ${outerEnd - outerStart}]".toString()
+          }
+        }
+      }
+    }
+    start.countDown()
+    workers*.join()
+    assertTrue(errors.take(10).join('\n'), errors.isEmpty())
+  }
+
+  @Test
+  void testQueueTimeAfterDroppedMessages() {
+    def handlerMetrics = new EventBusHandlerMetrics('foo')
+    // Scheduled, but never begun
+    20.times { handlerMetrics.messageScheduled() }
+    handlerMetrics.messageScheduled()
+    Thread.sleep(20)
+    def waited = handlerMetrics.messageBegun()
+    handlerMetrics.elapsed()
+    assertTrue(waited >= 0)
+    handlerMetrics.messageScheduled()
+    Thread.sleep(20)
+    // Drains the forgotten messages, then times the last one
+    def times = (1..16).collect {
+      def time = handlerMetrics.messageBegun()
+      handlerMetrics.elapsed()
+      time
+    }
+    assertTrue(times.last() >= NANOSECONDS.convert(20, MILLISECONDS))
+  }
+
+  @Test
+  void testBegunWithoutSchedule() {
+    def handlerMetrics = new EventBusHandlerMetrics('foo')
+    3.times {
+      assertEquals(-1L, handlerMetrics.messageBegun())
+      handlerMetrics.elapsed()
+    }
+    handlerMetrics.messageScheduled()
+    Thread.sleep(20)
+    def waited = handlerMetrics.messageBegun()
+    handlerMetrics.elapsed()
+    assertTrue(waited >= NANOSECONDS.convert(20, MILLISECONDS))
+  }
+}
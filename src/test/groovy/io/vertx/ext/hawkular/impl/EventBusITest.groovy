@@ -27,7 +27,9 @@ class EventBusITest extends BaseITest {
                              'pendingLocal', 'pendingRemote', 'publishedMessages', 'publishedLocalMessages',
                              'publishedRemoteMessages', 'sentMessages', 'sentLocalMessages', 'sentRemoteMessages',
                              'receivedMessages', 'receivedLocalMessages', 'receivedRemoteMessages', 'deliveredMessages',
-                             'deliveredLocalMessages', 'deliveredRemoteMessages', 'replyFailures']
+                             'deliveredLocalMessages', 'deliveredRemoteMessages', 'replyFailures',
+                             'queueTime.count', 'queueTime.min', 'queueTime.max', 'queueTime.p50',
+                             'queueTime.p95', 'queueTime.p99', 'queueTime.p999']
 
   def String address = "testSubject"
   def baseName = "${METRIC_PREFIX}.vertx.eventbus."
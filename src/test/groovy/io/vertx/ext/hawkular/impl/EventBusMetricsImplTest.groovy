@@ -0,0 +1,100 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl
+
+import io.vertx.ext.hawkular.VertxHawkularOptions
+import org.junit.Test
+
+import java.util.concurrent.CountDownLatch
+
+import static org.junit.Assert.*
+
+/**
+ * @author Thomas Segismont
+ */
+class EventBusMetricsImplTest {
+
+  def metrics = new EventBusMetricsImpl('', new VertxHawkularOptions())
+
+  @Test
+  void testHandlersShareMeasurements() {
+    def first = metrics.handlerRegistered('foo', null)
+    def second = metrics.handlerRegistered('foo', null)
+    assertSame(first.handlersMeasurements, second.handlersMeasurements)
+    assertEquals(2, first.handlersMeasurements.handlersCount())
+
+    metrics.handlerUnregistered(first)
+    metrics.handlerUnregistered(second)
+    assertFalse(first.handlersMeasurements.retain())
+    assertFalse(processingTimeReported('foo'))
+
+    def third = metrics.handlerRegistered('foo', null)
+    assertNotSame(first.handlersMeasurements, third.handlersMeasurements)
+    assertTrue(processingTimeReported('foo'))
+  }
+
+  @Test
+  void testConcurrentRegistrations() {
+    def threads = 8
+    def iterations = 10000
+    def start = new CountDownLatch(1)
+    def workers = (1..threads).collect {
+      Thread.start {
+        start.await()
+        iterations.times {
+          def handlerMetrics = metrics.handlerRegistered('reply', null)
+          handlerMetrics.resetTimer()
+          metrics.endHandleMessage(handlerMetrics, null)
+          metrics.handlerUnregistered(handlerMetrics)
+        }
+      }
+    }
+    def permanent = metrics.handlerRegistered('reply', null)
+    start.countDown()
+    workers*.join()
+    assertEquals(1, permanent.handlersMeasurements.handlersCount())
+    assertSame(permanent.handlersMeasurements, metrics.handlerRegistered('reply', null).handlersMeasurements)
+  }
+
+  @Test
+  void testQueueTime() {
+    def handlerMetrics = metrics.handlerRegistered('foo', null)
+    3.times { metrics.scheduleMessage(handlerMetrics, true) }
+    Thread.sleep(5)
+    3.times {
+      metrics.beginHandleMessage(handlerMetrics, true)
+      metrics.endHandleMessage(handlerMetrics, null)
+    }
+    def values = metrics.collect().collectEntries { [(it.name): it.value] }
+    assertEquals(3L, values['vertx.eventbus.queueTime.count'] as long)
+    assertTrue(values['vertx.eventbus.queueTime.min'] as double >= 5)
+  }
+
+  @Test
+  void testQueueTimeOverflow() {
+    def handlerMetrics = new EventBusHandlerMetrics('foo')
+    20.times { handlerMetrics.messageScheduled() }
+    def timed = (1..20).collect { handlerMetrics.messageBegun() }.count { it >= 0 }
+    assertEquals(16, timed)
+    handlerMetrics.messageScheduled()
+    assertTrue(handlerMetrics.messageBegun() >= 0)
+  }
+
+  private boolean processingTimeReported(String address) {
+    metrics.collect().any { it.name == "vertx.eventbus.${address}.processingTime" as String }
+  }
+}
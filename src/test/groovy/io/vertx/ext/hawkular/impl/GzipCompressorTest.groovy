@@ -0,0 +1,59 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl
+
+import io.vertx.core.buffer.Buffer
+import org.junit.Test
+
+import java.util.zip.GZIPInputStream
+
+import static org.junit.Assert.*
+
+/**
+ * @author Thomas Segismont
+ */
+class GzipCompressorTest {
+
+  def reporterMetrics = new ReporterMetricsSupplier('')
+  def compressor = new GzipCompressor(reporterMetrics)
+
+  @Test
+  void testRoundTrip() {
+    def random = new Random(7)
+    [0, 1, 100, 8192, 100000].each { size ->
+      def json = new StringBuilder()
+      while (json.length() < size) {
+        json.append('{"id":"vertx.metric').append(random.nextInt(100)).append('"},')
+      }
+      def input = Buffer.buffer(json.substring(0, size))
+      // Compress twice to check the deflater is properly reset
+      compressor.compress(input)
+      def compressed = compressor.compress(input)
+      assertArrayEquals(input.bytes, new GZIPInputStream(new ByteArrayInputStream(compressed.bytes)).bytes)
+    }
+  }
+
+  @Test
+  void testReporterMetrics() {
+    def input = Buffer.buffer('vertx.metric,' * 1000)
+    def compressed = compressor.compress(input)
+    def points = reporterMetrics.collect().collectEntries { [(it.name): it.value] }
+    assertEquals(input.length(), points['vertx.hawkular.reporter.uncompressedBytes'])
+    assertEquals(compressed.length(), points['vertx.hawkular.reporter.compressedBytes'])
+    assertEquals(compressed.length() / input.length(), points['vertx.hawkular.reporter.compressionRatio'], 0.0001D)
+  }
+}
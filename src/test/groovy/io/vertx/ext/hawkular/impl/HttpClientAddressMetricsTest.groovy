@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl
+
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+/**
+ * @author Thomas Segismont
+ */
+class HttpClientAddressMetricsTest {
+
+  def addressMetrics = new HttpClientAddressMetrics(false)
+
+  @Test
+  void testPhases() {
+    def requestMetric = new HttpClientRequestMetrics(new HttpClientConnectionsMeasurements(addressMetrics))
+    requestMetric.resetTimer()
+    sleep(5)
+    requestMetric.requestEnd()
+    sleep(20)
+    requestMetric.responseBegin()
+    sleep(10)
+    addressMetrics.responseEnd(requestMetric, 200, System.nanoTime())
+
+    def values = collect()
+    assertEquals(1L, values['responses.2xx'])
+    assertEquals(1D, values['requestWriteTime.count'], 0D)
+    assertTrue(values['requestWriteTime.max'] >= 5D)
+    assertTrue(values['timeToFirstByte.max'] >= 20D)
+    assertTrue(values['downloadTime.max'] >= 10D)
+    assertTrue(values['downloadTime.max'] < values['timeToFirstByte.max'])
+  }
+
+  @Test
+  void testResponseBeforeRequestEnd() {
+    def requestMetric = new HttpClientRequestMetrics(new HttpClientConnectionsMeasurements(addressMetrics))
+    requestMetric.resetTimer()
+    requestMetric.responseBegin()
+    addressMetrics.responseEnd(requestMetric, 413, System.nanoTime())
+
+    def values = collect()
+    assertEquals(0D, values['requestWriteTime.count'], 0D)
+    assertEquals(1D, values['timeToFirstByte.count'], 0D)
+    assertEquals(1D, values['downloadTime.count'], 0D)
+  }
+
+  private Map<String, Object> collect() {
+    def res = []
+    double[] percentiles = [99D]
+    addressMetrics.collect('', 0, percentiles, IntervalHistogram.percentileIds(percentiles), res)
+    res.collectEntries { [(it.name): it.value] }
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl
+
+import io.vertx.ext.hawkular.VertxHawkularOptions
+import org.junit.Test
+
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.CountDownLatch
+
+import static org.junit.Assert.*
+
+/**
+ * @author Thomas Segismont
+ */
+class HttpClientEndpointMetricsTest {
+
+  def measurements = new HttpClientEndpointMetrics.Measurements()
+
+  @Test
+  void testPoolsAggregated() {
+    def pool1 = new HttpClientEndpointMetrics(5, measurements)
+    def pool2 = new HttpClientEndpointMetrics(15, measurements)
+    4.times { pool1.connected() }
+    pool2.connected()
+
+    def values = collect()
+    assertEquals(20D, values['maxPoolSize'], 0D)
+    assertEquals(0.25D, values['poolUsage'], 0D)
+
+    pool1.close()
+    values = collect()
+    assertEquals(15D, values['maxPoolSize'], 0D)
+  }
+
+  @Test
+  void testQueue() {
+    def pool = new HttpClientEndpointMetrics(1, measurements)
+    def first = pool.enqueue()
+    def second = pool.enqueue()
+    assertEquals(2D, collect()['queueSize'], 0D)
+
+    sleep(10)
+    pool.dequeue(first)
+    pool.dequeue(second)
+    def values = collect()
+    assertEquals(0D, values['queueSize'], 0D)
+    assertEquals(2D, values['queueWaitTime.count'], 0D)
+    assertTrue(values['queueWaitTime.min'] >= 10D)
+  }
+
+  @Test
+  void testQueuedRequestsRecycled() {
+    def pool = new HttpClientEndpointMetrics(1, measurements)
+    def first = pool.enqueue()
+    pool.dequeue(first)
+    assertSame(first, pool.enqueue())
+  }
+
+  @Test
+  void testConcurrentRecycling() {
+    def pool = new HttpClientEndpointMetrics(1, measurements)
+    def inUse = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>()))
+    def errors = new ConcurrentLinkedQueue<String>()
+    def start = new CountDownLatch(1)
+    def workers = (1..8).collect {
+      Thread.start {
+        start.await()
+        10000.times {
+          def queuedRequests = (1..3).collect { pool.enqueue() }
+          queuedRequests.each { queuedRequest ->
+            if (!inUse.add(queuedRequest)) {
+              errors << "${queuedRequest} handed out twice".toString()
+            }
+          }
+          queuedRequests.each { queuedRequest ->
+            inUse.remove(queuedRequest)
+            pool.dequeue(queuedRequest)
+          }
+        }
+      }
+    }
+    start.countDown()
+    workers*.join()
+    assertTrue(errors.take(10).join('\n'), errors.isEmpty())
+    assertEquals(0D, collect()['queueSize'], 0D)
+  }
+
+  @Test
+  void testCloseIsIdempotent() {
+    def pool1 = new HttpClientEndpointMetrics(5, measurements)
+    measurements.retain()
+    def pool2 = new HttpClientEndpointMetrics(15, measurements)
+    pool1.close()
+    pool1.close()
+    assertEquals(15D, collect()['maxPoolSize'], 0D)
+    assertFalse(measurements.isReleased())
+    pool2.close()
+    assertTrue(measurements.isReleased())
+  }
+
+  @Test
+  void testRemovedOnceAllPoolsClosed() {
+    def supplier = new HttpClientMetricsSupplier('', new VertxHawkularOptions())
+    def clientMetrics = new HttpClientMetricsImpl(supplier)
+    def pool1 = clientMetrics.createEndpoint('example.com', 80, 5)
+    def pool2 = clientMetrics.createEndpoint('example.com', 80, 5)
+    clientMetrics.closeEndpoint('example.com', 80, pool1)
+    assertNotNull(collectSupplier(supplier)['example.com:80.maxPoolSize'])
+
+    clientMetrics.closeEndpoint('example.com', 80, pool2)
+    // The final values are reported, then the endpoint is removed
+    def values = collectSupplier(supplier)
+    assertEquals(0D, values['example.com:80.maxPoolSize'], 0D)
+    assertEquals(1L, values['evictions'])
+    values = collectSupplier(supplier)
+    assertNull(values['example.com:80.maxPoolSize'])
+    assertEquals(1L, values['evictions'])
+
+    // A new pool gets new measurements
+    clientMetrics.createEndpoint('example.com', 80, 10)
+    assertEquals(10D, collectSupplier(supplier)['example.com:80.maxPoolSize'], 0D)
+  }
+
+  private static Map<String, Object> collectSupplier(HttpClientMetricsSupplier supplier) {
+    supplier.collect().collectEntries { [(it.name - 'vertx.http.client.'): it.value] }
+  }
+
+  private Map<String, Object> collect() {
+    def res = []
+    double[] percentiles = [99D]
+    measurements.collect('', 0, percentiles, IntervalHistogram.percentileIds(percentiles), res)
+    res.collectEntries { [(it.name): it.value] }
+  }
+}
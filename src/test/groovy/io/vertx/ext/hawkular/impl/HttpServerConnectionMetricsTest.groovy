@@ -0,0 +1,59 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl
+
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+/**
+ * @author Thomas Segismont
+ */
+class HttpServerConnectionMetricsTest {
+
+  def connection = new HttpServerConnectionMetrics()
+
+  @Test
+  void testRequestMetricsRecycled() {
+    def first = connection.requestBegin()
+    assertTrue(first.end())
+    def second = connection.requestBegin()
+    assertSame(first, second)
+    assertTrue(second.end())
+  }
+
+  @Test
+  void testConcurrentRequests() {
+    def first = connection.requestBegin()
+    def second = connection.requestBegin()
+    assertNotSame(first, second)
+    first.end()
+    second.end()
+    assertSame(second, connection.requestBegin())
+    assertSame(first, connection.requestBegin())
+  }
+
+  @Test
+  void testEndIsIdempotent() {
+    def requestMetrics = connection.requestBegin()
+    assertTrue(requestMetrics.end())
+    assertFalse(requestMetrics.end())
+    // Recycled only once
+    assertSame(requestMetrics, connection.requestBegin())
+    assertNotSame(requestMetrics, connection.requestBegin())
+  }
+}
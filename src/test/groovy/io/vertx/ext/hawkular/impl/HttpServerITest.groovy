@@ -25,7 +25,9 @@ import org.junit.Test
 class HttpServerITest extends BaseITest {
   static final RESPONSE_CONTENT = 'some text'
   static final HTTP_SERVER_METRICS = ['bytesReceived', 'bytesSent', 'errorCount', 'httpConnections', 'processingTime',
-                                      'requestCount', 'requests', 'wsConnections']
+                                      'requestCount', 'requests', 'wsConnections', 'responseTime.count',
+                                      'responses.1xx', 'responses.2xx', 'responses.3xx', 'responses.4xx',
+                                      'responses.5xx']
 
   def testHost = 'localhost'
   def testPort = getPort(9191)
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl
+
+import com.sun.management.ThreadMXBean
+import groovy.transform.CompileStatic
+import io.vertx.core.http.HttpMethod
+import io.vertx.core.http.HttpServerRequest
+import io.vertx.core.http.HttpServerResponse
+import io.vertx.core.http.HttpVersion
+import io.vertx.core.net.SocketAddress
+import io.vertx.ext.hawkular.VertxHawkularOptions
+import org.junit.Test
+
+import java.lang.management.ManagementFactory
+
+import static org.junit.Assert.*
+
+/**
+ * @author Thomas Segismont
+ */
+class HttpServerMetricsImplTest {
+
+  def metrics = new HttpServerMetricsImpl(SocketAddress.inetSocketAddress(8080, 'localhost'),
+    new HttpServerMetricsSupplier('', new VertxHawkularOptions()))
+  def connection = metrics.connected(SocketAddress.inetSocketAddress(50000, 'localhost'), 'localhost')
+
+  @Test
+  void testRequestMetricsRecycled() {
+    [HttpVersion.HTTP_1_1, HttpVersion.HTTP_2].each { version ->
+      def req = request(version)
+      def first = metrics.requestBegin(connection, req)
+      metrics.responseEnd(first, req.response())
+      assertSame(first, metrics.requestBegin(connection, request(version)))
+    }
+  }
+
+  @Test
+  void testConcurrentStreamsRecycled() {
+    def requests = (1..100).collect { request(HttpVersion.HTTP_2) }
+    def first = requests.collect { metrics.requestBegin(connection, it) }
+    [first, requests].transpose().each { requestMetric, req -> metrics.responseEnd(requestMetric, req.response()) }
+    def second = requests.collect { metrics.requestBegin(connection, it) }
+    assertEquals(first.toSet(), second.toSet())
+  }
+
+  @Test
+  void testLateResponseEndIgnored() {
+    def firstRequest = request(HttpVersion.HTTP_2)
+    def first = metrics.requestBegin(connection, firstRequest)
+    metrics.requestReset(first)
+    def secondRequest = request(HttpVersion.HTTP_2)
+    def second = metrics.requestBegin(connection, secondRequest)
+    assertSame(first, second)
+    // The response of the reset stream ends after the instance has been recycled
+    metrics.responseEnd(first, firstRequest.response())
+    assertEquals(1L, metrics.requests)
+    assertEquals(1L, metrics.requestCount)
+
+    metrics.responseEnd(second, secondRequest.response())
+    assertEquals(0L, metrics.requests)
+    assertEquals(2L, metrics.requestCount)
+  }
+
+  @Test
+  void testPushedResponsesRecycled() {
+    def pushedResponse = response()
+    def pushed = metrics.responsePushed(connection, HttpMethod.GET, '/style.css', pushedResponse)
+    metrics.responseEnd(pushed, pushedResponse)
+    assertSame(pushed, metrics.responsePushed(connection, HttpMethod.GET, '/style.css', response()))
+  }
+
+  @Test
+  @CompileStatic
+  void testStreamsDoNotAllocate() {
+    HttpServerMetricsImpl serverMetrics = (HttpServerMetricsImpl) metrics
+    HttpServerConnectionMetrics connectionMetrics = (HttpServerConnectionMetrics) connection
+    HttpServerResponse pushedResponse = response()
+    ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.threadMXBean
+    long threadId = Thread.currentThread().id
+    int iterations = 100000
+    for (int i = 0; i < iterations; i++) {
+      serverMetrics.requestReset(serverMetrics.responsePushed(connectionMetrics, HttpMethod.GET, '/', pushedResponse))
+    }
+    long before = threadMXBean.getThreadAllocatedBytes(threadId)
+    for (int i = 0; i < iterations; i++) {
+      serverMetrics.requestReset(serverMetrics.responsePushed(connectionMetrics, HttpMethod.GET, '/', pushedResponse))
+    }
+    long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - before
+    // Any allocation per stream would amount to at least 16 bytes per iteration
+    assertTrue("${allocated} bytes allocated".toString(), allocated < iterations)
+  }
+
+  @Test
+  void testAddressMetricsRemovedOnceAllServersClosed() {
+    def supplier = new HttpServerMetricsSupplier('', new VertxHawkularOptions())
+    def address = SocketAddress.inetSocketAddress(8081, 'localhost')
+    def server1 = new HttpServerMetricsImpl(address, supplier)
+    def server2 = new HttpServerMetricsImpl(address, supplier)
+    assertSame(server1.addressMetrics, server2.addressMetrics)
+    def req = request(HttpVersion.HTTP_1_1)
+    server1.responseEnd(server1.requestBegin(null, req), req.response())
+
+    server1.close()
+    server1.close()
+    assertTrue(names(supplier).contains('vertx.http.server.localhost:8081.responseTime.count'))
+    server2.close()
+    // Final values
+    def finalNames = names(supplier)
+    assertTrue(finalNames.contains('vertx.http.server.localhost:8081.responseTime.count'))
+    assertTrue(finalNames.contains('vertx.http.server.localhost:8081.responses.2xx'))
+    assertTrue(names(supplier).isEmpty())
+
+    // A new server gets new measurements
+    def server3 = new HttpServerMetricsImpl(address, supplier)
+    assertNotSame(server1.addressMetrics, server3.addressMetrics)
+  }
+
+  private static Set<String> names(HttpServerMetricsSupplier supplier) {
+    supplier.collect()*.name.findAll { it.startsWith('vertx.http.server.localhost:8081.') } as Set
+  }
+
+  private static HttpServerRequest request(HttpVersion version) {
+    def requestResponse = response()
+    [version: { version }, method: { HttpMethod.GET }, path: { '/' }, getHeader: { name -> null },
+     response: { requestResponse }] as HttpServerRequest
+  }
+
+  private static HttpServerResponse response() {
+    [getStatusCode: { 200 }, bytesWritten: { 0L }] as HttpServerResponse
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl
+
+import io.vertx.core.json.JsonObject
+import io.vertx.ext.hawkular.RouteMetricsOptions
+import org.junit.Test
+
+import static io.vertx.core.http.HttpMethod.*
+import static org.junit.Assert.*
+
+/**
+ * @author Thomas Segismont
+ */
+class HttpServerRouteMetricsTest {
+
+  def options = new RouteMetricsOptions()
+    .setEnabled(true)
+    .setRoutes(['/users/:id', '/users/{id}/orders', '/static/*'])
+    .setPatterns(new JsonObject().put('health', '/(health|ready)'))
+
+  @Test
+  void testMatch() {
+    def matcher = new RouteMatcher(options)
+    assertEquals(0, matcher.match('/users/42'))
+    assertEquals(1, matcher.match('/users/42/orders'))
+    assertEquals(2, matcher.match('/static/css/main.css'))
+    assertEquals(3, matcher.match('/ready'))
+    assertEquals('health', matcher.name(3))
+    assertEquals(RouteMatcher.NO_ROUTE, matcher.match('/users'))
+    assertEquals(RouteMatcher.NO_ROUTE, matcher.match('/users/42/orders/1'))
+  }
+
+  @Test
+  void testCacheAfterScan() {
+    def matcher = new RouteMatcher(options)
+    assertEquals(0, matcher.match('/users/42'))
+    20000.times { assertEquals(RouteMatcher.NO_ROUTE, matcher.match("/scan/${it}".toString())) }
+    // Scanned paths do not stay in the cache at the expense of real ones
+    assertEquals(0, matcher.match('/users/42'))
+    def cached = (0..<matcher.cache.length()).collect { matcher.cache.get(it)?.path }
+    assertTrue(cached.contains('/users/42'))
+    assertEquals(1, cached.count { it == '/users/42' })
+  }
+
+  @Test
+  void testSeries() {
+    def routeMetrics = new HttpServerRouteMetrics(new RouteMatcher(options), 100)
+    def series = routeMetrics.series(GET, '/users/1')
+    assertSame(series, routeMetrics.series(GET, '/users/2'))
+    assertNotSame(series, routeMetrics.series(DELETE, '/users/2'))
+
+    series.responseEnd(1000000, 200, 10, 20)
+    routeMetrics.series(GET, '/nowhere').responseEnd(1000000, 404, 0, 5)
+
+    def values = routeMetrics.collect('routes.', 0).collectEntries { [(it.name): it.value] }
+    assertEquals(1L, values['routes.GET./users/:id.requestCount'])
+    assertEquals(1L, values['routes.GET./users/:id.responses.2xx'])
+    assertEquals(10L, values['routes.GET./users/:id.bytesReceived'])
+    assertEquals(20L, values['routes.GET./users/:id.bytesSent'])
+    assertEquals(0L, values['routes.DELETE./users/:id.requestCount'])
+    assertEquals(1L, values['routes.other.responses.4xx'])
+  }
+
+  @Test
+  void testMaxSeries() {
+    def routeMetrics = new HttpServerRouteMetrics(new RouteMatcher(options), 2)
+    def other = routeMetrics.series(GET, '/random')
+    assertNotSame(other, routeMetrics.series(GET, '/users/1'))
+    assertNotSame(other, routeMetrics.series(POST, '/users/1'))
+    assertSame(other, routeMetrics.series(PUT, '/users/1'))
+    assertSame(other, routeMetrics.series(GET, '/static/app.js'))
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl
+
+import org.junit.Test
+
+import static java.util.concurrent.TimeUnit.*
+import static org.junit.Assert.*
+
+/**
+ * @author Thomas Segismont
+ */
+class LatencyHistogramTest {
+
+  @Test
+  void testPercentileId() {
+    assertEquals('p50', IntervalHistogram.percentileId(50D))
+    assertEquals('p99', IntervalHistogram.percentileId(99.0D))
+    assertEquals('p999', IntervalHistogram.percentileId(99.9D))
+  }
+
+  @Test
+  void testIntervalSnapshots() {
+    def histogram = new LatencyHistogram()
+    (1..100).each { histogram.record(NANOSECONDS.convert(it, MILLISECONDS)) }
+
+    def values = collect(histogram)
+    assertEquals(100D, values['latency.count'], 0D)
+    assertEquals(1D, values['latency.min'], 0.01D)
+    assertEquals(100D, values['latency.max'], 1D)
+    assertEquals(50D, values['latency.p50'], 1D)
+    assertEquals(99D, values['latency.p99'], 1D)
+
+    // Values recorded before the previous snapshot are not reported again
+    values = collect(histogram)
+    assertEquals([('latency.count'): 0D], values)
+
+    histogram.record(NANOSECONDS.convert(7, MILLISECONDS))
+    values = collect(histogram)
+    assertEquals(1D, values['latency.count'], 0D)
+    assertEquals(7D, values['latency.p999'], 0.1D)
+  }
+
+  private static Map<String, Double> collect(LatencyHistogram histogram) {
+    double[] percentiles = [50D, 99D, 99.9D]
+    String[] ids = percentiles.collect { IntervalHistogram.percentileId(it) }
+    histogram.collect('latency', 0, percentiles, ids).collectEntries { [(it.name): it.value as Double] }
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl
+
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+/**
+ * @author Thomas Segismont
+ */
+class MetricsBridgeAggregatorTest {
+
+  def aggregator = new MetricsBridgeAggregator()
+
+  @Test
+  void testRollups() {
+    [3d, 1d, 5d, 2d].each { aggregator.record('foo', it) }
+    aggregator.record('bar', -1d)
+    def values = collectValues()
+    assertEquals([
+      'foo.min': 1d, 'foo.max': 5d, 'foo.avg': 2.75d, 'foo.count': 4d, 'foo.last': 2d,
+      'bar.min': -1d, 'bar.max': -1d, 'bar.avg': -1d, 'bar.count': 1d, 'bar.last': -1d
+    ], values)
+  }
+
+  @Test
+  void testResetEveryInterval() {
+    aggregator.record('foo', 10d)
+    aggregator.record('foo', 20d)
+    collectValues()
+    aggregator.record('foo', 4d)
+    assertEquals(['foo.min': 4d, 'foo.max': 4d, 'foo.avg': 4d, 'foo.count': 1d, 'foo.last': 4d], collectValues())
+  }
+
+  @Test
+  void testIdleSeriesRemoved() {
+    aggregator.record('foo', 1d)
+    aggregator.record('bar', 1d)
+    collectValues()
+    aggregator.record('foo', 1d)
+    // bar was idle for a whole interval
+    assertEquals(['foo.min', 'foo.max', 'foo.avg', 'foo.count', 'foo.last'] as Set, collectValues().keySet())
+    assertEquals(1, aggregator.size())
+    assertTrue(collectValues().isEmpty())
+    assertEquals(0, aggregator.size())
+  }
+
+  @Test
+  void testGrowth() {
+    1000.times { i ->
+      aggregator.record("metric.${i % 200}", i)
+    }
+    def values = collectValues()
+    assertEquals(1000, values.size())
+    assertEquals(5d, values['metric.0.count'], 0)
+    assertEquals(0d, values['metric.0.min'], 0)
+    assertEquals(800d, values['metric.0.max'], 0)
+    assertEquals(400d, values['metric.0.avg'], 0)
+    assertEquals(999d, values['metric.199.last'], 0)
+  }
+
+  private Map<String, Double> collectValues() {
+    aggregator.collect().collectEntries { [(it.name): it.value] }
+  }
+}
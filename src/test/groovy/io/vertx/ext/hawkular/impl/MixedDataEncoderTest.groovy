@@ -0,0 +1,139 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl
+
+import io.vertx.core.json.JsonArray
+import io.vertx.core.json.JsonObject
+import org.junit.Test
+
+import java.util.function.Function
+
+import static java.util.stream.Collectors.groupingBy
+import static org.junit.Assert.assertArrayEquals
+
+/**
+ * Checks {@link MixedDataEncoder} output is byte-identical to the former {@link JsonObject} based encoding.
+ *
+ * @author Thomas Segismont
+ */
+class MixedDataEncoderTest {
+
+  def encoder = new MixedDataEncoder()
+
+  @Test
+  void testEmptyBatch() {
+    assertSameEncoding([])
+  }
+
+  @Test
+  void testSingleType() {
+    assertSameEncoding([
+      new CounterPoint('vertx.eventbus.sentMessages', 1500000000000L, 12L),
+      new CounterPoint('vertx.eventbus.publishedMessages', 1500000000000L, 0L),
+    ])
+  }
+
+  @Test
+  void testMixedTypesAndRepeatedIds() {
+    assertSameEncoding([
+      new GaugePoint('vertx.http.server.localhost:8080.requests', 1500000000000L, 3),
+      new CounterPoint('vertx.http.server.localhost:8080.requestCount', 1500000000000L, 68L),
+      new AvailabilityPoint('myapp.status', 1500000000000L, 'up'),
+      new GaugePoint('vertx.http.server.localhost:8080.requests', 1500000001000L, 0.25D),
+      new CounterPoint('vertx.http.server.localhost:8080.requestCount', 1500000001000L, 70L),
+      new AvailabilityPoint('myapp.status', 1500000001000L, 'down'),
+    ])
+  }
+
+  @Test
+  void testNumberFormatting() {
+    assertSameEncoding([
+      new GaugePoint('a', 0L, 0D),
+      new GaugePoint('b', -1L, -0D),
+      new GaugePoint('c', Long.MAX_VALUE, Double.MAX_VALUE),
+      new GaugePoint('d', Long.MIN_VALUE, Double.MIN_VALUE),
+      new GaugePoint('e', 42L, 1.0E-7D),
+      new GaugePoint('f', 42L, 12345678.9D),
+      new GaugePoint('g', 42L, Double.NaN),
+      new GaugePoint('h', 42L, Double.POSITIVE_INFINITY),
+      new GaugePoint('i', 42L, Double.NEGATIVE_INFINITY),
+      new CounterPoint('j', 42L, Long.MIN_VALUE),
+      new CounterPoint('k', 42L, Long.MAX_VALUE),
+      new CounterPoint('l', 42L, -987654321L),
+      new CounterPoint('m', 42L, 1000000000000000000L),
+    ])
+  }
+
+  @Test
+  void testStringEscaping() {
+    assertSameEncoding([
+      new GaugePoint('quote"backslash\\slash/', 1L, 1D),
+      new GaugePoint('control\b\t\n\f\r\u0000\u001f\u007f', 1L, 1D),
+      new GaugePoint('unicode.caf\u00e9.\u65e5\u672c.\ud83d\ude00.end', 1L, 1D),
+      new AvailabilityPoint('availability', 1L, 'line\nbreak "quoted" \u00e9t\u00e9'),
+      new AvailabilityPoint('null.availability', 1L, null),
+    ])
+  }
+
+  @Test
+  void testLargeRandomBatches() {
+    def random = new Random(7)
+    10.times {
+      def dataPoints = (1..(1 + random.nextInt(3000))).collect { i ->
+        def name = "prefix.vertx.metric${random.nextInt(500)}"
+        def timestamp = random.nextLong()
+        switch (random.nextInt(3)) {
+          case 0: return new GaugePoint(name, timestamp, random.nextDouble() * random.nextInt())
+          case 1: return new CounterPoint(name, timestamp, random.nextLong())
+          default: return new AvailabilityPoint(name, timestamp, random.nextBoolean() ? 'up' : 'down')
+        }
+      }
+      assertSameEncoding(dataPoints)
+    }
+  }
+
+  private void assertSameEncoding(List<DataPoint> dataPoints) {
+    def expected = legacyEncoding(dataPoints).toBuffer().bytes
+    def actual = encoder.encode(dataPoints).bytes
+    assertArrayEquals(new String(expected, 'UTF-8'), expected, actual)
+  }
+
+  // The JsonObject tree based encoding Sender used before MixedDataEncoder
+  private static JsonObject legacyEncoding(List<DataPoint> dataPoints) {
+    Map mixedData = dataPoints.stream().collect(groupingBy({ it.getClass() } as Function, groupingBy({ it.name } as Function)))
+    def json = new JsonObject()
+    addMixedData(json, 'gauges', mixedData.get(GaugePoint.class))
+    addMixedData(json, 'counters', mixedData.get(CounterPoint.class))
+    addMixedData(json, 'availabilities', mixedData.get(AvailabilityPoint.class))
+    json
+  }
+
+  private static void addMixedData(JsonObject json, String type, Map<String, List<DataPoint>> data) {
+    if (data == null) {
+      return
+    }
+    def metrics = new JsonArray()
+    data.each { id, points ->
+      def jsonDataPoints = new JsonArray()
+      points.each { point ->
+        jsonDataPoints.add(new JsonObject().put('timestamp', point.timestamp).put('value', (Object) point.value))
+      }
+      metrics.add(new JsonObject().put('id', id).put('data', jsonDataPoints))
+    }
+    json.put(type, metrics)
+  }
+}
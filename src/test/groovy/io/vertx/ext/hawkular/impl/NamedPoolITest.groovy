@@ -25,7 +25,8 @@ import org.junit.Test
  */
 class NamedPoolITest extends BaseITest {
   static final NAMED_POOL_METRICS =
-    ['delay', 'queued', 'queuedCount', 'usage', 'inUse', 'completed', 'maxPoolSize', 'poolRatio']
+    ['delay', 'queued', 'queuedMax', 'queuedCount', 'usage', 'inUse', 'inUseMax', 'completed', 'delayTime.count',
+     'usageTime.count', 'maxPoolSize', 'poolRatio', 'poolRatioMax']
 
   def workerExecutorName = "test-worker"
   int maxPoolSize = 8
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl
+
+import io.vertx.core.net.SocketAddress
+import io.vertx.ext.hawkular.VertxHawkularOptions
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+/**
+ * @author Thomas Segismont
+ */
+class NetClientMetricsImplTest {
+
+  def remoteAddress = SocketAddress.inetSocketAddress(8080, '10.0.0.1')
+
+  @Test
+  void testIdleEviction() {
+    def supplier = new NetClientMetricsSupplier('', new VertxHawkularOptions().setRemoteIdleTimeout(1))
+    def metrics = new NetClientMetricsImpl(supplier)
+    def measurements = metrics.connected(remoteAddress, 'pod-1')
+    metrics.bytesWritten(measurements, remoteAddress, 42)
+    metrics.disconnected(measurements, remoteAddress)
+
+    def values = collect(supplier)
+    assertEquals(42L, values['vertx.net.client.pod-1:8080.bytesSent'])
+    assertEquals(0L, values['vertx.net.client.evictions'])
+
+    Thread.sleep(1100)
+    // Final values are reported when evicted
+    values = collect(supplier)
+    assertEquals(42L, values['vertx.net.client.pod-1:8080.bytesSent'])
+    assertEquals(1L, values['vertx.net.client.evictions'])
+
+    values = collect(supplier)
+    assertFalse(values.containsKey('vertx.net.client.pod-1:8080.bytesSent'))
+    assertFalse(measurements.incrementConnections())
+
+    // A new connection gets new measurements
+    def next = metrics.connected(remoteAddress, 'pod-1')
+    assertNotSame(measurements, next)
+    values = collect(supplier)
+    assertEquals(1L, values['vertx.net.client.pod-1:8080.connections'] as long)
+    // Counters resume from the final values
+    assertEquals(42L, values['vertx.net.client.pod-1:8080.bytesSent'])
+  }
+
+  @Test
+  void testCountersMonotonicAcrossClients() {
+    def supplier = new NetClientMetricsSupplier('', new VertxHawkularOptions().setRemoteIdleTimeout(1))
+    def client1 = new NetClientMetricsImpl(supplier)
+    def client2 = new NetClientMetricsImpl(supplier)
+    def measurements1 = client1.connected(remoteAddress, 'pod-1')
+    client1.bytesWritten(measurements1, remoteAddress, 10)
+    client1.disconnected(measurements1, remoteAddress)
+    def measurements2 = client2.connected(remoteAddress, 'pod-1')
+    client2.bytesWritten(measurements2, remoteAddress, 5)
+    assertEquals(15L, collect(supplier)['vertx.net.client.pod-1:8080.bytesSent'])
+
+    // The first client evicts the address, the second one still uses it
+    Thread.sleep(1100)
+    def values = collect(supplier)
+    assertEquals(1L, values['vertx.net.client.evictions'])
+    assertEquals(15L, values['vertx.net.client.pod-1:8080.bytesSent'])
+    assertEquals(1L, values['vertx.net.client.pod-1:8080.connections'] as long)
+
+    client2.bytesWritten(measurements2, remoteAddress, 5)
+    client2.disconnected(measurements2, remoteAddress)
+    client2.close()
+    // Final values of the closed client
+    assertEquals(20L, collect(supplier)['vertx.net.client.pod-1:8080.bytesSent'])
+    assertFalse(collect(supplier).containsKey('vertx.net.client.pod-1:8080.bytesSent'))
+
+    // No client held the address for less than the idle timeout
+    def measurements3 = client1.connected(remoteAddress, 'pod-1')
+    client1.bytesWritten(measurements3, remoteAddress, 1)
+    assertEquals(21L, collect(supplier)['vertx.net.client.pod-1:8080.bytesSent'])
+  }
+
+  @Test(timeout = 5000L)
+  void testConnectedWhileEvicted() {
+    def supplier = new NetClientMetricsSupplier('', new VertxHawkularOptions().setRemoteIdleTimeout(1))
+    def metrics = new NetClientMetricsImpl(supplier)
+    def measurements = metrics.connected(remoteAddress, 'pod-1')
+    metrics.disconnected(measurements, remoteAddress)
+    // Evicted by the collector, but not removed from the registry yet
+    measurements.evictIfIdle(System.nanoTime(), 0)
+    assertTrue(measurements.evictIfIdle(System.nanoTime(), 0))
+
+    def next = metrics.connected(remoteAddress, 'pod-1')
+    assertNotSame(measurements, next)
+    values = collect(supplier)
+    assertEquals(1L, values['vertx.net.client.pod-1:8080.connections'] as long)
+    // Counters resume from the final values
+    assertEquals(42L, values['vertx.net.client.pod-1:8080.bytesSent'])
+  }
+
+  @Test
+  void testCountersMonotonicAcrossClients() {
+    def supplier = new NetClientMetricsSupplier('', new VertxHawkularOptions().setRemoteIdleTimeout(1))
+    def client1 = new NetClientMetricsImpl(supplier)
+    def client2 = new NetClientMetricsImpl(supplier)
+    def measurements1 = client1.connected(remoteAddress, 'pod-1')
+    client1.bytesWritten(measurements1, remoteAddress, 10)
+    client1.disconnected(measurements1, remoteAddress)
+    def measurements2 = client2.connected(remoteAddress, 'pod-1')
+    client2.bytesWritten(measurements2, remoteAddress, 5)
+    assertEquals(15L, collect(supplier)['vertx.net.client.pod-1:8080.bytesSent'])
+
+    // The first client evicts the address, the second one still uses it
+    Thread.sleep(1100)
+    def values = collect(supplier)
+    assertEquals(1L, values['vertx.net.client.evictions'])
+    assertEquals(15L, values['vertx.net.client.pod-1:8080.bytesSent'])
+    assertEquals(1L, values['vertx.net.client.pod-1:8080.connections'] as long)
+
+    client2.bytesWritten(measurements2, remoteAddress, 5)
+    client2.disconnected(measurements2, remoteAddress)
+    client2.close()
+    // Final values of the closed client
+    assertEquals(20L, collect(supplier)['vertx.net.client.pod-1:8080.bytesSent'])
+    assertFalse(collect(supplier).containsKey('vertx.net.client.pod-1:8080.bytesSent'))
+
+    // No client held the address for less than the idle timeout
+    def measurements3 = client1.connected(remoteAddress, 'pod-1')
+    client1.bytesWritten(measurements3, remoteAddress, 1)
+    assertEquals(21L, collect(supplier)['vertx.net.client.pod-1:8080.bytesSent'])
+  }
+
+  @Test
+  void testActiveRemoteNotEvicted() {
+    def supplier = new NetClientMetricsSupplier('', new VertxHawkularOptions().setRemoteIdleTimeout(1))
+    def metrics = new NetClientMetricsImpl(supplier)
+    def measurements = metrics.connected(remoteAddress, 'pod-1')
+    collect(supplier)
+    Thread.sleep(1100)
+    collect(supplier)
+    // Short lived connections between collections keep the remote active
+    metrics.disconnected(metrics.connected(remoteAddress, 'pod-1'), remoteAddress)
+    metrics.disconnected(measurements, remoteAddress)
+    def values = collect(supplier)
+    assertEquals(0L, values['vertx.net.client.evictions'])
+    assertTrue(values.containsKey('vertx.net.client.pod-1:8080.connections'))
+  }
+
+  @Test
+  void testEvictionDisabled() {
+    def supplier = new NetClientMetricsSupplier('', new VertxHawkularOptions().setRemoteIdleTimeout(0))
+    def metrics = new NetClientMetricsImpl(supplier)
+    metrics.disconnected(metrics.connected(remoteAddress, 'pod-1'), remoteAddress)
+    collect(supplier)
+    assertTrue(collect(supplier).containsKey('vertx.net.client.pod-1:8080.connections'))
+  }
+
+  private static Map<String, Object> collect(NetClientMetricsSupplier supplier) {
+    supplier.collect().collectEntries { [(it.name): it.value] }
+  }
+}
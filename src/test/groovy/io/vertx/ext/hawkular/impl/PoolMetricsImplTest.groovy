@@ -0,0 +1,102 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl
+
+import com.sun.management.ThreadMXBean
+import groovy.transform.CompileStatic
+import io.vertx.ext.hawkular.VertxHawkularOptions
+import org.junit.Test
+
+import java.lang.management.ManagementFactory
+
+import static org.junit.Assert.*
+
+/**
+ * @author Thomas Segismont
+ */
+class PoolMetricsImplTest {
+
+  def supplier = new NamedPoolMetricsSupplier('', new VertxHawkularOptions().setLatencyPercentiles([50d]))
+  def poolMetrics = new PoolMetricsImpl(supplier, 'worker', 'test', 4)
+
+  @Test
+  void testHighWatermarks() {
+    def submitted = (1..3).collect { poolMetrics.submitted() }
+    def begun = submitted.collect { poolMetrics.begin(it) }
+    begun.take(2).each { poolMetrics.end(it, true) }
+
+    def values = collect()
+    assertEquals(3L, values['vertx.pool.worker.test.queuedMax'] as long)
+    assertEquals(3L, values['vertx.pool.worker.test.inUseMax'] as long)
+    assertEquals(1L, values['vertx.pool.worker.test.inUse'] as long)
+    assertEquals(0.75d, values['vertx.pool.worker.test.poolRatioMax'] as double, 0.0001d)
+
+    // Watermarks are reset to the current values after collection
+    values = collect()
+    assertEquals(0L, values['vertx.pool.worker.test.queuedMax'] as long)
+    assertEquals(1L, values['vertx.pool.worker.test.inUseMax'] as long)
+  }
+
+  @Test
+  void testHistograms() {
+    def submitted = poolMetrics.submitted()
+    Thread.sleep(5)
+    def begun = poolMetrics.begin(submitted)
+    Thread.sleep(10)
+    poolMetrics.end(begun, true)
+
+    def values = collect()
+    assertEquals(1L, values['vertx.pool.worker.test.delayTime.count'] as long)
+    assertTrue(values['vertx.pool.worker.test.delayTime.p50'] as double >= 5)
+    assertEquals(1L, values['vertx.pool.worker.test.usageTime.count'] as long)
+    assertTrue(values['vertx.pool.worker.test.usageTime.p50'] as double >= 10)
+
+    values = collect()
+    assertEquals(0L, values['vertx.pool.worker.test.delayTime.count'] as long)
+    assertFalse(values.containsKey('vertx.pool.worker.test.delayTime.p50'))
+  }
+
+  @Test
+  void testTasksRecycled() {
+    def task = poolMetrics.submitted()
+    poolMetrics.end(poolMetrics.begin(task), true)
+    assertSame(task, poolMetrics.submitted())
+  }
+
+  @Test
+  @CompileStatic
+  void testRecordingDoesNotAllocate() {
+    PoolMetricsImpl metrics = (PoolMetricsImpl) poolMetrics
+    ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.threadMXBean
+    long threadId = Thread.currentThread().id
+    int iterations = 100000
+    for (int i = 0; i < iterations; i++) {
+      metrics.end(metrics.begin(metrics.submitted()), true)
+    }
+    long before = threadMXBean.getThreadAllocatedBytes(threadId)
+    for (int i = 0; i < iterations; i++) {
+      metrics.end(metrics.begin(metrics.submitted()), true)
+    }
+    long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - before
+    // Any allocation per task would amount to at least 16 bytes per iteration
+    assertTrue("${allocated} bytes allocated".toString(), allocated < iterations)
+  }
+
+  private Map<String, Object> collect() {
+    supplier.collect().collectEntries { [(it.name): it.value] }
+  }
+}
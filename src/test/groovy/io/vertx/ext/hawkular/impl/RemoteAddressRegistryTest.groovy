@@ -0,0 +1,63 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl
+
+import io.vertx.core.net.SocketAddress
+import org.junit.Test
+
+import java.util.concurrent.atomic.AtomicInteger
+
+import static org.junit.Assert.*
+
+/**
+ * @author Thomas Segismont
+ */
+class RemoteAddressRegistryTest {
+
+  def created = new AtomicInteger()
+  def registry = new RemoteAddressRegistry<NetClientConnectionsMeasurements>({ SocketAddress address ->
+    created.incrementAndGet()
+    new NetClientConnectionsMeasurements()
+  })
+
+  @Test
+  void testLookup() {
+    def measurements = registry.get('localhost', 8080)
+    assertSame(measurements, registry.get('localhost', 8080))
+    assertNotSame(measurements, registry.get('localhost', 8081))
+    assertNotSame(measurements, registry.get('example.com', 8080))
+    assertEquals(3, created.get())
+
+    def addresses = []
+    registry.forEach { address, m -> addresses << "${address.host()}:${address.port()}".toString() }
+    assertEquals(['example.com:8080', 'localhost:8080', 'localhost:8081'] as Set, addresses as Set)
+  }
+
+  @Test
+  void testConcurrentCreation() {
+    def threads = (1..8).collect {
+      Thread.start {
+        1000.times { registry.get('localhost', 8000 + it % 10).incrementConnections() }
+      }
+    }
+    threads*.join()
+    assertEquals(10, created.get())
+    def connections = 0L
+    registry.forEach { address, m -> connections += m.snapshot.connections }
+    assertEquals(8000L, connections)
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl
+
+import io.vertx.ext.hawkular.VertxHawkularOptions
+import org.junit.Test
+
+import static java.util.concurrent.TimeUnit.*
+import static org.junit.Assert.*
+
+/**
+ * @author Thomas Segismont
+ */
+class ReporterMetricsSupplierTest {
+
+  def reporterMetrics = new ReporterMetricsSupplier('app')
+
+  @Test
+  void testCollectionTimePerSupplier() {
+    reporterMetrics.collected(new HttpServerMetricsSupplier('', new VertxHawkularOptions()), NANOSECONDS.convert(3, MILLISECONDS))
+    reporterMetrics.collected(new HttpServerMetricsSupplier('', new VertxHawkularOptions()), NANOSECONDS.convert(2, MILLISECONDS))
+    reporterMetrics.collected(reporterMetrics, NANOSECONDS.convert(1, MILLISECONDS))
+    assertEquals(5L, value('collectionTime.httpServer'))
+    assertEquals(1L, value('collectionTime.reporter'))
+  }
+
+  @Test
+  void testBatches() {
+    reporterMetrics.batch(10)
+    reporterMetrics.batch(20)
+    reporterMetrics.sent(100)
+    reporterMetrics.sent(150)
+    assertEquals(2L, value('batches'))
+    assertEquals(15D, value('pointsPerBatch'), 0D)
+    assertEquals(250L, value('payloadBytes'))
+  }
+
+  @Test
+  void testResponses() {
+    reporterMetrics.response(200, NANOSECONDS.convert(10, MILLISECONDS))
+    reporterMetrics.response(204, NANOSECONDS.convert(30, MILLISECONDS))
+    reporterMetrics.response(503, NANOSECONDS.convert(20, MILLISECONDS))
+    reporterMetrics.response(-1, 0)
+    assertEquals(2L, value('responses.2xx'))
+    assertEquals(0L, value('responses.4xx'))
+    assertEquals(1L, value('responses.5xx'))
+    assertEquals(1L, value('responses.error'))
+    assertEquals(60L, value('sendTime'))
+    assertEquals(20D, value('sendLatency'), 0D)
+  }
+
+  @Test
+  void testTagCacheHitRatio() {
+    assertNull(value('tagCacheHitRatio'))
+    reporterMetrics.tagCacheLookups(3, 1)
+    assertEquals(0.75D, value('tagCacheHitRatio'), 0D)
+  }
+
+  private def value(String name) {
+    reporterMetrics.collect().find { it.name == "app.vertx.hawkular.reporter.${name}" as String }?.value
+  }
+}
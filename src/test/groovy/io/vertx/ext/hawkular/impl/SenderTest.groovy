@@ -0,0 +1,349 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl
+
+import io.vertx.core.Context
+import io.vertx.core.Vertx
+import io.vertx.core.buffer.Buffer
+import io.vertx.core.http.HttpServer
+import io.vertx.core.http.HttpServerRequest
+import io.vertx.core.json.JsonObject
+import io.vertx.ext.hawkular.CircuitBreakerOptions
+import io.vertx.ext.hawkular.OverflowPolicy
+import io.vertx.ext.hawkular.RetryOptions
+import io.vertx.ext.hawkular.SpoolOptions
+import io.vertx.ext.hawkular.VertxHawkularOptions
+import org.junit.After
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutionException
+
+import static java.util.concurrent.TimeUnit.*
+import static org.junit.Assert.*
+
+/**
+ * Runs the sender against a stub Hawkular server. Batch requests are answered with the queued status codes, or held
+ * back until released when the queue is empty.
+ *
+ * @author Thomas Segismont
+ */
+class SenderTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder()
+
+  Vertx vertx
+  Context context
+  int port
+  def reporterMetrics = new ReporterMetricsSupplier('')
+  Sender sender
+  List<JsonObject> batches = new CopyOnWriteArrayList<>()
+  List<HttpServerRequest> pending = new CopyOnWriteArrayList<>()
+  Queue<Integer> statusCodes = new ConcurrentLinkedQueue<>()
+
+  @Before
+  void setUp() {
+    vertx = Vertx.vertx()
+    def listening = new CompletableFuture<HttpServer>()
+    vertx.createHttpServer().requestHandler { req ->
+      if (req.path().endsWith('/status')) {
+        req.response().end(new JsonObject().put('Implementation-Version', '0.27.1.Final').toBuffer())
+        return
+      }
+      req.bodyHandler { body ->
+        if (!req.path().endsWith('/raw')) {
+          req.response().end()
+          return
+        }
+        batches.add(new JsonObject(body))
+        Integer code = statusCodes.poll()
+        if (code == null) {
+          pending.add(req)
+        } else {
+          req.response().setStatusCode(code).end()
+        }
+      }
+    }.listen(0) { ar ->
+      if (ar.succeeded()) {
+        listening.complete(ar.result())
+      } else {
+        listening.completeExceptionally(ar.cause())
+      }
+    }
+    port = listening.get(10, SECONDS).actualPort()
+    context = vertx.getOrCreateContext()
+  }
+
+  @After
+  void tearDown() {
+    def latch = new CountDownLatch(1)
+    vertx.close { latch.countDown() }
+    latch.await(10, SECONDS)
+  }
+
+  @Test
+  void testInFlightWindow() {
+    start(options().setMaxInFlightBatches(2))
+    handle(points('p', 0..<4))
+    waitUntil { pending.size() == 2 }
+    handle(points('p', 4..<6))
+    sleep(200)
+    // Both slots are taken, the batch waits in the queue
+    assertEquals(2, batches.size())
+    assertEquals(2L, metric('queueSize') as long)
+
+    release(200)
+    waitUntil { batches.size() == 3 }
+    assertEquals(['p4', 'p5'] as Set, values(batches[2]).keySet())
+    assertEquals(0L, metric('queueSize') as long)
+  }
+
+  @Test
+  void testDropOldest() {
+    start(options().setOverflowPolicy(OverflowPolicy.DROP_OLDEST))
+    handle(points('p', 0..<2))
+    handle(points('p', 2..<8))
+    // The queue is bounded by maxInFlightBatches * batchSize
+    assertEquals(2L, metric('queueSize') as long)
+    assertEquals(4L, metric('droppedPoints'))
+
+    waitUntil { pending.size() == 1 }
+    release(200)
+    waitUntil { batches.size() == 2 }
+    assertEquals(['p6', 'p7'] as Set, values(batches[1]).keySet())
+  }
+
+  @Test
+  void testDropNewest() {
+    start(options().setOverflowPolicy(OverflowPolicy.DROP_NEWEST))
+    handle(points('p', 0..<2))
+    handle(points('p', 2..<8))
+    assertEquals(2L, metric('queueSize') as long)
+    assertEquals(4L, metric('droppedPoints'))
+
+    waitUntil { pending.size() == 1 }
+    release(200)
+    waitUntil { batches.size() == 2 }
+    assertEquals(['p2', 'p3'] as Set, values(batches[1]).keySet())
+  }
+
+  @Test
+  void testCoalesce() {
+    start(options().setOverflowPolicy(OverflowPolicy.COALESCE))
+    handle(points('p', 0..<2))
+    handle([gauge('c', 1), gauge('d', 1), gauge('c', 2), gauge('d', 2), gauge('c', 3)])
+    // Only the latest point of each metric is kept, nothing is dropped
+    assertEquals(2L, metric('queueSize') as long)
+    assertEquals(3L, metric('coalescedPoints'))
+    assertEquals(0L, metric('droppedPoints'))
+
+    waitUntil { pending.size() == 1 }
+    release(200)
+    waitUntil { batches.size() == 2 }
+    assertEquals([c: 3d, d: 2d], values(batches[1]))
+  }
+
+  @Test
+  void testRetryDelayBounds() {
+    start(options().setRetryOptions(new RetryOptions().setBaseDelay(100).setMaxDelay(1000).setJitter(0)))
+    assertEquals([100L, 200L, 400L, 800L, 1000L, 1000L], [1, 2, 3, 4, 5, 30].collect { sender.retryDelay(it) })
+
+    start(options().setRetryOptions(new RetryOptions().setBaseDelay(100).setMaxDelay(1000).setJitter(0.5)))
+    1000.times {
+      long delay = sender.retryDelay(1)
+      assertTrue("${delay}", delay >= 50 && delay <= 100)
+      delay = sender.retryDelay(3)
+      assertTrue("${delay}", delay >= 200 && delay <= 400)
+      delay = sender.retryDelay(30)
+      assertTrue("${delay}", delay >= 500 && delay <= 1000)
+    }
+  }
+
+  @Test
+  void testServerErrorRetried() {
+    statusCodes.addAll([500, 200])
+    start(options().setRetryOptions(retryOptions()))
+    handle(points('p', 0..<2))
+    waitUntil { batches.size() == 2 && metric('responses.2xx') == 1L }
+    assertEquals(batches[0], batches[1])
+    assertEquals(1L, metric('retries'))
+    assertEquals(0L, metric('retryGiveUps'))
+  }
+
+  @Test
+  void testClientErrorNotRetried() {
+    statusCodes.add(400)
+    start(options().setRetryOptions(retryOptions()))
+    handle(points('p', 0..<2))
+    waitUntil { metric('responses.4xx') == 1L }
+    sleep(200)
+    // The payload is at fault, the batch is dropped
+    assertEquals(1, batches.size())
+    assertEquals(1L, metric('rejectedBatches'))
+    assertEquals(0L, metric('retries'))
+    assertEquals(0L, metric('retryGiveUps'))
+  }
+
+  @Test
+  void testGiveUpToSpool() {
+    statusCodes.addAll([500, 500])
+    def spoolOptions = new SpoolOptions().setEnabled(true).setDirectory(folder.root.absolutePath)
+    start(options().setRetryOptions(retryOptions().setMaxAttempts(2)).setSpoolOptions(spoolOptions))
+    waitUntil { sender.spool != null }
+    handle(points('p', 0..<2))
+    waitUntil { metric('spooledBatches') == 1L }
+    assertEquals(2, batches.size())
+    assertEquals(1L, metric('retries'))
+    assertEquals(1L, metric('retryGiveUps'))
+  }
+
+  @Test
+  void testRetryWaitsForCircuitBreaker() {
+    statusCodes.add(500)
+    def circuitBreakerOptions = new CircuitBreakerOptions().setEnabled(true).setFailureThreshold(1).setProbeInterval(60000)
+    start(options().setRetryOptions(retryOptions()).setCircuitBreakerOptions(circuitBreakerOptions))
+    handle(points('p', 0..<2))
+    waitUntil { metric('retries') == 1L }
+    sleep(300)
+    // The circuit is open, the retry does not spend an attempt
+    assertEquals(1, batches.size())
+    assertEquals('down', metric('circuitBreaker'))
+    assertEquals(0L, metric('retryGiveUps'))
+  }
+
+  @Test
+  void testStaleAttemptIgnored() {
+    start(options().setRetryOptions(retryOptions()))
+    onContext {
+      def batch = new Sender.InFlightBatch(sender, Buffer.buffer('{}'), 2, null)
+      sender.inFlightBatches = 1
+      batch.attempts = 2
+      batch.sentAt = System.nanoTime()
+      // A late failure of the first attempt
+      batch.complete(1, 500)
+      batch.complete(2, 200)
+      // Completed already
+      batch.complete(2, 500)
+      assertEquals(0, sender.inFlightBatches)
+    }
+    assertEquals(1L, metric('responses.2xx'))
+    assertEquals(0L, metric('responses.5xx'))
+    assertEquals(0L, metric('retries'))
+  }
+
+  @Test
+  void testDiscoveryFailureKeepsBatchSize() {
+    start(options().setAdaptiveBatching(true).setMinBatchSize(1).setMaxBatchSize(4))
+    onContext {
+      sender.inFlightBatches = 2
+      def batch = new Sender.InFlightBatch(sender, Buffer.buffer('{}'), 2, null)
+      batch.attempts = 1
+      // The endpoint could not be discovered, nothing was posted
+      batch.complete(1, -1)
+      assertEquals(2, sender.batchSizeController.batchSize())
+
+      batch = new Sender.InFlightBatch(sender, Buffer.buffer('{}'), 2, null)
+      batch.attempts = 1
+      batch.sentAt = System.nanoTime()
+      batch.complete(1, -1)
+      assertEquals(1, sender.batchSizeController.batchSize())
+    }
+  }
+
+  private static RetryOptions retryOptions() {
+    new RetryOptions().setMaxAttempts(3).setBaseDelay(10).setMaxDelay(10).setJitter(0)
+  }
+
+  private VertxHawkularOptions options() {
+    new VertxHawkularOptions()
+      .setHost('localhost')
+      .setPort(port)
+      .setBatchSize(2)
+      .setBatchDelay(3600)
+      .setMaxInFlightBatches(1)
+  }
+
+  private void start(VertxHawkularOptions options) {
+    onContext { sender = new Sender(vertx, options, context, reporterMetrics) }
+  }
+
+  private void handle(List<DataPoint> dataPoints) {
+    onContext { sender.handle(dataPoints) }
+  }
+
+  private void onContext(Closure action) {
+    def done = new CompletableFuture()
+    context.runOnContext {
+      try {
+        action()
+        done.complete(null)
+      } catch (Throwable t) {
+        done.completeExceptionally(t)
+      }
+    }
+    try {
+      done.get(10, SECONDS)
+    } catch (ExecutionException e) {
+      throw e.cause
+    }
+  }
+
+  private void release(int code) {
+    pending.remove(0).response().setStatusCode(code).end()
+  }
+
+  private static void waitUntil(Closure<Boolean> condition) {
+    long deadline = System.currentTimeMillis() + 10000
+    while (!condition()) {
+      assertTrue('Timed out waiting for condition', System.currentTimeMillis() < deadline)
+      sleep(10)
+    }
+  }
+
+  private static List<DataPoint> points(String prefix, Range<Integer> range) {
+    range.collect { gauge("${prefix}${it}", it) }
+  }
+
+  private static DataPoint gauge(String name, double value) {
+    new GaugePoint(name, System.currentTimeMillis(), value)
+  }
+
+  /**
+   * @return the latest value of each metric in a mixed data batch
+   */
+  private static Map<String, Object> values(JsonObject batch) {
+    def res = [:]
+    ['gauges', 'counters'].each { type ->
+      batch.getJsonArray(type)?.each { JsonObject metric ->
+        def data = metric.getJsonArray('data')
+        res[metric.getString('id')] = data.getJsonObject(data.size() - 1).getValue('value')
+      }
+    }
+    res
+  }
+
+  private def metric(String name) {
+    reporterMetrics.collect().find { it.name == "vertx.hawkular.reporter.${name}".toString() }.value
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2018 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.hawkular.impl
+
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+/**
+ * @author Thomas Segismont
+ */
+class StatusCodeCountersTest {
+
+  @Test
+  void testClasses() {
+    def counters = new StatusCodeCounters(false)
+    [200, 201, 302, 404, 500, 503, 42, 600].each { counters.record(it) }
+    def values = collect(counters)
+    assertEquals([
+      'responses.1xx': 0L,
+      'responses.2xx': 2L,
+      'responses.3xx': 1L,
+      'responses.4xx': 1L,
+      'responses.5xx': 2L
+    ], values)
+  }
+
+  @Test
+  void testExactCodes() {
+    def counters = new StatusCodeCounters(true)
+    [200, 200, 404, 599].each { counters.record(it) }
+    def values = collect(counters)
+    assertEquals(2L, values['responses.200'])
+    assertEquals(1L, values['responses.404'])
+    assertEquals(1L, values['responses.599'])
+    assertFalse(values.containsKey('responses.500'))
+    assertEquals(2L, values['responses.5xx'] + values['responses.4xx'])
+  }
+
+  private static Map<String, Long> collect(StatusCodeCounters counters) {
+    def res = []
+    counters.collect('', 0, res)
+    res.collectEntries { [(it.name): it.value] }
+  }
+}